@@ -9,9 +9,8 @@
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Class file format.
@@ -279,21 +278,60 @@ public <T extends Attribute> T getAttribute(Class<T> type) {
 		return null;
 	}
 
+	/**
+	 * @return Computed size of the class for serialization.
+	 */
+	public int computeSize() {
+		// u4: magic
+		// u2: minor_version
+		// u2: major_version
+		// u2: constant_pool_count
+		// ??: CONSTANTS
+		int size = 10 + pool.computeSize();
+		// u2: access_flags
+		// u2: this_class
+		// u2: super_class
+		// u2: interfaces_count
+		// u2 * X: INTERFACES
+		size += 8 + 2 * interfaceClasses.size();
+		// u2: fields_count
+		// ??: FIELDS
+		size += 2;
+		for (Field field : fields)
+			size += field.computeSize();
+		// u2: methods_count
+		// ??: METHODS
+		size += 2;
+		for (Method method : methods)
+			size += method.computeSize();
+		// u2: attributes_count
+		// ??: ATTRIBS
+		size += 2;
+		for (Attribute attribute : attributes)
+			size += attribute.computeCompleteLength();
+		return size;
+	}
+
+	/**
+	 * @return Snapshot of which pool indices the class references, and how often.
+	 */
 	@Nonnull
+	public ConstPoolReferences computeCpReferences() {
+		return new ConstPoolReferences(this);
+	}
+
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = new HashSet<>();
-		set.add(getThisClass());
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(getThisClass());
 		CpClass superClass = getSuperClass();
 		if (superClass != null)
-			set.add(superClass);
-		set.addAll(getInterfaceClasses());
+			consumer.accept(superClass);
+		getInterfaceClasses().forEach(consumer);
 		for (Attribute attribute : getAttributes())
-			set.addAll(attribute.cpAccesses());
+			attribute.forEachCpAccess(consumer);
 		for (ClassMember field : getFields())
-			set.addAll(field.cpAccesses());
+			field.forEachCpAccess(consumer);
 		for (ClassMember method : getMethods())
-			set.addAll(method.cpAccesses());
-		return set;
+			method.forEachCpAccess(consumer);
 	}
 }
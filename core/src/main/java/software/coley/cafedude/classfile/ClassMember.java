@@ -7,9 +7,8 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Base class member.
@@ -99,6 +98,21 @@ public void setAttributes(@Nonnull List<Attribute> attributes) {
 		this.attributes = attributes;
 	}
 
+	/**
+	 * @return Computed size of the member for serialization.
+	 */
+	public int computeSize() {
+		// u2: access_flags
+		// u2: name_index
+		// u2: descriptor_index
+		// u2: attributes_count
+		// ??: ATTRIBS
+		int size = 8;
+		for (Attribute attribute : attributes)
+			size += attribute.computeCompleteLength();
+		return size;
+	}
+
 	@Override
 	public <T extends Attribute> T getAttribute(Class<T> type) {
 		for (Attribute attribute : attributes) {
@@ -109,15 +123,12 @@ public <T extends Attribute> T getAttribute(Class<T> type) {
 		return null;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = new HashSet<>();
-		set.add(getName());
-		set.add(getType());
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(getName());
+		consumer.accept(getType());
 		for (Attribute attribute : getAttributes())
-			set.addAll(attribute.cpAccesses());
-		return set;
+			attribute.forEachCpAccess(consumer);
 	}
 
 	@Override
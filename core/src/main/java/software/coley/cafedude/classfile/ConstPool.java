@@ -1,15 +1,20 @@
 package software.coley.cafedude.classfile;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import software.coley.cafedude.classfile.constant.CpEntry;
 import software.coley.cafedude.classfile.constant.CpInternal;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * Constant pool wrapper.
@@ -18,12 +23,113 @@
  */
 public class ConstPool implements List<CpEntry> {
 	private final List<CpEntry> backing = new ArrayList<>();
+	private int revision;
+	private Map<CpEntry, Integer> lookup;
+	private int lookupRevision;
+	private ByteBuffer encoded;
+	private int encodedRevision;
+	private int encodedSize;
 
 	public ConstPool() {
 		// Constant pool index starts at one, so we add a reserved item at the 0th index.
 		backing.add(ImplZero.INSTANCE);
 	}
 
+	/**
+	 * The revision changes whenever an operation may change which entry is at an existing index,
+	 * such as insertions, removals and replacements. Appending new entries does not change the revision.
+	 * <br>
+	 * Content that refers to the pool by index <i>(such as code read from a class file)</i> can compare revisions
+	 * to check if those indices are still valid.
+	 *
+	 * @return Current revision of the pool layout.
+	 */
+	public int getRevision() {
+		return revision;
+	}
+
+	/**
+	 * @return {@code true} when {@link #indexOf(Object)} and {@link #contains(Object)} are backed by a hash index.
+	 */
+	public boolean isLookupIndexed() {
+		return lookup != null;
+	}
+
+	/**
+	 * Enables or disables a hash index of entry content to the first index holding equal content.
+	 * This makes {@link #indexOf(Object)} and {@link #contains(Object)} constant time, which benefits code that
+	 * checks for an existing equal entry before adding a new one.
+	 * <br>
+	 * Appended entries are added to the index as they are added to the pool. Other changes to the pool layout,
+	 * such as removals, cause the index to be rebuilt on the next lookup. Entries that have their content changed
+	 * after being added are re-checked when found by a lookup, but a lookup for their new content may not find them
+	 * until the index is next rebuilt.
+	 *
+	 * @param indexed
+	 *        {@code true} to index entry content.
+	 */
+	public void setLookupIndexed(boolean indexed) {
+		if (indexed && lookup == null) {
+			lookup = new HashMap<>();
+			rebuildLookup();
+		} else if (!indexed) {
+			lookup = null;
+		}
+	}
+
+	/**
+	 * Records the encoded entries the pool was read from, so that they can be written back out as-is.
+	 *
+	 * @param encoded
+	 * 		Encoded entries of the pool, following the {@code constant_pool_count}.
+	 * 		The buffer should contain only the pool content, and should not be modified afterwards.
+	 */
+	public void setEncoded(@Nullable ByteBuffer encoded) {
+		this.encoded = encoded;
+		encodedRevision = revision;
+		encodedSize = size();
+	}
+
+	/**
+	 * The encoded entries are only available while the pool is unchanged since {@link #setEncoded(ByteBuffer)}.
+	 * Any entry being added, removed, replaced or {@link CpEntry#isModified() modified} discards them.
+	 *
+	 * @return Encoded entries of the pool, or {@code null} when not available.
+	 */
+	@Nullable
+	public ByteBuffer getEncoded() {
+		ByteBuffer encoded = this.encoded;
+		if (encoded == null)
+			return null;
+		boolean unchanged = revision == encodedRevision && size() == encodedSize;
+		if (unchanged) {
+			for (CpEntry cp : backing) {
+				if (cp.isModified()) {
+					unchanged = false;
+					break;
+				}
+			}
+		}
+		if (!unchanged) {
+			this.encoded = null;
+			return null;
+		}
+		return encoded.duplicate();
+	}
+
+	/**
+	 * @return Computed size of all entries for serialization, not including the {@code constant_pool_count}.
+	 */
+	public int computeSize() {
+		ByteBuffer encoded = getEncoded();
+		if (encoded != null)
+			return encoded.remaining();
+		int size = 0;
+		for (CpEntry cp : backing)
+			size += cp.computeSize();
+		return size;
+	}
+
 	@Override
 	public int size() {
 		// Size is correct as-is since we insert dummy entries at the 0th index and for any wide reserved slot.
@@ -38,11 +144,15 @@ public boolean isEmpty() {
 
 	@Override
 	public boolean contains(Object o) {
+		if (lookup != null)
+			return indexOf(o) > 0;
 		return backing.contains(o);
 	}
 
 	@Override
 	public int indexOf(Object o) {
+		if (lookup != null)
+			return lookupIndexOf(o);
 		for (int i = 1; i < backing.size(); i++)
 			if (Objects.equals(backing.get(i), o))
 				return i;
@@ -112,9 +222,14 @@ public List<CpEntry> subList(int fromIndex, int toIndex) {
 
 	@Override
 	public boolean add(CpEntry cp) {
+		// Appending an entry already in a pool moves it to a new index.
+		if (cp.isInPool())
+			revision++;
 		int index = size();
 		backing.add(cp);
 		cp.setIndex(index);
+		if (lookup != null && lookupRevision == revision)
+			lookup.putIfAbsent(cp, index);
 		if (cp.isWide())
 			backing.add(ImplWidePadding.INSTANCE);
 		return true;
@@ -125,6 +240,7 @@ public void add(int index, CpEntry cp) {
 		if (cp.isWide())
 			backing.add(index, ImplWidePadding.INSTANCE);
 		backing.add(index, cp);
+		revision++;
 		fixIndices(index);
 	}
 
@@ -156,23 +272,57 @@ public CpEntry remove(int index) {
 		CpEntry removed = backing.remove(index);
 		if (removed.isWide() && backing.get(index) instanceof ImplWidePadding)
 			backing.remove(index);
+		revision++;
 		fixIndices(index);
 		return removed;
 	}
 
 	@Override
-	public boolean removeAll(Collection<?> c) {
-		boolean res = false;
-		for (Object o : c)
-			if (o instanceof CpEntry)
-				res |= add((CpEntry) o);
-		return res;
+	public boolean removeAll(@Nonnull Collection<?> c) {
+		return removeIf(c::contains);
+	}
+
+	/**
+	 * Removes all matching entries in a single pass, then updates the indices of the remaining entries once.
+	 * This is preferred over removing entries individually, which updates indices after each removal.
+	 *
+	 * @param filter
+	 * 		Filter matching entries to remove.
+	 *
+	 * @return {@code true} when any entries were removed.
+	 */
+	@Override
+	public boolean removeIf(@Nonnull Predicate<? super CpEntry> filter) {
+		List<CpEntry> backing = this.backing;
+		int size = backing.size();
+		int write = 1;
+		boolean keptLast = false;
+		for (int read = 1; read < size; read++) {
+			CpEntry cp = backing.get(read);
+			if (cp instanceof ImplWidePadding) {
+				// Padding follows its wide entry, and shares its fate.
+				if (keptLast)
+					backing.set(write++, cp);
+				continue;
+			}
+			keptLast = !filter.test(cp);
+			if (keptLast) {
+				cp.setIndex(write);
+				backing.set(write++, cp);
+			}
+		}
+		if (write == size)
+			return false;
+		backing.subList(write, size).clear();
+		revision++;
+		return true;
 	}
 
 	@Override
 	public void clear() {
 		backing.clear();
 		backing.add(ImplZero.INSTANCE);
+		revision++;
 	}
 
 	@Override
@@ -182,11 +332,7 @@ public boolean containsAll(@Nonnull Collection<?> c) {
 
 	@Override
 	public boolean retainAll(@Nonnull Collection<?> c) {
-		boolean ret = false;
-		for (CpEntry cp : this)
-			if (!c.contains(cp))
-				ret |= remove(cp);
-		return ret;
+		return removeIf(cp -> !c.contains(cp));
 	}
 
 	@Override
@@ -205,9 +351,38 @@ public CpEntry set(int index, CpEntry cp) {
 			throw new IllegalArgumentException("Cannot set null");
 		if (index < 1 || index >= size())
 			return null;
+		revision++;
 		return backing.set(index, cp);
 	}
 
+	private int lookupIndexOf(Object o) {
+		if (!(o instanceof CpEntry))
+			return -1;
+		if (lookupRevision != revision)
+			rebuildLookup();
+		Integer index = lookup.get(o);
+		if (index == null)
+			return -1;
+
+		// The entry at the index may have had its content changed since it was indexed.
+		if (o.equals(backing.get(index)))
+			return index;
+		rebuildLookup();
+		index = lookup.get(o);
+		return index == null ? -1 : index;
+	}
+
+	private void rebuildLookup() {
+		Map<CpEntry, Integer> lookup = this.lookup;
+		lookup.clear();
+		for (int i = 1; i < backing.size(); i++) {
+			CpEntry cp = backing.get(i);
+			if (cp.getTag() > 0)
+				lookup.putIfAbsent(cp, i);
+		}
+		lookupRevision = revision;
+	}
+
 	protected void fixIndices(int startingIndex) {
 		listIterator(startingIndex).forEach((i, entry) -> entry.setIndex(i));
 	}
@@ -0,0 +1,111 @@
+package software.coley.cafedude.classfile;
+
+import jakarta.annotation.Nonnull;
+import software.coley.cafedude.classfile.constant.CpEntry;
+import software.coley.cafedude.classfile.constant.CrossCpReferencing;
+
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * Snapshot of which constant pool indices a class references, computed in a single traversal of the class.
+ * <br>
+ * An entry is referenced when something in the class accesses it, or when it is referenced by another
+ * referenced entry. Lookups are by index, so they do not hash entry content.
+ * <br>
+ * The snapshot is not updated when the class or its pool change afterward.
+ *
+ * @author Matt Coley
+ */
+public class ConstPoolReferences {
+	private final ConstPool pool;
+	private final BitSet referenced;
+	private final int[] counts;
+
+	/**
+	 * @param clazz
+	 * 		Class to compute pool references of.
+	 */
+	public ConstPoolReferences(@Nonnull ClassFile clazz) {
+		pool = clazz.getPool();
+		referenced = new BitSet(pool.size());
+		counts = new int[pool.size()];
+		clazz.forEachCpAccess(new Consumer<>() {
+			@Override
+			public void accept(CpEntry cp) {
+				int index = indexOf(cp);
+				if (index < 0)
+					return;
+				counts[index]++;
+				if (!referenced.get(index)) {
+					referenced.set(index);
+					if (cp instanceof CrossCpReferencing referencing)
+						referencing.getReferences().forEach(this);
+				}
+			}
+		});
+	}
+
+	/**
+	 * @param index
+	 * 		Pool index.
+	 *
+	 * @return {@code true} when the entry at the index is referenced.
+	 */
+	public boolean isReferenced(int index) {
+		return index > 0 && referenced.get(index);
+	}
+
+	/**
+	 * @param cp
+	 * 		Pool entry.
+	 *
+	 * @return {@code true} when the entry is in the pool, and is referenced.
+	 */
+	public boolean isReferenced(@Nonnull CpEntry cp) {
+		int index = indexOf(cp);
+		return index > 0 && referenced.get(index);
+	}
+
+	/**
+	 * @param index
+	 * 		Pool index.
+	 *
+	 * @return Number of times the entry at the index is referenced. References from other pool entries
+	 * are counted once per referencing entry that is itself referenced.
+	 */
+	public int getReferenceCount(int index) {
+		return index > 0 && index < counts.length ? counts[index] : 0;
+	}
+
+	/**
+	 * @return Number of referenced entries.
+	 */
+	public int getReferencedCount() {
+		return referenced.cardinality();
+	}
+
+	/**
+	 * @return Copy of the set of referenced pool indices.
+	 */
+	@Nonnull
+	public BitSet getReferencedIndices() {
+		return (BitSet) referenced.clone();
+	}
+
+	/**
+	 * @param cp
+	 * 		Some entry.
+	 *
+	 * @return Index of the entry in the pool, or {@code -1} when the entry is not in the pool this snapshot was
+	 * computed from, such as placeholder entries.
+	 */
+	private int indexOf(@Nonnull CpEntry cp) {
+		if (!cp.isInPool())
+			return -1;
+		int index = cp.getIndex();
+		if (index >= counts.length || pool.get(index) != cp)
+			return -1;
+		return index;
+	}
+}
@@ -10,7 +10,7 @@
 
 import jakarta.annotation.Nonnull;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Method class member.
@@ -40,22 +40,15 @@ public AttributeHolderType getHolderType() {
 		return AttributeHolderType.METHOD;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		for (Attribute attribute : getAttributes()) {
-			if (attribute instanceof CodeAttribute) {
-				int access = getAccess();
-				if (Modifiers.has(access, Modifiers.ACC_NATIVE) || Modifiers.has(access, Modifiers.ACC_ABSTRACT)) {
-					// Native and abstract methods cannot have code, but they can still have the attribute.
-					logger.warn("Code attribute found on native or abstract method: {}", this);
-					continue;
-				}
-			}
-			set.addAll(attribute.cpAccesses());
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		int access = getAccess();
+		if ((Modifiers.has(access, Modifiers.ACC_NATIVE) || Modifiers.has(access, Modifiers.ACC_ABSTRACT))
+				&& getAttribute(CodeAttribute.class) != null) {
+			// Native and abstract methods cannot have code, but they can still have the attribute.
+			logger.warn("Code attribute found on native or abstract method: {}", this);
 		}
-		return set;
+		super.forEachCpAccess(consumer);
 	}
 
 	@Override
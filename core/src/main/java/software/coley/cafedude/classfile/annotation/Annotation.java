@@ -7,9 +7,8 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Annotation outline. Represents an annotation item to be contained in an annotation collection attribute such as:
@@ -59,14 +58,12 @@ public Map<CpUtf8, ElementValue> getValues() {
 		return values;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = new HashSet<>();
-		set.add(getType());
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(getType());
+		values.keySet().forEach(consumer);
 		for (ElementValue value : values.values())
-			set.addAll(value.cpAccesses());
-		return set;
+			value.forEachCpAccess(consumer);
 	}
 
 	/**
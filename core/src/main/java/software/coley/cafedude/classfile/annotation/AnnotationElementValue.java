@@ -3,8 +3,7 @@
 import software.coley.cafedude.classfile.constant.CpEntry;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Nested annotation element value.
@@ -51,10 +50,9 @@ public char getTag() {
 		return super.getTag();
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		return new HashSet<>(annotation.cpAccesses());
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		annotation.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -3,9 +3,8 @@
 import software.coley.cafedude.classfile.constant.CpEntry;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Array element value.
@@ -52,13 +51,10 @@ public char getTag() {
 		return super.getTag();
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = new HashSet<>();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
 		for (ElementValue value : getArray())
-			set.addAll(value.cpAccesses());
-		return set;
+			value.forEachCpAccess(consumer);
 	}
 
 	@Override
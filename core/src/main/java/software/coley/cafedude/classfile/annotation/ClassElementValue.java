@@ -4,8 +4,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.Collections;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Class element value.
@@ -52,10 +51,9 @@ public char getTag() {
 		return super.getTag();
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		return Collections.singleton(classEntry);
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(classEntry);
 	}
 
 	@Override
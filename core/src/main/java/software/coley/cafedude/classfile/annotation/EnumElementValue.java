@@ -4,8 +4,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Enum element value.
@@ -72,13 +71,10 @@ public char getTag() {
 		return super.getTag();
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = new HashSet<>();
-		set.add(name);
-		set.add(type);
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(name);
+		consumer.accept(type);
 	}
 
 	@Override
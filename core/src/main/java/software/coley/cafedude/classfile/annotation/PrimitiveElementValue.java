@@ -3,8 +3,7 @@
 import software.coley.cafedude.classfile.constant.CpEntry;
 
 import jakarta.annotation.Nonnull;
-import java.util.Collections;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Primitive value element value.
@@ -49,10 +48,9 @@ public char getTag() {
 		return super.getTag();
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		return Collections.singleton(value);
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(value);
 	}
 
 	@Override
@@ -6,9 +6,8 @@
 import software.coley.cafedude.classfile.constant.CpEntry;
 
 import jakarta.annotation.Nonnull;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Indicates which type in a declaration or expression is annotated.
@@ -45,10 +44,9 @@ public int getTargetType() {
 		return targetType;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		return Collections.emptySet();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		// No constant pool references
 	}
 
 	/**
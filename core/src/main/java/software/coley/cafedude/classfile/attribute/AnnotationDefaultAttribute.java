@@ -5,7 +5,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Represents the default value of an annotation field <i>(Which are technically methods, but I digress)</i>.
@@ -36,12 +36,10 @@ public ElementValue getElementValue() {
 		return elementValue;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.addAll(elementValue.cpAccesses());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		elementValue.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -6,7 +6,7 @@
 
 import jakarta.annotation.Nonnull;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Annotation collection attribute. Represents either:
@@ -66,13 +66,11 @@ public void setVisible(boolean visible) {
 		this.visible = visible;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (Annotation annotation : getAnnotations())
-			set.addAll(annotation.cpAccesses());
-		return set;
+			annotation.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -5,8 +5,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Base attribute.
@@ -22,7 +21,7 @@ public sealed abstract class Attribute implements CpAccessor permits AnnotationD
 		NestMembersAttribute, ParameterAnnotationsAttribute, PermittedClassesAttribute, RecordAttribute,
 		SignatureAttribute, SourceDebugExtensionAttribute, SourceFileAttribute, SourceIdAttribute,
 		StackMapTableAttribute, SyntheticAttribute {
-	private final CpUtf8 name;
+	private CpUtf8 name;
 
 	/**
 	 * @param name
@@ -48,6 +47,15 @@ public CpUtf8 getName() {
 		return name;
 	}
 
+	/**
+	 * @param name
+	 * 		New constant pool entry holding the attribute name.
+	 * 		The text should match the attribute type.
+	 */
+	public void setName(@Nonnull CpUtf8 name) {
+		this.name = name;
+	}
+
 	/**
 	 * @return Computed size for the internal length value of this attribute for serialization.
 	 */
@@ -67,11 +75,8 @@ public final int computeCompleteLength() {
 		return 6 + computeInternalLength();
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = new HashSet<>();
-		set.add(getName());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(getName());
 	}
 }
@@ -6,9 +6,8 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Bootstrap methods attribute.
@@ -29,13 +28,11 @@ public BootstrapMethodsAttribute(@Nonnull CpUtf8 name, @Nonnull List<BootstrapMe
 		this.bootstrapMethods = bootstrapMethods;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (BootstrapMethod bsm : bootstrapMethods)
-			set.addAll(bsm.cpAccesses());
-		return set;
+			bsm.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -79,13 +76,10 @@ public BootstrapMethod(@Nonnull CpMethodHandle bsmMethodRef, @Nonnull List<CpEnt
 			this.args = args;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			set.add(getBsmMethodRef());
-			set.addAll(getArgs());
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			consumer.accept(getBsmMethodRef());
+			getArgs().forEach(consumer);
 		}
 
 		/**
@@ -10,9 +10,11 @@
 import software.coley.cafedude.classfile.instruction.Instruction;
 import software.coley.cafedude.io.AttributeHolderType;
 
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Method code attribute.
@@ -20,11 +22,19 @@
  * @author Matt Coley
  */
 public non-sealed class CodeAttribute extends Attribute implements AttributeHolder, CodeUtilities {
-	private List<ExceptionTableEntry> exceptionTable;
+	private ExceptionTableList exceptionTable;
 	private List<Attribute> attributes;
-	private List<Instruction> instructions;
+	private InstructionList instructions;
+	private DeferredInstructions deferredInstructions;
 	private int maxStack;
 	private int maxLocals;
+	private Map<Instruction, Integer> indices;
+	private int indicesRevision;
+	private int[] offsets;
+	private int offsetsRevision;
+	private ControlFlowGraph controlFlowGraph;
+	private int controlFlowRevision;
+	private int controlFlowExceptionRevision;
 
 	/**
 	 * @param name
@@ -45,16 +55,51 @@ public CodeAttribute(@Nonnull CpUtf8 name, int maxStack, int maxLocals, @Nonnull
 		super(name);
 		this.maxStack = maxStack;
 		this.maxLocals = maxLocals;
-		this.instructions = instructions;
-		this.exceptionTable = exceptionTable;
+		this.instructions = new InstructionList(instructions);
+		this.exceptionTable = new ExceptionTableList(exceptionTable);
 		this.attributes = attributes;
 	}
 
 	/**
+	 * @param name
+	 * 		Constant pool entry holding the attribute name.
+	 * @param maxStack
+	 * 		Maximum number of values on the stack in the method.
+	 * @param maxLocals
+	 * 		Maximum number of local variables used in the method.
+	 * @param deferredInstructions
+	 * 		Instruction code data, decoded on the first call to {@link #getInstructions()}.
+	 * @param exceptionTable
+	 * 		Exception table entries.
+	 * @param attributes
+	 * 		List of other attributes.
+	 */
+	public CodeAttribute(@Nonnull CpUtf8 name, int maxStack, int maxLocals, @Nonnull DeferredInstructions deferredInstructions,
+	                     @Nonnull List<ExceptionTableEntry> exceptionTable, @Nonnull List<Attribute> attributes) {
+		super(name);
+		this.maxStack = maxStack;
+		this.maxLocals = maxLocals;
+		this.deferredInstructions = deferredInstructions;
+		this.exceptionTable = new ExceptionTableList(exceptionTable);
+		this.attributes = attributes;
+	}
+
+	/**
+	 * Changes made through the returned list are tracked, so that lookups such as {@link #indexOf(Instruction)}
+	 * stay up to date. Changes made to instructions in place through their setters, such as a new opcode, operand or
+	 * set of switch cases, are also tracked. Changes made directly to the lists of switch keys and offsets are not.
+	 *
 	 * @return Instruction code data.
 	 */
 	@Nonnull
+	@Override
 	public List<Instruction> getInstructions() {
+		InstructionList instructions = this.instructions;
+		if (instructions == null) {
+			instructions = new InstructionList(deferredInstructions.decode());
+			this.instructions = instructions;
+			deferredInstructions = null;
+		}
 		return instructions;
 	}
 
@@ -63,7 +108,21 @@ public List<Instruction> getInstructions() {
 	 * 		New instruction code data.
 	 */
 	public void setInstructions(@Nonnull List<Instruction> instructions) {
-		this.instructions = instructions;
+		this.instructions = new InstructionList(instructions);
+		indices = null;
+		offsets = null;
+		controlFlowGraph = null;
+		deferredInstructions = null;
+	}
+
+	/**
+	 * @return Instruction code data that has not yet been decoded, or {@code null} if the instructions have been
+	 * decoded <i>(or were never deferred)</i>. Since the decoded list may be modified, once instructions are decoded
+	 * the original code is no longer available.
+	 */
+	@Nullable
+	public DeferredInstructions getDeferredInstructions() {
+		return deferredInstructions;
 	}
 
 	/**
@@ -97,6 +156,9 @@ public void setMaxLocals(int maxLocals) {
 	}
 
 	/**
+	 * Changes made through the returned list, and to the ranges of its entries, are tracked
+	 * so that the {@link #getControlFlowGraph() control flow graph} stays up to date.
+	 *
 	 * @return Exception table entries.
 	 */
 	@Nonnull
@@ -109,7 +171,32 @@ public List<ExceptionTableEntry> getExceptionTable() {
 	 * 		New exception table entries.
 	 */
 	public void setExceptionTable(@Nonnull List<ExceptionTableEntry> exceptionTable) {
-		this.exceptionTable = exceptionTable;
+		this.exceptionTable = new ExceptionTableList(exceptionTable);
+		controlFlowGraph = null;
+	}
+
+	/**
+	 * The graph is cached until the instructions, their opcodes and branch targets,
+	 * or the ranges of the exception table change.
+	 *
+	 * @return Control flow graph of the code.
+	 *
+	 * @see #getInstructions()
+	 * @see #getExceptionTable()
+	 */
+	@Nonnull
+	public ControlFlowGraph getControlFlowGraph() {
+		InstructionList instructions = (InstructionList) getInstructions();
+		ExceptionTableList exceptionTable = this.exceptionTable;
+		ControlFlowGraph graph = controlFlowGraph;
+		if (graph == null || controlFlowRevision != instructions.getRevision()
+				|| controlFlowExceptionRevision != exceptionTable.getRevision()) {
+			graph = new ControlFlowGraph(this);
+			controlFlowGraph = graph;
+			controlFlowRevision = instructions.getRevision();
+			controlFlowExceptionRevision = exceptionTable.getRevision();
+		}
+		return graph;
 	}
 
 	@Nonnull
@@ -139,20 +226,107 @@ public AttributeHolderType getHolderType() {
 		return AttributeHolderType.ATTRIBUTE;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (Attribute attribute : getAttributes())
-			set.addAll(attribute.cpAccesses());
+			attribute.forEachCpAccess(consumer);
 		for (ExceptionTableEntry ex : getExceptionTable())
-			set.addAll(ex.cpAccesses());
-		for (Instruction instruction : instructions) {
+			ex.forEachCpAccess(consumer);
+		for (Instruction instruction : getInstructions()) {
 			if (instruction instanceof CpAccessor) {
-				set.addAll(((CpAccessor) instruction).cpAccesses());
+				((CpAccessor) instruction).forEachCpAccess(consumer);
 			}
 		}
-		return set;
+	}
+
+	@Override
+	public int indexOf(@Nonnull Instruction instruction) {
+		InstructionList instructions = (InstructionList) getInstructions();
+		Map<Instruction, Integer> indices = this.indices;
+		if (indices == null || indicesRevision != instructions.getStructureRevision()) {
+			int count = instructions.size();
+			indices = new IdentityHashMap<>(count);
+			for (int i = 0; i < count; i++)
+				indices.putIfAbsent(instructions.get(i), i);
+			this.indices = indices;
+			indicesRevision = instructions.getStructureRevision();
+		}
+		Integer index = indices.get(instruction);
+		return index == null ? -1 : index;
+	}
+
+	@Override
+	public int computeOffsetOf(@Nonnull Instruction instruction) {
+		int[] offsets = getOffsets();
+		int index = indexOf(instruction);
+		return index < 0 ? -1 : offsets[index];
+	}
+
+	@Nullable
+	@Override
+	public Instruction getInstructionAtOffset(int offset) {
+		int[] offsets = getOffsets();
+		int index = Arrays.binarySearch(offsets, 0, offsets.length - 1, offset);
+		return index < 0 ? null : instructions.get(index);
+	}
+
+	@Nullable
+	@Override
+	public Instruction getContainingInstructionAtOffset(int offset) {
+		int[] offsets = getOffsets();
+		if (offset < 0 || offset >= offsets[offsets.length - 1])
+			return null;
+		int index = Arrays.binarySearch(offsets, 0, offsets.length - 1, offset);
+		if (index < 0)
+			index = -index - 2;
+		return instructions.get(index);
+	}
+
+	@Override
+	public int computeSize() {
+		int[] offsets = getOffsets();
+		return offsets[offsets.length - 1];
+	}
+
+	/**
+	 * @return Offsets of each instruction, followed by the total code size.
+	 * Rebuilt when the instructions have changed since the last call.
+	 *
+	 * @see #getInstructions()
+	 */
+	@Nonnull
+	int[] getOffsets() {
+		InstructionList instructions = (InstructionList) getInstructions();
+		int[] offsets = this.offsets;
+		if (offsets != null && offsetsRevision == instructions.getRevision())
+			return offsets;
+
+		int count = instructions.size();
+		offsets = new int[count + 1];
+		int offset = 0;
+		for (int i = 0; i < count; i++) {
+			offsets[i] = offset;
+			offset += instructions.get(i).computeSize();
+		}
+		offsets[count] = offset;
+		this.offsets = offsets;
+		offsetsRevision = instructions.getRevision();
+		return offsets;
+	}
+
+	/**
+	 * @return Computed size of the method code for serialization.
+	 * When the instructions have not been decoded yet, this is the length of the encoded code.
+	 */
+	public int computeCodeLength() {
+		DeferredInstructions deferredInstructions = this.deferredInstructions;
+		if (deferredInstructions != null)
+			return deferredInstructions.getCodeLength();
+		int size = 0;
+		for (Instruction instruction : instructions)
+			size += instruction.computeSize();
+		return size;
 	}
 
 	@Override
@@ -163,10 +337,7 @@ public int computeInternalLength() {
 		// u4: code_length
 		// u1 * X: CODE
 		len += 4;
-		int insnSize = 0;
-		for (Instruction instruction : instructions)
-			insnSize += instruction.computeSize();
-		len += insnSize;
+		len += computeCodeLength();
 		// u2: exception_table_length
 		// u2 * 4 * X: EXCEPTIONS
 		len += 2;
@@ -179,6 +350,27 @@ public int computeInternalLength() {
 		return len;
 	}
 
+	/**
+	 * Instruction code data which has not yet been decoded.
+	 *
+	 * @author Matt Coley
+	 */
+	public interface DeferredInstructions {
+		/**
+		 * @return Length of the encoded instructions, in bytes.
+		 */
+		int getCodeLength();
+
+		/**
+		 * @return Decoded instructions.
+		 *
+		 * @throws IllegalStateException
+		 * 		When the instructions cannot be decoded.
+		 */
+		@Nonnull
+		List<Instruction> decode();
+	}
+
 	/**
 	 * Exception table entry representation.
 	 *
@@ -189,6 +381,7 @@ public static class ExceptionTableEntry implements CpAccessor {
 		private int endPc;
 		private int handlerPc;
 		private CpClass catchType;
+		ExceptionTableList owner;
 
 		/**
 		 * @param startPc
@@ -220,6 +413,7 @@ public int getStartPc() {
 		 */
 		public void setStartPc(int startPc) {
 			this.startPc = startPc;
+			markChanged();
 		}
 
 		/**
@@ -235,6 +429,7 @@ public int getEndPc() {
 		 */
 		public void setEndPc(int endPc) {
 			this.endPc = endPc;
+			markChanged();
 		}
 
 		/**
@@ -250,6 +445,7 @@ public int getHandlerPc() {
 		 */
 		public void setHandlerPc(int handlerPc) {
 			this.handlerPc = handlerPc;
+			markChanged();
 		}
 
 		/**
@@ -270,12 +466,16 @@ public void setCatchType(@Nullable CpClass catchType) {
 			this.catchType = catchType;
 		}
 
-		@Nonnull
+		private void markChanged() {
+			ExceptionTableList owner = this.owner;
+			if (owner != null)
+				owner.markChanged();
+		}
+
 		@Override
-		public Set<CpEntry> cpAccesses() {
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
 			if (catchType != null)
-				return Collections.singleton(catchType);
-			return Collections.emptySet();
+				consumer.accept(catchType);
 		}
 	}
 }
@@ -0,0 +1,571 @@
+package software.coley.cafedude.classfile.attribute;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.cafedude.classfile.attribute.CodeAttribute.ExceptionTableEntry;
+import software.coley.cafedude.classfile.attribute.LineNumberTableAttribute.LineEntry;
+import software.coley.cafedude.classfile.attribute.LocalVariableTableAttribute.VarEntry;
+import software.coley.cafedude.classfile.attribute.LocalVariableTypeTableAttribute.VarTypeEntry;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.AppendFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.FullFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameFrameExtended;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameLocalsOneStackItem;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameLocalsOneStackItemExtended;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.StackMapFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.TypeInfo;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.UninitializedVariableInfo;
+import software.coley.cafedude.classfile.instruction.BasicInstruction;
+import software.coley.cafedude.classfile.instruction.Instruction;
+import software.coley.cafedude.classfile.instruction.IntOperandInstruction;
+import software.coley.cafedude.classfile.instruction.LookupSwitchInstruction;
+import software.coley.cafedude.classfile.instruction.TableSwitchInstruction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static software.coley.cafedude.classfile.attribute.CodeUtilities.isBranch;
+import static software.coley.cafedude.classfile.instruction.Opcodes.*;
+
+/**
+ * Keeps offsets in a {@link CodeAttribute} valid while its instructions are edited.
+ * <br>
+ * On creation, every offset in the code is resolved to the instruction it points at. The instructions can
+ * then be freely added, removed and reordered through {@link CodeAttribute#getInstructions()}. Calling
+ * {@link #relocate()} afterward computes the new offsets, and updates:
+ * <ul>
+ *     <li>Branch and switch offsets, and switch padding</li>
+ *     <li>Exception table ranges and handlers</li>
+ *     <li>Line number and local variable tables</li>
+ *     <li>Stack map frames, and the offsets of uninitialized types within them</li>
+ * </ul>
+ * Branches which no longer fit in a short offset are widened. A {@code goto} becomes a {@code goto_w} and a
+ * {@code jsr} becomes a {@code jsr_w}. Conditional branches have no wide form, so they are inverted to skip over
+ * a new {@code goto_w} to the original target. Since the instruction after such a {@code goto_w} needs a
+ * new stack map frame, which cannot be computed here, this is not possible in code with a stack map table.
+ * It is also not possible for a conditional branch at the end of the code, which has no instruction to
+ * fall through to.
+ * <br>
+ * Targets are tracked by instance, so {@link BasicInstruction#of(int) shared instructions} which are targeted
+ * are replaced with new instances of their own on creation.
+ * Instructions which are the target of an offset must not be removed, unless another instruction is given
+ * in their place with {@link #replaceTarget(Instruction, Instruction)}. New branches and switches must have
+ * their targets given with {@link #setTarget(Instruction, Instruction)} and
+ * {@link #setSwitchTargets(Instruction, Instruction, List)}.
+ * Offsets in other attributes, such as type annotations, are not updated.
+ *
+ * @author Matt Coley
+ */
+public class CodeRelocator {
+	private final Map<Instruction, Instruction> jumpTargets = new IdentityHashMap<>();
+	private final Map<Instruction, Instruction[]> switchTargets = new IdentityHashMap<>();
+	private final Map<Object, Instruction[]> rangeAnchors = new IdentityHashMap<>();
+	private final Map<Object, Instruction> anchors = new IdentityHashMap<>();
+	private final CodeAttribute code;
+
+	/**
+	 * @param code
+	 * 		Code to track offsets of.
+	 *
+	 * @throws IllegalStateException
+	 * 		When an offset in the code does not point to the start of an instruction, or the end of the code.
+	 */
+	public CodeRelocator(@Nonnull CodeAttribute code) {
+		this.code = code;
+		List<Instruction> instructions = code.getInstructions();
+		int[] offsets = code.getOffsets();
+		for (int i = 0; i < instructions.size(); i++) {
+			Instruction instruction = instructions.get(i);
+			int offset = offsets[i];
+			if (instruction instanceof IntOperandInstruction jump && isJump(jump)) {
+				jumpTargets.put(jump, resolve(offsets, offset + jump.getOperand()));
+			} else if (instruction instanceof TableSwitchInstruction table) {
+				switchTargets.put(table, resolveSwitch(offsets, offset, table.getDefault(), table.getOffsets()));
+			} else if (instruction instanceof LookupSwitchInstruction lookup) {
+				switchTargets.put(lookup, resolveSwitch(offsets, offset, lookup.getDefault(), lookup.getOffsets()));
+			}
+		}
+		for (ExceptionTableEntry entry : code.getExceptionTable())
+			rangeAnchors.put(entry, new Instruction[]{
+					resolve(offsets, entry.getStartPc()),
+					resolve(offsets, entry.getEndPc()),
+					resolve(offsets, entry.getHandlerPc())
+			});
+		for (Attribute attribute : code.getAttributes()) {
+			if (attribute instanceof LineNumberTableAttribute lineNumbers) {
+				for (LineEntry entry : lineNumbers.getEntries())
+					anchors.put(entry, resolve(offsets, entry.getStartPc()));
+			} else if (attribute instanceof LocalVariableTableAttribute variables) {
+				for (VarEntry entry : variables.getEntries())
+					rangeAnchors.put(entry, resolveRange(offsets, entry.getStartPc(), entry.getLength()));
+			} else if (attribute instanceof LocalVariableTypeTableAttribute variables) {
+				for (VarTypeEntry entry : variables.getEntries())
+					rangeAnchors.put(entry, resolveRange(offsets, entry.getStartPc(), entry.getLength()));
+			} else if (attribute instanceof StackMapTableAttribute stackMap) {
+				int offset = -1;
+				for (StackMapFrame frame : stackMap.getFrames()) {
+					offset += frame.getOffsetDelta() + 1;
+					anchors.put(frame, resolve(offsets, offset));
+					forEachType(frame, type -> {
+						if (type instanceof UninitializedVariableInfo uninitialized)
+							anchors.putIfAbsent(uninitialized, resolve(offsets, uninitialized.getOffset()));
+					});
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param branch
+	 * 		Branch instruction.
+	 *
+	 * @return Instruction the branch targets, or {@code null} for the end of the code.
+	 */
+	@Nullable
+	public Instruction getTarget(@Nonnull Instruction branch) {
+		return jumpTargets.get(branch);
+	}
+
+	/**
+	 * @param branch
+	 * 		Branch instruction, such as a new branch added to the code.
+	 * @param target
+	 * 		Instruction the branch should target. Must not be a {@link BasicInstruction#of(int) shared instance}.
+	 */
+	public void setTarget(@Nonnull Instruction branch, @Nonnull Instruction target) {
+		if (!(branch instanceof IntOperandInstruction jump) || !isJump(jump))
+			throw new IllegalArgumentException("Not a branch instruction: " + branch);
+		checkNotShared(target);
+		jumpTargets.put(branch, target);
+	}
+
+	/**
+	 * @param switchInstruction
+	 * 		Table or lookup switch instruction, such as a new switch added to the code.
+	 * @param defaultTarget
+	 * 		Instruction the default case should target.
+	 * @param targets
+	 * 		Instructions each case should target.
+	 * 		Targets must not be {@link BasicInstruction#of(int) shared instances}.
+	 */
+	public void setSwitchTargets(@Nonnull Instruction switchInstruction, @Nonnull Instruction defaultTarget,
+								 @Nonnull List<Instruction> targets) {
+		if (!(switchInstruction instanceof TableSwitchInstruction || switchInstruction instanceof LookupSwitchInstruction))
+			throw new IllegalArgumentException("Not a switch instruction: " + switchInstruction);
+		Instruction[] resolved = new Instruction[targets.size() + 1];
+		resolved[0] = checkNotShared(defaultTarget);
+		for (int i = 0; i < targets.size(); i++)
+			resolved[i + 1] = checkNotShared(targets.get(i));
+		switchTargets.put(switchInstruction, resolved);
+	}
+
+	/**
+	 * Points everything which targets an instruction at another instruction instead.
+	 * Used before removing an instruction which is a target of some offset.
+	 *
+	 * @param original
+	 * 		Instruction currently targeted.
+	 * @param replacement
+	 * 		Instruction to target instead. Must not be a {@link BasicInstruction#of(int) shared instance}.
+	 */
+	public void replaceTarget(@Nonnull Instruction original, @Nonnull Instruction replacement) {
+		checkNotShared(replacement);
+		jumpTargets.replaceAll((branch, target) -> target == original ? replacement : target);
+		for (Instruction[] targets : switchTargets.values())
+			replace(targets, original, replacement);
+		for (Instruction[] targets : rangeAnchors.values())
+			replace(targets, original, replacement);
+		anchors.replaceAll((value, target) -> target == original ? replacement : target);
+	}
+
+	/**
+	 * Computes the offsets of the current instructions, widening branches where needed, then updates
+	 * all tracked offsets in the code.
+	 *
+	 * @throws IllegalStateException
+	 * 		When a branch or switch has no known target, or when a target is no longer in the code.
+	 * 		Also thrown when a conditional branch must be widened in code with a stack map table, or when it is
+	 * 		the last instruction in the code. Branches are left as they were in this case.
+	 */
+	public void relocate() {
+		List<Instruction> instructions = code.getInstructions();
+		int[] offsets = computeOffsets(instructions);
+		if (widenBranches(instructions, offsets))
+			offsets = computeOffsets(instructions);
+
+		for (int i = 0; i < instructions.size(); i++) {
+			Instruction instruction = instructions.get(i);
+			int offset = offsets[i];
+			if (instruction instanceof IntOperandInstruction jump && isJump(jump)) {
+				jump.setOperand(offsetOf(offsets, jumpTargets.get(jump), true) - offset);
+			} else if (instruction instanceof TableSwitchInstruction table) {
+				Instruction[] targets = getSwitchTargets(table);
+				table.setDefault(offsetOf(offsets, targets[0], true) - offset);
+				table.setOffsets(relativeOffsets(offsets, targets, offset));
+			} else if (instruction instanceof LookupSwitchInstruction lookup) {
+				Instruction[] targets = getSwitchTargets(lookup);
+				lookup.setDefault(offsetOf(offsets, targets[0], true) - offset);
+				lookup.setOffsets(relativeOffsets(offsets, targets, offset));
+			}
+		}
+
+		for (ExceptionTableEntry entry : code.getExceptionTable()) {
+			Instruction[] range = rangeAnchors.get(entry);
+			if (range == null)
+				continue;
+			entry.setStartPc(offsetOf(offsets, range[0], false));
+			entry.setEndPc(offsetOf(offsets, range[1], false));
+			entry.setHandlerPc(offsetOf(offsets, range[2], false));
+		}
+		for (Attribute attribute : code.getAttributes()) {
+			if (attribute instanceof LineNumberTableAttribute lineNumbers) {
+				List<LineEntry> entries = new ArrayList<>(lineNumbers.getEntries().size());
+				for (LineEntry entry : lineNumbers.getEntries()) {
+					LineEntry relocated = anchors.containsKey(entry) ?
+							new LineEntry(offsetOf(offsets, anchors.get(entry), false), entry.getLine()) : entry;
+					anchors.put(relocated, anchors.get(entry));
+					entries.add(relocated);
+				}
+				lineNumbers.setEntries(entries);
+			} else if (attribute instanceof LocalVariableTableAttribute variables) {
+				List<VarEntry> entries = new ArrayList<>(variables.getEntries().size());
+				for (VarEntry entry : variables.getEntries()) {
+					Instruction[] range = rangeAnchors.get(entry);
+					VarEntry relocated = entry;
+					if (range != null) {
+						int start = offsetOf(offsets, range[0], false);
+						relocated = new VarEntry(start, offsetOf(offsets, range[1], false) - start,
+								entry.getName(), entry.getDesc(), entry.getIndex());
+						rangeAnchors.put(relocated, range);
+					}
+					entries.add(relocated);
+				}
+				variables.setEntries(entries);
+			} else if (attribute instanceof LocalVariableTypeTableAttribute variables) {
+				List<VarTypeEntry> entries = new ArrayList<>(variables.getEntries().size());
+				for (VarTypeEntry entry : variables.getEntries()) {
+					Instruction[] range = rangeAnchors.get(entry);
+					VarTypeEntry relocated = entry;
+					if (range != null) {
+						int start = offsetOf(offsets, range[0], false);
+						relocated = new VarTypeEntry(start, offsetOf(offsets, range[1], false) - start,
+								entry.getName(), entry.getSignature(), entry.getIndex());
+						rangeAnchors.put(relocated, range);
+					}
+					entries.add(relocated);
+				}
+				variables.setEntries(entries);
+			} else if (attribute instanceof StackMapTableAttribute stackMap) {
+				relocateFrames(stackMap, offsets);
+			}
+		}
+	}
+
+	/**
+	 * @param stackMap
+	 * 		Attribute holding frames to relocate.
+	 * @param offsets
+	 * 		Offsets of the current instructions.
+	 */
+	private void relocateFrames(@Nonnull StackMapTableAttribute stackMap, @Nonnull int[] offsets) {
+		List<StackMapFrame> frames = new ArrayList<>(stackMap.getFrames().size());
+		int previous = -1;
+		for (StackMapFrame frame : stackMap.getFrames()) {
+			Instruction anchor = anchors.get(frame);
+			int offset = anchor == null ? previous + frame.getOffsetDelta() + 1 : offsetOf(offsets, anchor, false);
+			int delta = offset - previous - 1;
+			if (delta < 0)
+				throw new IllegalStateException("Stack map frames are no longer in code order");
+
+			// Frame types which only hold small offset deltas are swapped for their extended form.
+			if (delta > 63 && frame instanceof SameFrame) {
+				frame = new SameFrameExtended(delta);
+				anchors.put(frame, anchor);
+			} else if (delta > 63 && frame instanceof SameLocalsOneStackItem item) {
+				frame = new SameLocalsOneStackItemExtended(delta, item.getStack());
+				anchors.put(frame, anchor);
+			}
+			frame.setOffsetDelta(delta);
+			forEachType(frame, type -> {
+				if (type instanceof UninitializedVariableInfo uninitialized && anchors.containsKey(uninitialized))
+					uninitialized.setOffset(offsetOf(offsets, anchors.get(uninitialized), false));
+			});
+			frames.add(frame);
+			previous = offset;
+		}
+		stackMap.setFrames(frames);
+	}
+
+	/**
+	 * Finds every branch which must be widened before changing any of them, since widening one branch can push
+	 * others out of range. Nothing is changed when any of them cannot be widened.
+	 *
+	 * @param instructions
+	 * 		Current instructions.
+	 * @param offsets
+	 * 		Offsets of the instructions.
+	 *
+	 * @return {@code true} when any branch was widened, which changes the offsets of following instructions.
+	 *
+	 * @throws IllegalStateException
+	 * 		When a conditional branch must be widened in code with a stack map table,
+	 * 		or is the last instruction in the code, leaving nothing for the inverted branch to target.
+	 */
+	private boolean widenBranches(@Nonnull List<Instruction> instructions, @Nonnull int[] offsets) {
+		int count = instructions.size();
+		boolean[] widen = new boolean[count];
+		boolean widened = false;
+		boolean changed;
+		do {
+			changed = false;
+			for (int i = 0; i < count; i++) {
+				if (widen[i] || !(instructions.get(i) instanceof IntOperandInstruction jump) || !isJump(jump))
+					continue;
+				int opcode = jump.getOpcode();
+				if (opcode == GOTO_W || opcode == JSR_W)
+					continue;
+				int distance = offsetOf(offsets, jumpTargets.get(jump), true) - offsets[i];
+				if (distance >= Short.MIN_VALUE && distance <= Short.MAX_VALUE)
+					continue;
+				widen[i] = true;
+				changed = true;
+			}
+			if (changed) {
+				widened = true;
+				offsets = computeOffsets(instructions, widen);
+			}
+		} while (changed);
+		if (!widened)
+			return false;
+
+		// Check that every conditional branch can be inverted before changing anything.
+		boolean hasStackMap = code.getAttribute(StackMapTableAttribute.class) != null;
+		for (int i = 0; i < count; i++) {
+			if (!widen[i] || isUnconditionalJump(instructions.get(i).getOpcode()))
+				continue;
+			String reason = hasStackMap ? "in code with a stack map table" :
+					i == count - 1 ? "at the end of the code" : null;
+			if (reason != null) {
+				// Restore switch padding to the current positions
+				computeOffsets(instructions);
+				throw new IllegalStateException("Cannot widen a conditional branch " + reason);
+			}
+		}
+
+		// Inverted branches skip over a new 'goto_w' to the original target.
+		// Done in reverse so that inserting does not shift the indices of branches not yet visited.
+		for (int i = count - 1; i >= 0; i--) {
+			if (!widen[i])
+				continue;
+			IntOperandInstruction jump = (IntOperandInstruction) instructions.get(i);
+			int opcode = jump.getOpcode();
+			if (opcode == GOTO) {
+				jump.setOpcode(GOTO_W);
+			} else if (opcode == JSR) {
+				jump.setOpcode(JSR_W);
+			} else {
+				IntOperandInstruction wide = new IntOperandInstruction(GOTO_W, 0);
+				jumpTargets.put(wide, jumpTargets.get(jump));
+				jumpTargets.put(jump, unshare(instructions, i + 1));
+				jump.setOpcode(invert(opcode));
+				instructions.add(i + 1, wide);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param instructions
+	 * 		Current instructions.
+	 *
+	 * @return Offsets of each instruction, followed by the total code size.
+	 * Switch padding is updated to match the new positions.
+	 */
+	@Nonnull
+	private int[] computeOffsets(@Nonnull List<Instruction> instructions) {
+		return computeOffsets(instructions, null);
+	}
+
+	/**
+	 * @param instructions
+	 * 		Current instructions.
+	 * @param widen
+	 * 		Flags of branches which are to be widened, or {@code null} for none.
+	 * 		Offsets are computed as if they already were.
+	 *
+	 * @return Offsets of each instruction, followed by the total code size.
+	 * Switch padding is updated to match the new positions.
+	 */
+	@Nonnull
+	private static int[] computeOffsets(@Nonnull List<Instruction> instructions, @Nullable boolean[] widen) {
+		int count = instructions.size();
+		int[] offsets = new int[count + 1];
+		int offset = 0;
+		for (int i = 0; i < count; i++) {
+			Instruction instruction = instructions.get(i);
+			if (instruction instanceof TableSwitchInstruction table)
+				table.notifyStartPosition(offset);
+			else if (instruction instanceof LookupSwitchInstruction lookup)
+				lookup.notifyStartPosition(offset);
+			offsets[i] = offset;
+			offset += instruction.computeSize();
+
+			// A 'goto' or 'jsr' grows by two bytes, an inverted conditional is followed by a five byte 'goto_w'
+			if (widen != null && widen[i])
+				offset += isUnconditionalJump(instruction.getOpcode()) ? 2 : 5;
+		}
+		offsets[count] = offset;
+		return offsets;
+	}
+
+	/**
+	 * @param offsets
+	 * 		Offsets of the current instructions.
+	 * @param target
+	 * 		Target instruction, or {@code null} for the end of the code.
+	 * @param branch
+	 * 		Whether the target is of a branch or switch, which must target an instruction.
+	 *
+	 * @return Offset of the target.
+	 */
+	private int offsetOf(@Nonnull int[] offsets, @Nullable Instruction target, boolean branch) {
+		if (target == null) {
+			if (branch)
+				throw new IllegalStateException("Branch has no target instruction");
+			return offsets[offsets.length - 1];
+		}
+		int index = code.indexOf(target);
+		if (index < 0)
+			throw new IllegalStateException("Target instruction was removed: " + target);
+		return offsets[index];
+	}
+
+	@Nonnull
+	private Instruction[] getSwitchTargets(@Nonnull Instruction switchInstruction) {
+		Instruction[] targets = switchTargets.get(switchInstruction);
+		if (targets == null)
+			throw new IllegalStateException("Switch has no target instructions");
+		return targets;
+	}
+
+	@Nonnull
+	private List<Integer> relativeOffsets(@Nonnull int[] offsets, @Nonnull Instruction[] targets, int offset) {
+		List<Integer> relative = new ArrayList<>(targets.length - 1);
+		for (int i = 1; i < targets.length; i++)
+			relative.add(offsetOf(offsets, targets[i], true) - offset);
+		return relative;
+	}
+
+	@Nonnull
+	private Instruction[] resolveSwitch(@Nonnull int[] offsets, int offset, int defaultOffset,
+										@Nonnull List<Integer> caseOffsets) {
+		Instruction[] targets = new Instruction[caseOffsets.size() + 1];
+		targets[0] = resolve(offsets, offset + defaultOffset);
+		for (int i = 0; i < caseOffsets.size(); i++)
+			targets[i + 1] = resolve(offsets, offset + caseOffsets.get(i));
+		return targets;
+	}
+
+	@Nonnull
+	private Instruction[] resolveRange(@Nonnull int[] offsets, int start, int length) {
+		return new Instruction[]{resolve(offsets, start), resolve(offsets, start + length)};
+	}
+
+	/**
+	 * @param offsets
+	 * 		Offsets of the instructions when this relocator was created.
+	 * @param offset
+	 * 		Some offset in the code.
+	 *
+	 * @return Instruction at the offset, or {@code null} for the end of the code.
+	 */
+	@Nullable
+	private Instruction resolve(@Nonnull int[] offsets, int offset) {
+		int count = offsets.length - 1;
+		if (offset == offsets[count])
+			return null;
+		int index = Arrays.binarySearch(offsets, 0, count, offset);
+		if (index < 0)
+			throw new IllegalStateException("Offset " + offset + " does not point to the start of an instruction");
+		return unshare(code.getInstructions(), index);
+	}
+
+	/**
+	 * Targets are tracked by instance, so shared instances which appear in many places cannot be targets.
+	 * They are swapped out for a new instance of their own. This does not change any offsets.
+	 *
+	 * @param instructions
+	 * 		Current instructions.
+	 * @param index
+	 * 		Index of a target instruction.
+	 *
+	 * @return Target instruction, which is not shared.
+	 */
+	@Nonnull
+	private static Instruction unshare(@Nonnull List<Instruction> instructions, int index) {
+		Instruction instruction = instructions.get(index);
+		if (instruction instanceof BasicInstruction basic && basic.isShared()) {
+			instruction = new BasicInstruction(basic.getOpcode());
+			instructions.set(index, instruction);
+		}
+		return instruction;
+	}
+
+	@Nonnull
+	private static Instruction checkNotShared(@Nonnull Instruction target) {
+		if (target instanceof BasicInstruction basic && basic.isShared())
+			throw new IllegalArgumentException("Shared instructions cannot be targeted: " + target);
+		return target;
+	}
+
+	/**
+	 * @param frame
+	 * 		Some frame.
+	 * @param consumer
+	 * 		Consumer to pass the types declared by the frame to.
+	 */
+	private static void forEachType(@Nonnull StackMapFrame frame, @Nonnull Consumer<TypeInfo> consumer) {
+		if (frame instanceof SameLocalsOneStackItem item) {
+			consumer.accept(item.getStack());
+		} else if (frame instanceof SameLocalsOneStackItemExtended item) {
+			consumer.accept(item.getStack());
+		} else if (frame instanceof AppendFrame append) {
+			append.getAdditionalLocals().forEach(consumer);
+		} else if (frame instanceof FullFrame full) {
+			full.getLocals().forEach(consumer);
+			full.getStack().forEach(consumer);
+		}
+	}
+
+	private static void replace(@Nonnull Instruction[] targets, @Nonnull Instruction original,
+								@Nonnull Instruction replacement) {
+		for (int i = 0; i < targets.length; i++)
+			if (targets[i] == original)
+				targets[i] = replacement;
+	}
+
+	private static boolean isJump(@Nonnull IntOperandInstruction instruction) {
+		return isBranch(instruction) || instruction.getOpcode() == JSR_W;
+	}
+
+	private static boolean isUnconditionalJump(int opcode) {
+		return opcode == GOTO || opcode == JSR;
+	}
+
+	/**
+	 * @param opcode
+	 * 		Conditional branch opcode.
+	 *
+	 * @return Opcode of the branch with the opposite condition.
+	 */
+	private static int invert(int opcode) {
+		if (opcode == IFNULL || opcode == IFNONNULL)
+			return opcode == IFNULL ? IFNONNULL : IFNULL;
+		// Conditions from 'ifeq' to 'if_acmpne' are laid out in pairs of opposites.
+		return IFEQ + ((opcode - IFEQ) ^ 1);
+	}
+}
@@ -22,6 +22,8 @@ public interface CodeUtilities {
 
 	/**
 	 * An instance matching index-of since the standard {@link List#indexOf(Object)} uses object equality.
+	 * Shared instances such as {@link software.coley.cafedude.classfile.instruction.BasicInstruction#of(int)}
+	 * resolve to their first occurrence.
 	 *
 	 * @param instruction
 	 * 		A specific instruction in the code.
@@ -98,8 +100,10 @@ else if (current > offset)
 	 * @return Byte count of this code block.
 	 */
 	default int computeSize() {
-		Instruction last = getInstructions().get(getInstructions().size() - 1);
-		return computeOffsetOf(last) + last.computeSize();
+		int size = 0;
+		for (Instruction instruction : getInstructions())
+			size += instruction.computeSize();
+		return size;
 	}
 
 	/**
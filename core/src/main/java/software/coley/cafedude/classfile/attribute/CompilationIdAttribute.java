@@ -4,7 +4,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Compilation identifier attribute.
@@ -44,12 +44,10 @@ public void setCompilationId(@Nonnull CpUtf8 compilationId) {
 		this.compilationId = compilationId;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.add(getCompilationId());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		consumer.accept(getCompilationId());
 	}
 
 	@Override
@@ -4,7 +4,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Constant value attribute
@@ -25,12 +25,10 @@ public ConstantValueAttribute(@Nonnull CpUtf8 name, @Nonnull CpEntry constantVal
 		this.constantValue = constantValue;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.add(getConstantValue());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		consumer.accept(getConstantValue());
 	}
 
 	@Override
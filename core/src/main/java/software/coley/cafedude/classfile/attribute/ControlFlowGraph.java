@@ -0,0 +1,351 @@
+package software.coley.cafedude.classfile.attribute;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.cafedude.classfile.attribute.CodeAttribute.ExceptionTableEntry;
+import software.coley.cafedude.classfile.instruction.Instruction;
+import software.coley.cafedude.classfile.instruction.IntOperandInstruction;
+import software.coley.cafedude.classfile.instruction.LookupSwitchInstruction;
+import software.coley.cafedude.classfile.instruction.TableSwitchInstruction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static software.coley.cafedude.classfile.attribute.CodeUtilities.isBranch;
+import static software.coley.cafedude.classfile.attribute.CodeUtilities.isTerminalOrAlwaysTakeFlowControl;
+import static software.coley.cafedude.classfile.instruction.Opcodes.*;
+
+/**
+ * Control flow graph of the basic blocks in a {@link CodeAttribute}.
+ * <br>
+ * Blocks start at the beginning of the method, at branch and switch targets, after instructions that
+ * alter flow, and at the bounds of exception ranges and handlers. Normal flow edges and exception handler
+ * edges are kept separately.
+ * <br>
+ * A {@code jsr} has edges to both its target and the following instruction, as the subroutine is expected
+ * to return there. A {@code ret} has no successors. Branch targets that do not land at the start of an
+ * instruction have no edge, and are reported by {@link #hasUnresolvedTargets()}.
+ *
+ * @author Matt Coley
+ * @see CodeAttribute#getControlFlowGraph()
+ */
+public class ControlFlowGraph {
+	private final List<Instruction> instructions;
+	private final List<BasicBlock> blocks;
+	private final int[] blockIndices;
+	private final boolean unresolvedTargets;
+
+	/**
+	 * @param code
+	 * 		Code to build a graph of.
+	 */
+	ControlFlowGraph(@Nonnull CodeAttribute code) {
+		instructions = code.getInstructions();
+		int[] offsets = code.getOffsets();
+		int count = instructions.size();
+		int codeSize = offsets[count];
+
+		// Map offsets back to the index of the instruction starting there.
+		int[] offsetIndices = new int[codeSize];
+		Arrays.fill(offsetIndices, -1);
+		for (int i = 0; i < count; i++)
+			offsetIndices[offsets[i]] = i;
+
+		// Mark instructions which start a block.
+		boolean[] leaders = new boolean[count + 1];
+		boolean[] unresolved = new boolean[1];
+		leaders[0] = true;
+		leaders[count] = true;
+		for (int i = 0; i < count; i++) {
+			Instruction instruction = instructions.get(i);
+			if (endsBlock(instruction)) {
+				leaders[i + 1] = true;
+				forEachTarget(instruction, offsets[i], target -> {
+					int index = indexAt(offsetIndices, target);
+					if (index < 0) unresolved[0] = true;
+					else leaders[index] = true;
+				});
+			}
+		}
+		List<ExceptionTableEntry> exceptionTable = code.getExceptionTable();
+		for (ExceptionTableEntry entry : exceptionTable) {
+			markLeader(leaders, offsetIndices, entry.getStartPc());
+			markLeader(leaders, offsetIndices, entry.getEndPc());
+			markLeader(leaders, offsetIndices, entry.getHandlerPc());
+		}
+
+		// Create blocks over the marked ranges.
+		blockIndices = new int[count];
+		List<BasicBlock> blocks = new ArrayList<>();
+		for (int i = 0; i < count; ) {
+			int end = i + 1;
+			while (!leaders[end])
+				end++;
+			BasicBlock block = new BasicBlock(blocks.size(), i, end, offsets[i], offsets[end]);
+			Arrays.fill(blockIndices, i, end, block.index);
+			blocks.add(block);
+			i = end;
+		}
+		this.blocks = Collections.unmodifiableList(blocks);
+
+		// Link flow edges from the last instruction of each block.
+		// Blocks targeted multiple times by the same switch are only linked once.
+		int[] linkedFrom = new int[blocks.size()];
+		Arrays.fill(linkedFrom, -1);
+		for (BasicBlock block : blocks) {
+			int last = block.endIndex - 1;
+			Instruction instruction = instructions.get(last);
+			if (endsBlock(instruction)) {
+				forEachTarget(instruction, offsets[last], target -> {
+					int index = indexAt(offsetIndices, target);
+					if (index >= 0)
+						link(block, blocks.get(blockIndices[index]), linkedFrom);
+				});
+			}
+			if (block.endIndex < count && (!isTerminalOrAlwaysTakeFlowControl(instruction) || instruction.getOpcode() == JSR)
+					&& instruction.getOpcode() != RET)
+				link(block, blocks.get(block.index + 1), linkedFrom);
+		}
+
+		// Link exception edges from every block in each handled range.
+		for (ExceptionTableEntry entry : exceptionTable) {
+			int start = indexAt(offsetIndices, entry.getStartPc());
+			int handler = indexAt(offsetIndices, entry.getHandlerPc());
+			if (start < 0 || handler < 0)
+				continue;
+			BasicBlock handlerBlock = blocks.get(blockIndices[handler]);
+			for (int b = blockIndices[start]; b < blocks.size(); b++) {
+				BasicBlock block = blocks.get(b);
+				if (block.startOffset >= entry.getEndPc())
+					break;
+				if (!block.exceptionSuccessors.contains(handlerBlock)) {
+					block.exceptionSuccessors.add(handlerBlock);
+					handlerBlock.exceptionPredecessors.add(block);
+				}
+			}
+		}
+		unresolvedTargets = unresolved[0];
+	}
+
+	/**
+	 * @return Blocks of the method, in code order. The first block is the method entry.
+	 */
+	@Nonnull
+	public List<BasicBlock> getBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * @return Block at the start of the method, or {@code null} when the method has no instructions.
+	 */
+	@Nullable
+	public BasicBlock getEntryBlock() {
+		return blocks.isEmpty() ? null : blocks.get(0);
+	}
+
+	/**
+	 * @param instructionIndex
+	 * 		Index of an instruction in the code.
+	 *
+	 * @return Block containing the instruction.
+	 */
+	@Nonnull
+	public BasicBlock getBlockOf(int instructionIndex) {
+		return blocks.get(blockIndices[instructionIndex]);
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of an instruction in the code.
+	 *
+	 * @return Block containing the offset, or {@code null} when the offset is outside the method.
+	 */
+	@Nullable
+	public BasicBlock getBlockAtOffset(int offset) {
+		int low = 0;
+		int high = blocks.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			BasicBlock block = blocks.get(mid);
+			if (offset < block.startOffset) high = mid - 1;
+			else if (offset >= block.endOffset) low = mid + 1;
+			else return block;
+		}
+		return null;
+	}
+
+	/**
+	 * @return {@code true} when a branch or switch targets an offset that is not the start of an instruction,
+	 * such as an operand byte or a position outside the method. No edges exist for such targets.
+	 */
+	public boolean hasUnresolvedTargets() {
+		return unresolvedTargets;
+	}
+
+	/**
+	 * @param instruction
+	 * 		Some instruction.
+	 *
+	 * @return {@code true} when it ends the block it is in.
+	 */
+	private static boolean endsBlock(@Nonnull Instruction instruction) {
+		return isBranch(instruction) || isTerminalOrAlwaysTakeFlowControl(instruction) || instruction.getOpcode() == RET;
+	}
+
+	/**
+	 * @param instruction
+	 * 		Some instruction.
+	 * @param offset
+	 * 		Offset of the instruction.
+	 * @param consumer
+	 * 		Consumer to pass absolute branch target offsets to.
+	 */
+	private static void forEachTarget(@Nonnull Instruction instruction, int offset, @Nonnull IntConsumer consumer) {
+		if (isBranch(instruction) && instruction instanceof IntOperandInstruction jump) {
+			consumer.accept(offset + jump.getOperand());
+		} else if (instruction instanceof TableSwitchInstruction table) {
+			consumer.accept(offset + table.getDefault());
+			for (int target : table.getOffsets())
+				consumer.accept(offset + target);
+		} else if (instruction instanceof LookupSwitchInstruction lookup) {
+			consumer.accept(offset + lookup.getDefault());
+			for (int target : lookup.getOffsets())
+				consumer.accept(offset + target);
+		}
+	}
+
+	private static int indexAt(@Nonnull int[] offsetIndices, int offset) {
+		return offset >= 0 && offset < offsetIndices.length ? offsetIndices[offset] : -1;
+	}
+
+	private static void markLeader(@Nonnull boolean[] leaders, @Nonnull int[] offsetIndices, int offset) {
+		int index = indexAt(offsetIndices, offset);
+		if (index >= 0)
+			leaders[index] = true;
+	}
+
+	private static void link(@Nonnull BasicBlock from, @Nonnull BasicBlock to, @Nonnull int[] linkedFrom) {
+		if (linkedFrom[to.index] == from.index)
+			return;
+		linkedFrom[to.index] = from.index;
+		from.successors.add(to);
+		to.predecessors.add(from);
+	}
+
+	/**
+	 * Sequence of instructions that is only entered at the start, and only left at the end.
+	 *
+	 * @author Matt Coley
+	 */
+	public class BasicBlock {
+		private final List<BasicBlock> successors = new ArrayList<>(2);
+		private final List<BasicBlock> predecessors = new ArrayList<>(2);
+		private final List<BasicBlock> exceptionSuccessors = new ArrayList<>(0);
+		private final List<BasicBlock> exceptionPredecessors = new ArrayList<>(0);
+		private final int index;
+		private final int startIndex;
+		private final int endIndex;
+		private final int startOffset;
+		private final int endOffset;
+
+		private BasicBlock(int index, int startIndex, int endIndex, int startOffset, int endOffset) {
+			this.index = index;
+			this.startIndex = startIndex;
+			this.endIndex = endIndex;
+			this.startOffset = startOffset;
+			this.endOffset = endOffset;
+		}
+
+		/**
+		 * @return Index of the block in {@link #getBlocks()}.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return Index of the first instruction in the block.
+		 */
+		public int getStartIndex() {
+			return startIndex;
+		}
+
+		/**
+		 * @return Index after the last instruction in the block.
+		 */
+		public int getEndIndex() {
+			return endIndex;
+		}
+
+		/**
+		 * @return Offset of the first instruction in the block.
+		 */
+		public int getStartOffset() {
+			return startOffset;
+		}
+
+		/**
+		 * @return Offset after the last instruction in the block.
+		 */
+		public int getEndOffset() {
+			return endOffset;
+		}
+
+		/**
+		 * @return View of the instructions in the block.
+		 * Only valid until the instructions of the code are modified.
+		 */
+		@Nonnull
+		public List<Instruction> getInstructions() {
+			return instructions.subList(startIndex, endIndex);
+		}
+
+		/**
+		 * @return Last instruction in the block.
+		 */
+		@Nonnull
+		public Instruction getLastInstruction() {
+			return instructions.get(endIndex - 1);
+		}
+
+		/**
+		 * @return Blocks that flow may continue to after this block, by branching or falling through.
+		 */
+		@Nonnull
+		public List<BasicBlock> getSuccessors() {
+			return Collections.unmodifiableList(successors);
+		}
+
+		/**
+		 * @return Blocks that flow may come from before this block, by branching or falling through.
+		 */
+		@Nonnull
+		public List<BasicBlock> getPredecessors() {
+			return Collections.unmodifiableList(predecessors);
+		}
+
+		/**
+		 * @return Handler blocks of exception ranges covering this block.
+		 */
+		@Nonnull
+		public List<BasicBlock> getExceptionSuccessors() {
+			return Collections.unmodifiableList(exceptionSuccessors);
+		}
+
+		/**
+		 * @return Blocks covered by exception ranges which this block is the handler of.
+		 */
+		@Nonnull
+		public List<BasicBlock> getExceptionPredecessors() {
+			return Collections.unmodifiableList(exceptionPredecessors);
+		}
+
+		@Override
+		public String toString() {
+			return "Block[" + index + ", " + startOffset + "-" + endOffset + "]";
+		}
+	}
+}
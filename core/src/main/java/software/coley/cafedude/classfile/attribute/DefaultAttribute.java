@@ -4,13 +4,19 @@
 
 import jakarta.annotation.Nonnull;
 
+import java.nio.ByteBuffer;
+
 /**
  * An attribute implementation that is used as a default for any unhandled attribute type.
+ * <br>
+ * Attributes read in lazy parsing mode refer to their content in the class they were read from,
+ * and only copy it into an array on the first call to {@link #getData()}.
  *
  * @author Matt Coley
  */
 public non-sealed class DefaultAttribute extends Attribute {
 	private byte[] data;
+	private ByteBuffer view;
 
 	/**
 	 * @param name
@@ -23,24 +29,56 @@ public DefaultAttribute(@Nonnull CpUtf8 name, @Nonnull byte[] data) {
 		this.data = data;
 	}
 
+	/**
+	 * @param name
+	 * 		Constant pool entry holding the attribute name.
+	 * @param data
+	 * 		Buffer holding the literal data stored in attribute, from its position to its limit.
+	 * 		The content is not copied, and should not be modified afterwards.
+	 */
+	public DefaultAttribute(@Nonnull CpUtf8 name, @Nonnull ByteBuffer data) {
+		super(name);
+		this.view = data.slice().asReadOnlyBuffer();
+	}
+
 	/**
 	 * @return Literal data stored in attribute.
 	 */
 	@Nonnull
 	public byte[] getData() {
+		byte[] data = this.data;
+		if (data == null) {
+			data = new byte[view.remaining()];
+			view.get(0, data);
+			this.data = data;
+			view = null;
+		}
 		return data;
 	}
 
+	/**
+	 * @return Read-only view of the literal data stored in attribute. Does not copy the data.
+	 */
+	@Nonnull
+	public ByteBuffer getDataBuffer() {
+		ByteBuffer view = this.view;
+		if (view != null)
+			return view.duplicate();
+		return ByteBuffer.wrap(data).asReadOnlyBuffer();
+	}
+
 	/**
 	 * @param data
 	 * 		New literal data stored in attribute.
 	 */
 	public void setData(@Nonnull byte[] data) {
 		this.data = data;
+		view = null;
 	}
 
 	@Override
 	public int computeInternalLength() {
-		return data.length;
+		ByteBuffer view = this.view;
+		return view != null ? view.remaining() : data.length;
 	}
 }
@@ -7,7 +7,7 @@
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Enclosing method attribute
@@ -73,13 +73,12 @@ public void setMethodEntry(@Nullable CpNameType methodEntry) {
 		this.methodEntry = methodEntry;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.add(getClassEntry());
-		set.add(getMethodEntry());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		consumer.accept(getClassEntry());
+		if (getMethodEntry() != null)
+			consumer.accept(getMethodEntry());
 	}
 
 	@Override
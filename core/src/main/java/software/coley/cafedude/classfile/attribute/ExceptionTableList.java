@@ -0,0 +1,27 @@
+package software.coley.cafedude.classfile.attribute;
+
+import jakarta.annotation.Nonnull;
+import software.coley.cafedude.classfile.attribute.CodeAttribute.ExceptionTableEntry;
+
+import java.util.List;
+
+/**
+ * View of the exception table of a {@link CodeAttribute}. Along with changes made through it, entries in the list
+ * report changes to their ranges, so that the attribute's control flow graph is only rebuilt when needed.
+ *
+ * @author Matt Coley
+ */
+final class ExceptionTableList extends TrackingList<ExceptionTableEntry> {
+	/**
+	 * @param backing
+	 * 		List to delegate to.
+	 */
+	ExceptionTableList(@Nonnull List<ExceptionTableEntry> backing) {
+		super(backing);
+	}
+
+	@Override
+	protected void track(@Nonnull ExceptionTableEntry entry) {
+		entry.owner = this;
+	}
+}
@@ -6,7 +6,7 @@
 
 import jakarta.annotation.Nonnull;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Checked exceptions attribute.
@@ -45,12 +45,10 @@ public void setExceptionTable(@Nonnull List<CpClass> exceptionTable) {
 		this.exceptionTable = exceptionTable;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.addAll(getExceptionTable());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		getExceptionTable().forEach(consumer);
 	}
 
 	@Override
@@ -7,9 +7,8 @@
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Attribute describing the inner classes of a class.
@@ -46,13 +45,11 @@ public void setInnerClasses(@Nonnull List<InnerClass> innerClasses) {
 		this.innerClasses = innerClasses;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (InnerClass inner : getInnerClasses())
-			set.addAll(inner.cpAccesses());
-		return set;
+			inner.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -164,14 +161,13 @@ public void setInnerClassAccessFlags(int innerClassAccessFlags) {
 			this.innerClassAccessFlags = innerClassAccessFlags;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			set.add(getOuterClassInfo());
-			set.add(getInnerClassInfo());
-			set.add(getInnerName());
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			if (getOuterClassInfo() != null)
+				consumer.accept(getOuterClassInfo());
+			consumer.accept(getInnerClassInfo());
+			if (getInnerName() != null)
+				consumer.accept(getInnerName());
 		}
 	}
 }
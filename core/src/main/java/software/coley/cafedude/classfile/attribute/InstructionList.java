@@ -0,0 +1,34 @@
+package software.coley.cafedude.classfile.attribute;
+
+import jakarta.annotation.Nonnull;
+import software.coley.cafedude.classfile.instruction.Instruction;
+import software.coley.cafedude.classfile.instruction.InstructionChangeListener;
+
+import java.util.List;
+
+/**
+ * View of the instructions of a {@link CodeAttribute}. Along with changes made through it, instructions in the list
+ * report changes to their size or branch targets, so that the attribute's offsets and control flow graph are
+ * only rebuilt when needed.
+ *
+ * @author Matt Coley
+ */
+final class InstructionList extends TrackingList<Instruction> implements InstructionChangeListener {
+	/**
+	 * @param backing
+	 * 		List to delegate to.
+	 */
+	InstructionList(@Nonnull List<Instruction> backing) {
+		super(backing);
+	}
+
+	@Override
+	protected void track(@Nonnull Instruction instruction) {
+		instruction.setChangeListener(this);
+	}
+
+	@Override
+	public void onInstructionChanged(@Nonnull Instruction instruction) {
+		markChanged();
+	}
+}
@@ -5,9 +5,8 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Variable generic/type table attribute.
@@ -28,13 +27,11 @@ public LocalVariableTypeTableAttribute(@Nonnull CpUtf8 name, @Nonnull List<VarTy
 		this.entries = entries;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (VarTypeEntry entry : getEntries())
-			set.addAll(entry.cpAccesses());
-		return set;
+			entry.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -133,13 +130,10 @@ public int getIndex() {
 			return index;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			set.add(name);
-			set.add(signature);
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			consumer.accept(name);
+			consumer.accept(signature);
 		}
 	}
 }
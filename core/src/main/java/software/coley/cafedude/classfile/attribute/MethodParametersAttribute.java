@@ -6,9 +6,8 @@
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Method parameters attribute.
@@ -43,13 +42,11 @@ public void setParameters(@Nonnull List<Parameter> parameters) {
 		this.parameters = parameters;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (Parameter p : parameters)
-			set.addAll(p.cpAccesses());
-		return set;
+			p.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -111,12 +108,9 @@ public void setName(@Nullable CpUtf8 name) {
 			this.name = name;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			if (name != null) set.add(name);
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			if (name != null) consumer.accept(name);
 		}
 	}
 }
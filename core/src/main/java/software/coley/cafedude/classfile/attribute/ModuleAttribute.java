@@ -9,9 +9,8 @@
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Module attribute.
@@ -197,22 +196,21 @@ public void setProvides(@Nonnull List<Provides> provides) {
 		this.provides = provides;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.add(getModule());
-		set.add(getVersion());
-		set.addAll(getUses());
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		consumer.accept(getModule());
+		if (getVersion() != null)
+			consumer.accept(getVersion());
+		getUses().forEach(consumer);
 		for (Requires requires : getRequires())
-			set.addAll(requires.cpAccesses());
+			requires.forEachCpAccess(consumer);
 		for (Exports exports : getExports())
-			set.addAll(exports.cpAccesses());
+			exports.forEachCpAccess(consumer);
 		for (Opens opens : getOpens())
-			set.addAll(opens.cpAccesses());
+			opens.forEachCpAccess(consumer);
 		for (Provides provides : getProvides())
-			set.addAll(provides.cpAccesses());
-		return set;
+			provides.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -311,13 +309,11 @@ public void setVersion(@Nullable CpUtf8 version) {
 			this.version = version;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			set.add(getVersion());
-			set.add(getModule());
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			if (getVersion() != null)
+				consumer.accept(getVersion());
+			consumer.accept(getModule());
 		}
 	}
 
@@ -407,13 +403,10 @@ public int length() {
 			return 6 + 2 * to.size();
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			set.add(getPackageEntry());
-			set.addAll(getTo());
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			consumer.accept(getPackageEntry());
+			getTo().forEach(consumer);
 		}
 	}
 
@@ -503,13 +496,10 @@ public int length() {
 			return 6 + 2 * to.size();
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			set.add(getPackageEntry());
-			set.addAll(getTo());
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			consumer.accept(getPackageEntry());
+			getTo().forEach(consumer);
 		}
 	}
 
@@ -575,13 +565,10 @@ public int length() {
 			return 4 + 2 * with.size();
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			set.add(getModule());
-			set.addAll(getWith());
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			consumer.accept(getModule());
+			getWith().forEach(consumer);
 		}
 	}
 }
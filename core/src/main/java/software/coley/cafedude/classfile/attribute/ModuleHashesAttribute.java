@@ -5,7 +5,7 @@
 
 import jakarta.annotation.Nonnull;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Module hashes attribute.
@@ -64,13 +64,11 @@ public void setModuleHashes(@Nonnull Map<CpUtf8, byte[]> moduleHashes) {
 		this.moduleHashes = moduleHashes;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.add(getAlgorithmName());
-		set.addAll(moduleHashes.keySet());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		consumer.accept(getAlgorithmName());
+		moduleHashes.keySet().forEach(consumer);
 	}
 
 	@Override
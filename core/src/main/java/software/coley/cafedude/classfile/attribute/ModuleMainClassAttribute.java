@@ -6,7 +6,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Module main class attribute.
@@ -43,12 +43,10 @@ public void setMainClass(@Nonnull CpClass mainClass) {
 		this.mainClass = mainClass;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.add(mainClass);
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		consumer.accept(mainClass);
 	}
 
 	@Override
@@ -7,7 +7,7 @@
 
 import jakarta.annotation.Nonnull;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Module packages attribute.
@@ -45,12 +45,10 @@ public void setPackages(@Nonnull List<CpPackage> packages) {
 		this.packages = packages;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.addAll(packages);
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		packages.forEach(consumer);
 	}
 
 	@Override
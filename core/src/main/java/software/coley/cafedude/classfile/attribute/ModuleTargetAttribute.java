@@ -4,7 +4,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Module target attribute, will hold values like <i>"linux-x86"</i>, <i>"win-x64"</i>, etc.
@@ -41,12 +41,10 @@ public void setPlatformName(@Nonnull CpUtf8 platformName) {
 		this.platformName = platformName;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.add(getPlatformName());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		consumer.accept(getPlatformName());
 	}
 
 	@Override
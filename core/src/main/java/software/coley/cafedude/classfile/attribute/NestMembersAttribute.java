@@ -6,7 +6,7 @@
 
 import jakarta.annotation.Nonnull;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Nest members attribute, lists classes allowed to declare membership of the nest hosted by current class.
@@ -46,12 +46,10 @@ public void setMemberClasses(@Nonnull List<CpClass> memberClasses) {
 		this.memberClasses = memberClasses;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.addAll(getMemberClasses());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		getMemberClasses().forEach(consumer);
 	}
 
 	@Override
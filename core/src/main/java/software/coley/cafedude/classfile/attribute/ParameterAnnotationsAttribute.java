@@ -7,7 +7,7 @@
 import jakarta.annotation.Nonnull;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Annotation collection attribute on method parameters. Represents either:
@@ -69,14 +69,12 @@ public void setVisible(boolean visible) {
 		this.visible = visible;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (List<Annotation> list : getParameterAnnotations().values())
 			for (Annotation annotation : list)
-				set.addAll(annotation.cpAccesses());
-		return set;
+				annotation.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -6,7 +6,7 @@
 
 import jakarta.annotation.Nonnull;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Permitted classes attribute.
@@ -43,12 +43,10 @@ public void setClasses(@Nonnull List<CpClass> classes) {
 		this.classes = classes;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.addAll(getClasses());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		getClasses().forEach(consumer);
 	}
 
 	@Override
@@ -8,9 +8,8 @@
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Permitted classes attribute.
@@ -31,13 +30,11 @@ public RecordAttribute(@Nonnull CpUtf8 name, @Nonnull List<RecordComponent> comp
 		this.components = components;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (RecordComponent component : getComponents())
-			set.addAll(component.cpAccesses());
-		return set;
+			component.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -144,13 +141,10 @@ public AttributeHolderType getHolderType() {
 			return AttributeHolderType.RECORD_COMPONENT;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
-			set.add(name);
-			set.add(desc);
-			return set;
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			consumer.accept(name);
+			consumer.accept(desc);
 		}
 
 		/**
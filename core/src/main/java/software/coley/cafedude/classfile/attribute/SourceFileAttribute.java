@@ -4,7 +4,7 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
 import jakarta.annotation.Nonnull;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Source file attribute.
@@ -41,12 +41,10 @@ public void setSourceFilename(@Nonnull CpUtf8 sourceFilename) {
 		this.sourceFilename = sourceFilename;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
-		set.add(getSourceFilename());
-		return set;
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
+		consumer.accept(getSourceFilename());
 	}
 
 	@Override
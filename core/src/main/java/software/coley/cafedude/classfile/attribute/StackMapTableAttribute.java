@@ -6,10 +6,8 @@
 import software.coley.cafedude.classfile.constant.CpEntry;
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Used during the process of verification by type checking.
@@ -59,13 +57,11 @@ public void setFrames(@Nonnull List<StackMapFrame> frames) {
 		this.frames = frames;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		Set<CpEntry> set = super.cpAccesses();
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		super.forEachCpAccess(consumer);
 		for (StackMapFrame frame : frames)
-			set.addAll(frame.cpAccesses());
-		return set;
+			frame.forEachCpAccess(consumer);
 	}
 
 	@Override
@@ -102,10 +98,9 @@ public int getLength() {
 			return 1;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			return Collections.emptySet();
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			// No constant pool references
 		}
 	}
 
@@ -197,10 +192,9 @@ public ObjectVariableInfo(@Nonnull CpClass classEntry) {
 			this.classEntry = classEntry;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			return Collections.singleton(getClassEntry());
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			consumer.accept(getClassEntry());
 		}
 
 		/**
@@ -343,10 +337,9 @@ public int getLength() {
 			return 1;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			return Collections.emptySet();
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			// No constant pool references
 		}
 
 		/**
@@ -408,10 +401,9 @@ public SameLocalsOneStackItem(int offsetDelta, @Nonnull TypeInfo stack) {
 			this.stack = stack;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			return getStack().cpAccesses();
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			getStack().forEachCpAccess(consumer);
 		}
 
 		/**
@@ -465,10 +457,9 @@ public SameLocalsOneStackItemExtended(int offsetDelta, @Nonnull TypeInfo stack)
 			this.stack = stack;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			return getStack().cpAccesses();
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+			getStack().forEachCpAccess(consumer);
 		}
 
 		/**
@@ -611,13 +602,10 @@ public AppendFrame(int offsetDelta, @Nonnull List<TypeInfo> additionalLocals) {
 			this.additionalLocals = additionalLocals;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
 			for (TypeInfo info : getAdditionalLocals())
-				set.addAll(info.cpAccesses());
-			return set;
+				info.forEachCpAccess(consumer);
 		}
 
 		/**
@@ -680,15 +668,12 @@ public FullFrame(int offsetDelta, @Nonnull List<TypeInfo> locals, @Nonnull List<
 			this.stack = stack;
 		}
 
-		@Nonnull
 		@Override
-		public Set<CpEntry> cpAccesses() {
-			Set<CpEntry> set = new HashSet<>();
+		public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
 			for (TypeInfo info : getLocals())
-				set.addAll(info.cpAccesses());
+				info.forEachCpAccess(consumer);
 			for (TypeInfo info : getStack())
-				set.addAll(info.cpAccesses());
-			return set;
+				info.forEachCpAccess(consumer);
 		}
 
 		/**
@@ -0,0 +1,132 @@
+package software.coley.cafedude.classfile.attribute;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * View of a list held by a {@link CodeAttribute} which counts changes made through it,
+ * so that the attribute's cached lookups are only rebuilt when needed.
+ * <br>
+ * Items are {@link #track(Object) tracked} as they are added, so that they can report
+ * changes made to them in place through {@link #markChanged()}.
+ *
+ * @param <T>
+ * 		Item type.
+ *
+ * @author Matt Coley
+ */
+abstract sealed class TrackingList<T> extends AbstractList<T> implements RandomAccess
+		permits InstructionList, ExceptionTableList {
+	private final List<T> backing;
+	private int structureRevision;
+	private int revision;
+
+	/**
+	 * @param backing
+	 * 		List to delegate to.
+	 */
+	TrackingList(@Nonnull List<T> backing) {
+		this.backing = backing;
+		for (T item : backing)
+			track(item);
+	}
+
+	/**
+	 * @param item
+	 * 		Item being added to the list.
+	 */
+	protected abstract void track(@Nonnull T item);
+
+	/**
+	 * @return Number of changes to which items are in the list.
+	 */
+	int getStructureRevision() {
+		return structureRevision;
+	}
+
+	/**
+	 * @return Number of changes to which items are in the list, and to the items themselves.
+	 */
+	int getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Records that an item in the list has changed in place.
+	 */
+	void markChanged() {
+		revision++;
+	}
+
+	private void markStructureChanged() {
+		structureRevision++;
+		revision++;
+	}
+
+	@Override
+	public T get(int index) {
+		return backing.get(index);
+	}
+
+	@Override
+	public int size() {
+		return backing.size();
+	}
+
+	@Override
+	public T set(int index, T item) {
+		track(item);
+		markStructureChanged();
+		return backing.set(index, item);
+	}
+
+	@Override
+	public void add(int index, T item) {
+		track(item);
+		markStructureChanged();
+		modCount++;
+		backing.add(index, item);
+	}
+
+	@Override
+	public boolean addAll(@Nonnull Collection<? extends T> c) {
+		c.forEach(this::track);
+		markStructureChanged();
+		modCount++;
+		return backing.addAll(c);
+	}
+
+	@Override
+	public boolean addAll(int index, @Nonnull Collection<? extends T> c) {
+		c.forEach(this::track);
+		markStructureChanged();
+		modCount++;
+		return backing.addAll(index, c);
+	}
+
+	@Override
+	public T remove(int index) {
+		markStructureChanged();
+		modCount++;
+		return backing.remove(index);
+	}
+
+	@Override
+	public boolean removeIf(@Nonnull Predicate<? super T> filter) {
+		markStructureChanged();
+		modCount++;
+		return backing.removeIf(filter);
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		markStructureChanged();
+		modCount++;
+		backing.subList(fromIndex, toIndex).clear();
+	}
+}
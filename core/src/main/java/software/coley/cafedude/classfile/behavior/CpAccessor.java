@@ -3,7 +3,10 @@
 import software.coley.cafedude.classfile.constant.CpEntry;
 
 import jakarta.annotation.Nonnull;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Applied to a data type that requires access to the constant pool.
@@ -12,8 +15,40 @@
  */
 public interface CpAccessor {
 	/**
+	 * Collects the accessed entries into a new set.
+	 * Prefer {@link #forEachCpAccess(Consumer)} when the entries do not need to be kept.
+	 *
 	 * @return Indices accessed.
 	 */
 	@Nonnull
-	Set<CpEntry> cpAccesses();
+	default Set<CpEntry> cpAccesses() {
+		Set<CpEntry> set = new HashSet<>();
+		forEachCpAccess(set::add);
+		return set;
+	}
+
+	/**
+	 * Visits accessed entries without collecting them.
+	 * Entries accessed from multiple places are visited once per access.
+	 *
+	 * @param consumer
+	 * 		Consumer to pass accessed entries to. Optional references that are not present are not passed along.
+	 */
+	void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer);
+
+	/**
+	 * @param predicate
+	 * 		Predicate to test accessed entries with.
+	 *
+	 * @return {@code true} when any accessed entry matches the predicate.
+	 * Entries are no longer tested once a match is found.
+	 */
+	default boolean anyCpAccess(@Nonnull Predicate<CpEntry> predicate) {
+		boolean[] match = new boolean[1];
+		forEachCpAccess(cp -> {
+			if (!match[0] && predicate.test(cp))
+				match[0] = true;
+		});
+		return match[0];
+	}
 }
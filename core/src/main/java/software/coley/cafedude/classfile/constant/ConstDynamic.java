@@ -44,6 +44,7 @@ public int getBsmIndex() {
 	 */
 	public void setBsmIndex(int bsmIndex) {
 		this.bsmIndex = bsmIndex;
+		markModified();
 	}
 
 	/**
@@ -60,6 +61,7 @@ public CpNameType getNameType() {
 	 */
 	public void setNameType(@Nonnull CpNameType nameType) {
 		this.nameType = nameType;
+		markModified();
 	}
 
 	@Nonnull
@@ -47,6 +47,7 @@ public CpClass getClassRef() {
 	 */
 	public void setClassRef(@Nonnull CpClass classRef) {
 		this.classRef = classRef;
+		markModified();
 	}
 
 	/**
@@ -63,6 +64,7 @@ public CpNameType getNameType() {
 	 */
 	public void setNameType(@Nonnull CpNameType nameType) {
 		this.nameType = nameType;
+		markModified();
 	}
 
 	@Nonnull
@@ -36,6 +36,7 @@ public CpUtf8 getName() {
 	 */
 	public void setName(@Nonnull CpUtf8 name) {
 		this.name = name;
+		markModified();
 	}
 
 	@Nonnull
@@ -30,6 +30,7 @@ public double getValue() {
 	 */
 	public void setValue(double value) {
 		this.value = value;
+		markModified();
 	}
 
 	@Override
@@ -22,6 +22,10 @@ public sealed abstract class CpEntry implements ConstantPoolConstants permits Co
 	 * Index is the index this entry has in a constant pool, < 1 if not in a pool.
 	 */
 	private int index;
+	/**
+	 * Flag indicating the content of the entry has changed since it was created.
+	 */
+	private boolean modified;
 
 	/**
 	 * Create base attribute.
@@ -57,6 +61,21 @@ public void setIndex(int index) {
 		this.index = index;
 	}
 
+	/**
+	 * @return {@code true} when the content of the entry has been changed since it was created.
+	 * Changes to the {@link #getIndex() index} do not count as changes to the content.
+	 */
+	public boolean isModified() {
+		return modified;
+	}
+
+	/**
+	 * Called by setters of entry content.
+	 */
+	protected void markModified() {
+		modified = true;
+	}
+
 	/**
 	 * @return {@code true} when the index has been computed.
 	 * This is only done after insertion into a {@link ConstPool}.
@@ -65,6 +84,24 @@ public boolean isInPool() {
 		return index > 0;
 	}
 
+	/**
+	 * @return Computed size of the entry for serialization, including its tag.
+	 * Internal entries that are not written, such as the reserved slot following wide entries, have a size of zero.
+	 */
+	public int computeSize() {
+		return switch (tag) {
+			// u1: tag, u2: index
+			case STRING, CLASS, METHOD_TYPE, MODULE, PACKAGE -> 3;
+			// u1: tag, u1: kind, u2: index
+			case METHOD_HANDLE -> 4;
+			// u1: tag, u4: value / u2 + u2: indices
+			case INTEGER, FLOAT, FIELD_REF, METHOD_REF, INTERFACE_METHOD_REF, NAME_TYPE, DYNAMIC, INVOKE_DYNAMIC -> 5;
+			// u1: tag, u8: value
+			case LONG, DOUBLE -> 9;
+			default -> 0;
+		};
+	}
+
 	/**
 	 * @return {@code true} when constant uses two pool entries.
 	 */
@@ -30,6 +30,7 @@ public float getValue() {
 	 */
 	public void setValue(float value) {
 		this.value = value;
+		markModified();
 	}
 
 	@Override
@@ -30,6 +30,7 @@ public int getValue() {
 	 */
 	public void setValue(int value) {
 		this.value = value;
+		markModified();
 	}
 
 	@Override
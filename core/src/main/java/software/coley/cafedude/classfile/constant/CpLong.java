@@ -30,6 +30,7 @@ public long getValue() {
 	 */
 	public void setValue(long value) {
 		this.value = value;
+		markModified();
 	}
 
 	@Override
@@ -61,6 +61,7 @@ public byte getKind() {
 	 */
 	public void setKind(byte kind) {
 		this.kind = kind;
+		markModified();
 	}
 
 	/**
@@ -82,6 +83,7 @@ public ConstRef getReference() {
 	 */
 	public void setReference(@Nonnull ConstRef reference) {
 		this.reference = reference;
+		markModified();
 	}
 
 	@Nonnull
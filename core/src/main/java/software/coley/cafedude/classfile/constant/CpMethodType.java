@@ -37,6 +37,7 @@ public CpUtf8 getDescriptor() {
 	 */
 	public void setDescriptor(@Nonnull CpUtf8 descriptor) {
 		this.descriptor = descriptor;
+		markModified();
 	}
 
 	@Nonnull
@@ -37,6 +37,7 @@ public CpUtf8 getName() {
 	 */
 	public void setName(@Nonnull CpUtf8 name) {
 		this.name = name;
+		markModified();
 	}
 
 	@Nonnull
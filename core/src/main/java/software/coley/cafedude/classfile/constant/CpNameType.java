@@ -40,6 +40,7 @@ public CpUtf8 getName() {
 	 */
 	public void setName(@Nonnull CpUtf8 name) {
 		this.name = name;
+		markModified();
 	}
 
 	/**
@@ -56,6 +57,7 @@ public CpUtf8 getType() {
 	 */
 	public void setType(@Nonnull CpUtf8 type) {
 		this.type = type;
+		markModified();
 	}
 
 	@Nonnull
@@ -37,6 +37,7 @@ public CpUtf8 getPackageName() {
 	 */
 	public void setPackageName(@Nonnull CpUtf8 packageName) {
 		this.packageName = packageName;
+		markModified();
 	}
 
 	@Nonnull
@@ -36,6 +36,7 @@ public CpUtf8 getString() {
 	 */
 	public void setString(@Nonnull CpUtf8 string) {
 		this.string = string;
+		markModified();
 	}
 
 	@Nonnull
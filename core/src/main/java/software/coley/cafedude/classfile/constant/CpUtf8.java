@@ -1,14 +1,29 @@
 package software.coley.cafedude.classfile.constant;
 
 import jakarta.annotation.Nonnull;
+import software.coley.cafedude.util.ModifiedUtf8;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
 
 /**
  * UTF8 pool entry.
+ * <br>
+ * Entries read from a class file keep a reference to their encoded form, and only decode it into a
+ * {@link String} on the first call to {@link #getText()}. Until then {@link #equals(Object)} and {@link #hashCode()}
+ * operate directly on the encoded bytes.
  *
  * @author Matt Coley
  */
 public non-sealed class CpUtf8 extends CpEntry {
 	private String text;
+	private byte[] data;
+	private int offset;
+	private int length;
+	private boolean ascii;
+	private int hash;
 
 	/**
 	 * Create UTF8 attribute.
@@ -21,11 +36,37 @@ public CpUtf8(@Nonnull String text) {
 		this.text = text;
 	}
 
+	/**
+	 * Create UTF8 attribute backed by encoded content, which is decoded on demand.
+	 *
+	 * @param data
+	 * 		Array holding the modified UTF-8 encoded text. Must not be modified afterwards.
+	 * @param offset
+	 * 		Offset of the encoded text in the array.
+	 * @param length
+	 * 		Length of the encoded text.
+	 *
+	 * @throws UTFDataFormatException
+	 * 		When the content is not valid modified UTF-8.
+	 */
+	public CpUtf8(@Nonnull byte[] data, int offset, int length) throws UTFDataFormatException {
+		super(UTF8);
+		this.data = data;
+		this.offset = offset;
+		this.length = length;
+		this.ascii = ModifiedUtf8.validate(data, offset, length);
+	}
+
 	/**
 	 * @return Constant text.
 	 */
 	@Nonnull
 	public String getText() {
+		String text = this.text;
+		if (text == null) {
+			text = ModifiedUtf8.decode(data, offset, length, ascii);
+			this.text = text;
+		}
 		return text;
 	}
 
@@ -35,23 +76,88 @@ public String getText() {
 	 */
 	public void setText(@Nonnull String text) {
 		this.text = text;
+		data = null;
+		hash = 0;
+		markModified();
+	}
+
+	/**
+	 * @return {@code true} when the entry still holds the encoded text it was read from.
+	 */
+	public boolean hasEncoded() {
+		return data != null;
+	}
+
+	/**
+	 * @return Length of the encoded text this entry was read from, or {@code -1} if {@link #hasEncoded()} is false.
+	 */
+	public int getEncodedLength() {
+		return data == null ? -1 : length;
+	}
+
+	/**
+	 * Writes the encoded text this entry was read from, in the same format as {@link DataOutput#writeUTF(String)}.
+	 *
+	 * @param out
+	 * 		Output to write to.
+	 *
+	 * @throws IOException
+	 * 		When the output cannot be written to.
+	 * @throws IllegalStateException
+	 * 		When {@link #hasEncoded()} is false.
+	 */
+	public void writeEncoded(@Nonnull DataOutput out) throws IOException {
+		if (data == null)
+			throw new IllegalStateException("UTF8 entry has no encoded form");
+		out.writeShort(length);
+		out.write(data, offset, length);
+	}
+
+	@Override
+	public int computeSize() {
+		// u1: tag
+		// u2: length
+		// u1 * X: encoded text
+		return 3 + (data == null ? ModifiedUtf8.encodedLength(text) : length);
 	}
 
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
-		CpUtf8 cpUtf8 = (CpUtf8) o;
-		return text.equals(cpUtf8.text);
+		CpUtf8 other = (CpUtf8) o;
+		byte[] data = this.data;
+		byte[] otherData = other.data;
+		if (data != null && otherData != null) {
+			if (Arrays.equals(data, offset, offset + length, otherData, other.offset, other.offset + other.length))
+				return true;
+
+			// ASCII has only one encoding, so differing bytes mean differing text.
+			// Other characters may be encoded in more than one way, so those must be compared as text.
+			if (ascii && other.ascii)
+				return false;
+		}
+		return getText().equals(other.getText());
 	}
 
 	@Override
 	public int hashCode() {
-		return text.hashCode();
+		int hash = this.hash;
+		if (hash == 0) {
+			if (data != null && ascii) {
+				// Same as the hash of the decoded string.
+				for (int i = offset, end = offset + length; i < end; i++)
+					hash = 31 * hash + data[i];
+			} else {
+				hash = getText().hashCode();
+			}
+			this.hash = hash;
+		}
+		return hash;
 	}
 
 	@Override
 	public String toString() {
-		return "utf8=" + text;
+		return "utf8=" + getText();
 	}
 }
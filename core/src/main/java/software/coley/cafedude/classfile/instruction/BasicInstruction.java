@@ -1,16 +1,90 @@
 package software.coley.cafedude.classfile.instruction;
 
+import jakarta.annotation.Nullable;
+
 /**
  * Instruction that does not have any operands.
+ * <br>
+ * Since these instructions have no state besides their opcode, {@link #of(int)} provides shared instances
+ * which can be used in place of allocating new ones. A shared instance may appear any number of times in the
+ * same code, so lookups by instance such as {@code CodeAttribute.indexOf(Instruction)} find its first occurrence.
+ * Use a new instance where an instruction must be told apart from others, such as the target of a branch.
  *
  * @author xDark
  */
 public non-sealed class BasicInstruction extends Instruction {
+	private static final BasicInstruction[] SHARED = new BasicInstruction[256];
+	private final boolean shared;
+
+	static {
+		share(Opcodes.NOP, Opcodes.DCONST_1);
+		share(Opcodes.ILOAD_0, Opcodes.SALOAD);
+		share(Opcodes.ISTORE_0, Opcodes.LXOR);
+		share(Opcodes.I2L, Opcodes.DCMPG);
+		share(Opcodes.IRETURN, Opcodes.RETURN);
+		share(Opcodes.ARRAYLENGTH, Opcodes.ATHROW);
+		share(Opcodes.MONITORENTER, Opcodes.MONITOREXIT);
+	}
+
 	/**
 	 * @param opcode
 	 * 		Instruction opcode.
 	 */
 	public BasicInstruction(int opcode) {
+		this(opcode, false);
+	}
+
+	private BasicInstruction(int opcode, boolean shared) {
 		super(opcode);
+		this.shared = shared;
+	}
+
+	/**
+	 * @param opcode
+	 * 		Opcode of an instruction without operands.
+	 *
+	 * @return Shared instance for the opcode.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		When the opcode is not of an instruction without operands.
+	 */
+	public static BasicInstruction of(int opcode) {
+		BasicInstruction instruction = opcode >= 0 && opcode < SHARED.length ? SHARED[opcode] : null;
+		if (instruction == null)
+			throw new IllegalArgumentException("Opcode is not of an instruction without operands: " + opcode);
+		return instruction;
+	}
+
+	private static void share(int from, int to) {
+		for (int opcode = from; opcode <= to; opcode++)
+			SHARED[opcode] = new BasicInstruction(opcode, true);
+	}
+
+	/**
+	 * @return {@code true} when this is a {@link #of(int) shared instance}, which cannot be modified.
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * @param opcode
+	 * 		New opcode.
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		When this is a {@link #of(int) shared instance}.
+	 */
+	@Override
+	public void setOpcode(int opcode) {
+		if (shared)
+			throw new UnsupportedOperationException("Cannot change the opcode of a shared instruction");
+		super.setOpcode(opcode);
+	}
+
+	@Override
+	public void setChangeListener(@Nullable InstructionChangeListener changeListener) {
+		// Shared instances cannot change, and must not keep whatever code they were last added to reachable
+		if (!shared)
+			super.setChangeListener(changeListener);
 	}
 }
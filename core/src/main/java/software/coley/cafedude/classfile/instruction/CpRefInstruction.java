@@ -4,9 +4,8 @@
 import software.coley.cafedude.classfile.behavior.CpAccessor;
 import software.coley.cafedude.classfile.constant.CpEntry;
 
-import java.util.Collections;
 import java.util.Objects;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Instruction that references a constant pool entry.
@@ -81,9 +80,8 @@ public String toString() {
 		return super.toString() + " entry=" + entry;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		return Collections.singleton(entry);
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(entry);
 	}
 }
@@ -1,5 +1,7 @@
 package software.coley.cafedude.classfile.instruction;
 
+import jakarta.annotation.Nullable;
+
 /**
  * Node that represents bytecode instruction.
  *
@@ -8,6 +10,7 @@
 public sealed abstract class Instruction permits BasicInstruction, CpRefInstruction, IincInstruction,
 		IntOperandInstruction, LookupSwitchInstruction, MultiANewArrayInstruction, TableSwitchInstruction, WideInstruction {
 	private int opcode;
+	private InstructionChangeListener changeListener;
 
 	/**
 	 * @param opcode
@@ -32,6 +35,29 @@ public int getOpcode() {
 	 */
 	public void setOpcode(int opcode) {
 		this.opcode = opcode;
+		notifyChanged();
+	}
+
+	/**
+	 * Only one listener is held. Code attributes register themselves when an instruction is added to them,
+	 * so an instruction held by multiple code attributes only notifies the one it was most recently added to.
+	 *
+	 * @param changeListener
+	 * 		Listener to notify when this instruction changes in a way that may affect its size or branch targets.
+	 * 		May be {@code null} to remove the current listener.
+	 */
+	public void setChangeListener(@Nullable InstructionChangeListener changeListener) {
+		this.changeListener = changeListener;
+	}
+
+	/**
+	 * Notifies the {@link #setChangeListener(InstructionChangeListener) listener} that this instruction has changed
+	 * in a way that may affect its size or branch targets.
+	 */
+	protected void notifyChanged() {
+		InstructionChangeListener changeListener = this.changeListener;
+		if (changeListener != null)
+			changeListener.onInstructionChanged(this);
 	}
 
 	/**
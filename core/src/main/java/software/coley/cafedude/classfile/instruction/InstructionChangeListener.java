@@ -0,0 +1,18 @@
+package software.coley.cafedude.classfile.instruction;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Listener for instructions changing in place, in ways that may affect their size or where they branch to.
+ *
+ * @author Matt Coley
+ * @see Instruction#setChangeListener(InstructionChangeListener)
+ */
+@FunctionalInterface
+public interface InstructionChangeListener {
+	/**
+	 * @param instruction
+	 * 		Instruction that changed.
+	 */
+	void onInstructionChanged(@Nonnull Instruction instruction);
+}
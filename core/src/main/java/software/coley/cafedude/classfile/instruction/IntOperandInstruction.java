@@ -34,6 +34,7 @@ public int getOperand() {
 	 */
 	public void setOperand(int operand) {
 		this.operand = operand;
+		notifyChanged();
 	}
 
 	@Override
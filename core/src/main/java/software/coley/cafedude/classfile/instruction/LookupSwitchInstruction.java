@@ -44,6 +44,7 @@ public int getDefault() {
 	 */
 	public void setDefault(int dflt) {
 		this.dflt = dflt;
+		notifyChanged();
 	}
 
 	/**
@@ -61,6 +62,7 @@ public List<Integer> getKeys() {
 	 */
 	public void setKeys(List<Integer> keys) {
 		this.keys = keys;
+		notifyChanged();
 	}
 
 	/**
@@ -78,6 +80,7 @@ public List<Integer> getOffsets() {
 	 */
 	public void setOffsets(List<Integer> offsets) {
 		this.offsets = offsets;
+		notifyChanged();
 	}
 
 	/**
@@ -103,7 +106,11 @@ public void notifyStartPosition(int position) {
 		// 3: pad      3: pad      3: opcode
 		// 4: pad      4: pad      4: pad     4: opcode
 		// 5: def      5: def      5: def     5: def
-		this.padding = 3 - ((position) & 3);
+		int padding = 3 - ((position) & 3);
+		if (this.padding != padding) {
+			this.padding = padding;
+			notifyChanged();
+		}
 	}
 
 	@Override
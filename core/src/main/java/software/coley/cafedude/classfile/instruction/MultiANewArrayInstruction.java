@@ -5,9 +5,8 @@
 import software.coley.cafedude.classfile.constant.CpClass;
 import software.coley.cafedude.classfile.constant.CpEntry;
 
-import java.util.Collections;
 import java.util.Objects;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Instruction for {@code multianewarray}.
@@ -69,10 +68,9 @@ public int computeSize() {
 		return 4;
 	}
 
-	@Nonnull
 	@Override
-	public Set<CpEntry> cpAccesses() {
-		return Collections.singleton(descriptor);
+	public void forEachCpAccess(@Nonnull Consumer<CpEntry> consumer) {
+		consumer.accept(descriptor);
 	}
 
 	@Override
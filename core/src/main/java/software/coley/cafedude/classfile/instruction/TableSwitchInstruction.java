@@ -49,6 +49,7 @@ public int getDefault() {
 	 */
 	public void setDefault(int dflt) {
 		this.dflt = dflt;
+		notifyChanged();
 	}
 
 	/**
@@ -100,6 +101,7 @@ public List<Integer> getOffsets() {
 	 */
 	public void setOffsets(List<Integer> offsets) {
 		this.offsets = offsets;
+		notifyChanged();
 	}
 
 	/**
@@ -125,7 +127,11 @@ public void notifyStartPosition(int position) {
 		// 3: pad      3: pad      3: opcode
 		// 4: pad      4: pad      4: pad     4: opcode
 		// 5: def      5: def      5: def     5: def
-		this.padding = 3 - ((position) & 3);
+		int padding = 3 - ((position) & 3);
+		if (this.padding != padding) {
+			this.padding = padding;
+			notifyChanged();
+		}
 	}
 
 	@Override
@@ -36,8 +36,6 @@
 import software.coley.cafedude.classfile.constant.CpEntry;
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -56,7 +54,7 @@ public class AnnotationReader {
 	private static final int MAX_NESTING = 50;
 	private final ClassFileReader reader;
 	private final ConstPool cp;
-	private final DataInputStream is;
+	private final ByteCursor is;
 	private final AttributeContext context;
 	private final CpUtf8 name;
 	private final int maxCpIndex;
@@ -70,7 +68,7 @@ public class AnnotationReader {
 	 * @param cp
 	 * 		The constant pool to use for reference.
 	 * @param is
-	 * 		Stream to read from.
+	 * 		Cursor to read from.
 	 * @param length
 	 * 		Expected length of data to read.
 	 * @param name
@@ -84,14 +82,13 @@ public class AnnotationReader {
 	 * 		When the subsection of the given stream for annotation reading cannot be allocated,
 	 * 		possible due to out-of-bounds problems. This is an indicator of a malformed class.
 	 */
-	public AnnotationReader(ClassFileReader reader, ConstPool cp, DataInputStream is, int length,
+	public AnnotationReader(ClassFileReader reader, ConstPool cp, ByteCursor is, int length,
 	                        CpUtf8 name, AttributeContext context, boolean visible)
 			throws IOException {
 		this.reader = reader;
 		this.cp = cp;
-		byte[] data = new byte[length];
-		is.readFully(data);
-		this.is = new DataInputStream(new ByteArrayInputStream(data));
+		this.is = is.slice(length);
+		is.skipBytes(length);
 		this.name = name;
 		this.context = context;
 		this.maxCpIndex = cp.size();
@@ -27,7 +27,7 @@
 import software.coley.cafedude.classfile.attribute.ParameterAnnotationsAttribute;
 import software.coley.cafedude.classfile.constant.CpUtf8;
 
-import java.io.DataOutputStream;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -38,7 +38,7 @@
  * @author Matt Coley
  */
 public class AnnotationWriter {
-	private final DataOutputStream out;
+	private final DataOutput out;
 
 	/**
 	 * Create an annotation writer.
@@ -46,7 +46,7 @@ public class AnnotationWriter {
 	 * @param out
 	 * 		Stream to write to.
 	 */
-	public AnnotationWriter(DataOutputStream out) {
+	public AnnotationWriter(DataOutput out) {
 		this.out = out;
 	}
 
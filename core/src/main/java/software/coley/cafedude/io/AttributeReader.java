@@ -63,11 +63,10 @@
 import software.coley.cafedude.classfile.constant.CpUtf8;
 import software.coley.cafedude.classfile.constant.Placeholders;
 import software.coley.cafedude.classfile.instruction.Instruction;
+import software.coley.cafedude.util.ModifiedUtf8;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.PushbackInputStream;
+import java.io.UTFDataFormatException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -87,7 +86,7 @@
 public class AttributeReader {
 	private static final Pattern NON_BS_ATTR_NAME = Pattern.compile("\\w{1,30}");
 	private static final Logger logger = LoggerFactory.getLogger(AttributeReader.class);
-	private final IndexableByteStream is;
+	private final ByteCursor is;
 	private final ClassFileReader reader;
 	private final ClassBuilder builder;
 	private final ConstPool cp;
@@ -107,7 +106,7 @@ public class AttributeReader {
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	private AttributeReader(@Nonnull ClassFileReader reader, @Nonnull ClassBuilder builder,
-	                        @Nonnull IndexableByteStream is) throws IOException {
+	                        @Nonnull ByteCursor is) throws IOException {
 		this.reader = reader;
 		this.builder = builder;
 		this.cp = builder.getPool();
@@ -117,9 +116,9 @@ private AttributeReader(@Nonnull ClassFileReader reader, @Nonnull ClassBuilder b
 		this.name = nameEntry instanceof CpUtf8 utf ? utf : Placeholders.UTF8;
 		this.expectedContentLength = is.readInt();
 
-		// Create local stream, move parent stream to end
+		// Create local cursor, move parent cursor to end
 		int index = is.getAbsoluteIndex();
-		this.is = new IndexableByteStream(is, expectedContentLength);
+		this.is = is.fork();
 		is.moveToAbsolute(index + expectedContentLength);
 	}
 
@@ -137,10 +136,15 @@ private AttributeReader(@Nonnull ClassFileReader reader, @Nonnull ClassBuilder b
 	 */
 	@Nullable
 	public static Attribute readAttribute(@Nonnull ClassFileReader reader, @Nonnull ClassBuilder builder,
-	                                      @Nonnull IndexableByteStream is, @Nonnull AttributeContext context) throws IOException {
+	                                      @Nonnull ByteCursor is, @Nonnull AttributeContext context) throws IOException {
 		String attributeName = null;
 		int expectedContentLength = -1;
 		try {
+			// Jump over attributes the reader has been configured to skip, without creating anything for them.
+			if ((reader.doSkipDebug() || reader.doSkipCode() || reader.doSkipAnnotations())
+					&& skipAttribute(reader, builder.getPool(), is))
+				return null;
+
 			AttributeReader attributeReader = new AttributeReader(reader, builder, is);
 			attributeName = attributeReader.getAttributeName();
 			expectedContentLength = attributeReader.getExpectedContentLength();
@@ -187,7 +191,9 @@ public static Attribute readAttribute(@Nonnull ClassFileReader reader, @Nonnull
 			}
 
 			// Drop the attribute if it references a placeholder constant pool entry.
-			if (attribute.cpAccesses().stream().anyMatch(Placeholders::isOrContainsPlaceholder))
+			// Deferred code is only created when the pool has no placeholders, and checking it would force decoding.
+			boolean deferredCode = attribute instanceof CodeAttribute code && code.getDeferredInstructions() != null;
+			if (!deferredCode && attribute.anyCpAccess(Placeholders::isOrContainsPlaceholder))
 				return null;
 
 			return attribute;
@@ -202,6 +208,85 @@ public static Attribute readAttribute(@Nonnull ClassFileReader reader, @Nonnull
 		}
 	}
 
+	/**
+	 * @param reader
+	 * 		Parent class reader.
+	 * @param cp
+	 * 		Pool to look up the attribute name in.
+	 * @param is
+	 * 		Parent stream, positioned at the start of an attribute.
+	 *
+	 * @return {@code true} when the attribute is configured to be skipped, in which case the stream is moved
+	 * past it using its declared length. {@code false} when the attribute should be read, and the stream is not moved.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 */
+	private static boolean skipAttribute(@Nonnull ClassFileReader reader, @Nonnull ConstPool cp,
+	                                     @Nonnull ByteCursor is) throws IOException {
+		int start = is.getIndex();
+		if (!(cp.get(is.getUnsignedShort(start)) instanceof CpUtf8 name))
+			return false;
+		boolean skip = switch (name.getText()) {
+			case AttributeConstants.LINE_NUMBER_TABLE,
+					AttributeConstants.LOCAL_VARIABLE_TABLE,
+					AttributeConstants.LOCAL_VARIABLE_TYPE_TABLE,
+					AttributeConstants.SOURCE_DEBUG_EXTENSION -> reader.doSkipDebug();
+			case AttributeConstants.CODE -> reader.doSkipCode();
+			case AttributeConstants.RUNTIME_VISIBLE_ANNOTATIONS,
+					AttributeConstants.RUNTIME_INVISIBLE_ANNOTATIONS,
+					AttributeConstants.RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS,
+					AttributeConstants.RUNTIME_INVISIBLE_PARAMETER_ANNOTATIONS,
+					AttributeConstants.RUNTIME_VISIBLE_TYPE_ANNOTATIONS,
+					AttributeConstants.RUNTIME_INVISIBLE_TYPE_ANNOTATIONS,
+					AttributeConstants.ANNOTATION_DEFAULT -> reader.doSkipAnnotations();
+			default -> false;
+		};
+		if (!skip)
+			return false;
+
+		// u2: name_index, u4: length
+		int length = is.getInt(start + 2);
+		if (length < 0 || length > is.remaining() - 6)
+			return false;
+		is.moveTo(start + 6 + length);
+		return true;
+	}
+
+	/**
+	 * Checks the parts of an attribute that are judged before its content is read, without reading the content.
+	 *
+	 * @param reader
+	 * 		Parent class reader.
+	 * @param builder
+	 * 		Class being build/read into.
+	 * @param nameIndex
+	 * 		Pool index of the attribute name.
+	 * @param context
+	 * 		Where the attribute is applied to.
+	 *
+	 * @return {@code true} when the attribute would not be dropped based on its name and context alone.
+	 * {@code false} when the attribute would be dropped or skipped.
+	 */
+	static boolean isRetainedByHeader(@Nonnull ClassFileReader reader, @Nonnull ClassBuilder builder,
+	                                  int nameIndex, @Nonnull AttributeContext context) {
+		if (!(builder.getPool().get(nameIndex) instanceof CpUtf8 name))
+			return false;
+		String attributeName = name.getText();
+		if (reader.doDropForwardVersioned()
+				&& AttributeVersions.getIntroducedVersion(attributeName) > builder.getVersionMajor())
+			return false;
+		if (reader.doDropBadContextAttributes()
+				&& (!AttributeContexts.getAllowedContexts(attributeName).contains(context.type())
+				|| (!builder.isModule() && attributeName.toLowerCase().startsWith("module"))))
+			return false;
+		return switch (attributeName) {
+			case AttributeConstants.CODE -> !builder.isAnnotation();
+			case AttributeConstants.CONSTANT_VALUE -> Modifier.isStatic(context.memberAccess());
+			default -> true;
+		};
+	}
+
 	@Nullable
 	private Attribute read(@Nonnull AttributeContext context) throws IOException {
 		// Check for illegally inserted attributes from future versions
@@ -319,9 +404,12 @@ private Attribute read(@Nonnull AttributeContext context) throws IOException {
 			return null;
 		}
 
-		// Default handling, skip remaining bytes
+		// Default handling, skip remaining bytes.
+		// The content is only referenced in place when the reader is allowed to hold on to its input.
 		is.skipBytes(expectedContentLength);
-		return new DefaultAttribute(name, is.getBuffer());
+		if (reader.doLazyParsing())
+			return new DefaultAttribute(name, is.view(0, is.getIndex()));
+		return new DefaultAttribute(name, is.copyRange(0, is.getIndex()));
 	}
 
 	/**
@@ -586,7 +674,7 @@ private ModuleHashesAttribute readModuleHashes() throws IOException {
 			int moduleHashLength = is.readUnsignedShort();
 			CpUtf8 moduleName = (CpUtf8) cp.get(moduleNameIndex);
 			byte[] moduleHash = new byte[moduleHashLength];
-			is.read(moduleHash);
+			is.readFully(moduleHash);
 			moduleHashes.put(moduleName, moduleHash);
 		}
 		return new ModuleHashesAttribute(name, algorithm, moduleHashes);
@@ -759,11 +847,8 @@ private SourceDebugExtensionAttribute readSourceDebugExtension() throws IOExcept
 
 		// Validate data represents UTF text
 		try {
-			PushbackInputStream in = new PushbackInputStream(new ByteArrayInputStream(debugExtension), 2);
-			in.unread((byte) ((expectedContentLength >>> 8) & 0xFF));
-			in.unread((byte) (expectedContentLength & 0xFF));
-			new DataInputStream(in).readUTF();
-		} catch (Throwable t) {
+			ModifiedUtf8.validate(debugExtension, 0, debugExtension.length);
+		} catch (UTFDataFormatException ex) {
 			logger.debug("Invalid SourceDebugExtension, not a valid UTF");
 			return null;
 		}
@@ -920,9 +1005,17 @@ private CodeAttribute readCode(@Nonnull AttributeContext context) throws IOExcep
 		if (reader.doCheckCodeLength() && codeLength > 65536)
 			throw new IOException("Method code_length > 65536: " + codeLength);
 
-		// Read instructions
-		InstructionReader insnReader = new InstructionReader(reader.getFallbackInstructionReader(builder));
-		List<Instruction> instructions = insnReader.read(is, cp, codeLength);
+		// Read instructions, or defer reading them when reading against a snapshot of the class's pool.
+		List<Instruction> instructions = null;
+		DeferredCode deferredCode = null;
+		if (builder.getSourcePool() != null) {
+			deferredCode = new DeferredCode(reader, builder, is.slice(codeLength));
+			is.skipBytes(codeLength);
+		} else {
+			InstructionReader insnReader = new InstructionReader(reader.getFallbackInstructionReader(builder),
+					reader.doShareBasicInstructions());
+			instructions = insnReader.read(is, cp, codeLength);
+		}
 
 		// Read exceptions
 		int numExceptions = is.readUnsignedShort();
@@ -942,6 +1035,8 @@ private CodeAttribute readCode(@Nonnull AttributeContext context) throws IOExcep
 				attributes.add(attr);
 		}
 
+		if (deferredCode != null)
+			return new CodeAttribute(name, maxStack, maxLocals, deferredCode, exceptions, attributes);
 		return new CodeAttribute(name, maxStack, maxLocals, instructions, exceptions, attributes);
 	}
 
@@ -1114,20 +1209,20 @@ private StackMapTableAttribute.TypeInfo readVerificationTypeInfo() throws IOExce
 	}
 
 	/**
-	 * This method will declare where the cursor in the {@link IndexableByteStream} is after reading an attribute.
+	 * This method will declare where the cursor in the {@link ByteCursor} is after reading an attribute.
 	 * Generally the cursor should match the following position: {@code startPos + u2_name + u4_length + [length * u1]}
 	 * <p/>
 	 * This contract breaks for some attributes and is accommodated for in
-	 * {@link #readAttribute(ClassFileReader, ClassBuilder, IndexableByteStream, AttributeContext)}.
+	 * {@link #readAttribute(ClassFileReader, ClassBuilder, ByteCursor, AttributeContext)}.
 	 *
-	 * @return The position of the {@link IndexableByteStream} after parsing the attribute.
+	 * @return The position of the {@link ByteCursor} after parsing the attribute.
 	 */
 	public int getAbsoluteReadPosition() {
 		return is.getAbsoluteIndex();
 	}
 
 	/**
-	 * @return The relative position of the {@link IndexableByteStream} from the start of the attribute
+	 * @return The relative position of the {@link ByteCursor} from the start of the attribute
 	 * read after parsing the attribute.
 	 */
 	public int getRelativeReadPosition() {
@@ -1,6 +1,7 @@
 package software.coley.cafedude.io;
 
 import jakarta.annotation.Nonnull;
+import software.coley.cafedude.classfile.ConstPool;
 import software.coley.cafedude.classfile.attribute.AnnotationDefaultAttribute;
 import software.coley.cafedude.classfile.attribute.AnnotationsAttribute;
 import software.coley.cafedude.classfile.attribute.Attribute;
@@ -48,11 +49,12 @@
 import software.coley.cafedude.classfile.constant.CpModule;
 import software.coley.cafedude.classfile.constant.CpPackage;
 import software.coley.cafedude.classfile.constant.CpUtf8;
+import software.coley.cafedude.util.GrowingByteBuffer;
 
 import jakarta.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
@@ -64,14 +66,18 @@
  * @author Matt Coley
  */
 public class AttributeWriter {
-	private final ClassFileWriter writer;
+	private final ConstPool pool;
+	private final FallbackInstructionWriter fallbackInstructionWriter;
 
 	/**
-	 * @param writer
-	 * 		Parent class writier.
+	 * @param pool
+	 * 		Pool of the class being written.
+	 * @param fallbackInstructionWriter
+	 * 		Writer to handle unsupported instructions.
 	 */
-	public AttributeWriter(@Nonnull ClassFileWriter writer) {
-		this.writer = writer;
+	public AttributeWriter(@Nonnull ConstPool pool, @Nonnull FallbackInstructionWriter fallbackInstructionWriter) {
+		this.pool = pool;
+		this.fallbackInstructionWriter = fallbackInstructionWriter;
 	}
 
 	/**
@@ -87,18 +93,38 @@ public AttributeWriter(@Nonnull ClassFileWriter writer) {
 	 */
 	@Nonnull
 	public byte[] writeAttribute(@Nonnull Attribute attribute) throws IOException {
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		DataOutputStream out = new DataOutputStream(baos);
+		GrowingByteBuffer out = new GrowingByteBuffer();
+		writeAttribute(out, attribute);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Writes the attribute to the given buffer.
+	 * <br>
+	 * The {@code attribute_length} is reserved and then back-patched once the content of the attribute
+	 * has been written, so no separate pass is made to compute it.
+	 *
+	 * @param out
+	 * 		Buffer to write to.
+	 * @param attribute
+	 * 		Attribute to write.
+	 *
+	 * @throws IOException
+	 * 		When the stream cannot be written to.
+	 */
+	public void writeAttribute(@Nonnull GrowingByteBuffer out, @Nonnull Attribute attribute) throws IOException {
 		if (attribute instanceof DefaultAttribute dflt) {
+			ByteBuffer data = dflt.getDataBuffer();
 			out.writeShort(dflt.getName().getIndex());
-			out.writeInt(dflt.getData().length);
-			out.write(dflt.getData());
+			out.writeInt(data.remaining());
+			out.put(data);
 		} else {
 			CpUtf8 cpName = attribute.getName();
 
-			// Write common attribute bits
+			// Write common attribute bits, leaving space for the length to be filled in afterward
 			out.writeShort(cpName.getIndex());
-			out.writeInt(attribute.computeInternalLength());
+			int lengthPos = out.position();
+			out.skip(4);
 
 			// Write specific bits.
 			// Note: Unlike reading, writing is quite streamline and doesn't require many variable declarations
@@ -120,10 +146,17 @@ public byte[] writeAttribute(@Nonnull Attribute attribute) throws IOException {
 					CodeAttribute code = (CodeAttribute) attribute;
 					out.writeShort(code.getMaxStack());
 					out.writeShort(code.getMaxLocals());
-					InstructionWriter instructionWriter = new InstructionWriter(writer.getFallbackInstructionWriter());
-					byte[] codeBytes = instructionWriter.writeCode(code.getInstructions());
-					out.writeInt(codeBytes.length);
-					out.write(codeBytes);
+					if (code.getDeferredInstructions() instanceof DeferredCode deferred && deferred.isValidFor(pool)) {
+						// Code was never decoded, and the pool indices it uses are unchanged.
+						out.writeInt(deferred.getCodeLength());
+						out.put(deferred.viewCode());
+					} else {
+						int codeLengthPos = out.position();
+						out.skip(4);
+						InstructionWriter instructionWriter = new InstructionWriter(fallbackInstructionWriter);
+						instructionWriter.writeCode(out, code.getInstructions());
+						out.putInt(codeLengthPos, out.position() - codeLengthPos - 4);
+					}
 					out.writeShort(code.getExceptionTable().size());
 					for (CodeAttribute.ExceptionTableEntry tableEntry : code.getExceptionTable()) {
 						out.writeShort(tableEntry.getStartPc());
@@ -133,7 +166,7 @@ public byte[] writeAttribute(@Nonnull Attribute attribute) throws IOException {
 					}
 					out.writeShort(code.getAttributes().size());
 					for (Attribute subAttribute : code.getAttributes())
-						out.write(writeAttribute(subAttribute));
+						writeAttribute(out, subAttribute);
 					break;
 				case AttributeConstants.CONSTANT_VALUE:
 					out.writeShort(((ConstantValueAttribute) attribute).getConstantValue().getIndex());
@@ -262,7 +295,7 @@ public byte[] writeAttribute(@Nonnull Attribute attribute) throws IOException {
 						out.writeShort(component.getDesc().getIndex());
 						out.writeShort(component.getAttributes().size());
 						for (Attribute subAttribute : component.getAttributes())
-							out.write(writeAttribute(subAttribute));
+							writeAttribute(out, subAttribute);
 					}
 					break;
 				case AttributeConstants.RUNTIME_VISIBLE_ANNOTATIONS:
@@ -360,8 +393,8 @@ public byte[] writeAttribute(@Nonnull Attribute attribute) throws IOException {
 				default:
 					break;
 			}
+			out.putInt(lengthPos, out.position() - lengthPos - 4);
 		}
-		return baos.toByteArray();
 	}
 
 	private int orZero(@Nullable CpEntry entry) {
@@ -369,7 +402,7 @@ private int orZero(@Nullable CpEntry entry) {
 		return entry.getIndex();
 	}
 
-	private void writeVerificationType(DataOutputStream out, StackMapTableAttribute.TypeInfo type) throws IOException {
+	private void writeVerificationType(DataOutput out, StackMapTableAttribute.TypeInfo type) throws IOException {
 		out.writeByte(type.getTag());
 		if (type instanceof StackMapTableAttribute.ObjectVariableInfo objVar) {
 			out.writeShort(objVar.getClassEntry().getIndex());
@@ -378,7 +411,7 @@ private void writeVerificationType(DataOutputStream out, StackMapTableAttribute.
 		}
 	}
 
-	private void writeStackMapTable(DataOutputStream out, StackMapTableAttribute stackMapTable) throws IOException {
+	private void writeStackMapTable(DataOutput out, StackMapTableAttribute stackMapTable) throws IOException {
 		out.writeShort(stackMapTable.getFrames().size());
 		for (StackMapTableAttribute.StackMapFrame frame : stackMapTable.getFrames()) {
 			out.writeByte(frame.getFrameType());
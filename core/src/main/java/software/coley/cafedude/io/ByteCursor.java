@@ -0,0 +1,331 @@
+package software.coley.cafedude.io;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Big-endian read cursor over a {@link ByteBuffer}.
+ * <br>
+ * Reads are performed with absolute {@link ByteBuffer} accesses, so heap and direct buffers are both supported
+ * and the position of the given buffer is never changed. Reads past the limit of the cursor throw
+ * {@link EOFException}. Child cursors created by {@link #fork()} and {@link #slice(int)} share the underlying
+ * content, so no bytes are copied.
+ * <br>
+ * Indices given to and returned by {@link #getIndex()}, {@link #moveTo(int)} and the absolute {@code get} methods
+ * are relative to the origin of the cursor. Indices used by {@link #getAbsoluteIndex()} and {@link #moveToAbsolute(int)}
+ * are relative to the start of the root cursor.
+ *
+ * @author Matt Coley
+ */
+public final class ByteCursor {
+	private final ByteBuffer buffer;
+	private final int origin;
+	private final int limit;
+	private int pos;
+
+	/**
+	 * New cursor wrapping the given array.
+	 *
+	 * @param data
+	 * 		Data to read from.
+	 */
+	public ByteCursor(@Nonnull byte[] data) {
+		this(ByteBuffer.wrap(data), 0, data.length);
+	}
+
+	/**
+	 * New cursor over the remaining content of the given buffer.
+	 * The position and limit of the given buffer are not modified.
+	 *
+	 * @param buffer
+	 * 		Data to read from.
+	 */
+	public ByteCursor(@Nonnull ByteBuffer buffer) {
+		this(buffer.slice().order(ByteOrder.BIG_ENDIAN), 0, buffer.remaining());
+	}
+
+	private ByteCursor(@Nonnull ByteBuffer buffer, int origin, int limit) {
+		this.buffer = buffer;
+		this.origin = origin;
+		this.limit = limit;
+		this.pos = origin;
+	}
+
+	/**
+	 * @return New cursor starting at the current position, with the same limit as this cursor.
+	 * Reading from it does not move this cursor.
+	 */
+	@Nonnull
+	public ByteCursor fork() {
+		return new ByteCursor(buffer, pos, limit);
+	}
+
+	/**
+	 * @param length
+	 * 		Length of content to cover.
+	 *
+	 * @return New cursor starting at the current position, limited to the given length.
+	 * Reading from it does not move this cursor.
+	 *
+	 * @throws EOFException
+	 * 		When the length exceeds the remaining content of this cursor.
+	 */
+	@Nonnull
+	public ByteCursor slice(int length) throws EOFException {
+		if (length < 0 || length > limit - pos)
+			throw new EOFException("Slice of " + length + " bytes exceeds remaining " + remaining() + " bytes");
+		return new ByteCursor(buffer, pos, pos + length);
+	}
+
+	/**
+	 * @return Current input index, relative to the origin of this cursor.
+	 */
+	public int getIndex() {
+		return pos - origin;
+	}
+
+	/**
+	 * @return Current input index, relative to the start of the root cursor.
+	 */
+	public int getAbsoluteIndex() {
+		return pos;
+	}
+
+	/**
+	 * @param index
+	 * 		Position to seek to, relative to the origin of this cursor.
+	 */
+	public void moveTo(int index) {
+		pos = origin + index;
+	}
+
+	/**
+	 * @param index
+	 * 		Position to seek to, relative to the start of the root cursor.
+	 */
+	public void moveToAbsolute(int index) {
+		pos = index;
+	}
+
+	/**
+	 * @return Number of bytes between the current position and the limit.
+	 */
+	public int remaining() {
+		return Math.max(0, limit - pos);
+	}
+
+	/**
+	 * Skips over content, stopping early at the limit. Follows the same contract as {@link java.io.DataInput#skipBytes(int)}.
+	 *
+	 * @param count
+	 * 		Number of bytes to skip.
+	 *
+	 * @return Number of bytes skipped.
+	 */
+	public int skipBytes(int count) {
+		int skipped = Math.max(0, Math.min(count, limit - pos));
+		pos += skipped;
+		return skipped;
+	}
+
+	/**
+	 * @return Next byte.
+	 *
+	 * @throws EOFException
+	 * 		When the limit has been reached.
+	 */
+	public byte readByte() throws EOFException {
+		return buffer.get(advance(1));
+	}
+
+	/**
+	 * @return Next byte, as an unsigned value.
+	 *
+	 * @throws EOFException
+	 * 		When the limit has been reached.
+	 */
+	public int readUnsignedByte() throws EOFException {
+		return buffer.get(advance(1)) & 0xFF;
+	}
+
+	/**
+	 * @return Next two bytes, as a signed value.
+	 *
+	 * @throws EOFException
+	 * 		When the limit has been reached.
+	 */
+	public short readShort() throws EOFException {
+		return buffer.getShort(advance(2));
+	}
+
+	/**
+	 * @return Next two bytes, as an unsigned value.
+	 *
+	 * @throws EOFException
+	 * 		When the limit has been reached.
+	 */
+	public int readUnsignedShort() throws EOFException {
+		return buffer.getShort(advance(2)) & 0xFFFF;
+	}
+
+	/**
+	 * @return Next four bytes.
+	 *
+	 * @throws EOFException
+	 * 		When the limit has been reached.
+	 */
+	public int readInt() throws EOFException {
+		return buffer.getInt(advance(4));
+	}
+
+	/**
+	 * @return Next eight bytes.
+	 *
+	 * @throws EOFException
+	 * 		When the limit has been reached.
+	 */
+	public long readLong() throws EOFException {
+		return buffer.getLong(advance(8));
+	}
+
+	/**
+	 * @return Next four bytes, as a float.
+	 *
+	 * @throws EOFException
+	 * 		When the limit has been reached.
+	 */
+	public float readFloat() throws EOFException {
+		return buffer.getFloat(advance(4));
+	}
+
+	/**
+	 * @return Next eight bytes, as a double.
+	 *
+	 * @throws EOFException
+	 * 		When the limit has been reached.
+	 */
+	public double readDouble() throws EOFException {
+		return buffer.getDouble(advance(8));
+	}
+
+	/**
+	 * @param dest
+	 * 		Array to fill with the next bytes.
+	 *
+	 * @throws EOFException
+	 * 		When there are fewer remaining bytes than the length of the array.
+	 */
+	public void readFully(@Nonnull byte[] dest) throws EOFException {
+		buffer.get(advance(dest.length), dest);
+	}
+
+	/**
+	 * @param index
+	 * 		Position to read from, relative to the origin of this cursor.
+	 *
+	 * @return Byte at the position, as an unsigned value.
+	 *
+	 * @throws EOFException
+	 * 		When the position is out of bounds.
+	 */
+	public int getUnsignedByte(int index) throws EOFException {
+		return buffer.get(check(index, 1)) & 0xFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Position to read from, relative to the origin of this cursor.
+	 *
+	 * @return Two bytes at the position, as an unsigned value.
+	 *
+	 * @throws EOFException
+	 * 		When the position is out of bounds.
+	 */
+	public int getUnsignedShort(int index) throws EOFException {
+		return buffer.getShort(check(index, 2)) & 0xFFFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Position to read from, relative to the origin of this cursor.
+	 *
+	 * @return Four bytes at the position.
+	 *
+	 * @throws EOFException
+	 * 		When the position is out of bounds.
+	 */
+	public int getInt(int index) throws EOFException {
+		return buffer.getInt(check(index, 4));
+	}
+
+	/**
+	 * @param from
+	 * 		Start of the range, inclusive, relative to the origin of this cursor.
+	 * @param to
+	 * 		End of the range, exclusive, relative to the origin of this cursor.
+	 *
+	 * @return Copy of the content in the range.
+	 *
+	 * @throws EOFException
+	 * 		When the range is out of bounds.
+	 */
+	@Nonnull
+	public byte[] copyRange(int from, int to) throws EOFException {
+		byte[] copy = new byte[Math.max(0, to - from)];
+		buffer.get(check(from, copy.length), copy);
+		return copy;
+	}
+
+	/**
+	 * @param from
+	 * 		Start of the range, inclusive, relative to the origin of this cursor.
+	 * @param to
+	 * 		End of the range, exclusive, relative to the origin of this cursor.
+	 *
+	 * @return Read-only view of the content in the range. No bytes are copied.
+	 *
+	 * @throws EOFException
+	 * 		When the range is out of bounds.
+	 */
+	@Nonnull
+	public ByteBuffer view(int from, int to) throws EOFException {
+		int length = Math.max(0, to - from);
+		return buffer.slice(check(from, length), length).asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return Array backing the cursor content, or {@code null} if the content is not backed by an accessible array.
+	 *
+	 * @see #arrayOffset()
+	 */
+	@Nullable
+	public byte[] array() {
+		return buffer.hasArray() ? buffer.array() : null;
+	}
+
+	/**
+	 * @return Offset of absolute index {@code 0} within {@link #array()}.
+	 */
+	public int arrayOffset() {
+		return buffer.hasArray() ? buffer.arrayOffset() : 0;
+	}
+
+	private int advance(int size) throws EOFException {
+		int p = pos;
+		if (p < 0 || size > limit - p)
+			throw new EOFException();
+		pos = p + size;
+		return p;
+	}
+
+	private int check(int index, int size) throws EOFException {
+		int p = origin + index;
+		if (index < 0 || size > limit - p)
+			throw new EOFException();
+		return p;
+	}
+}
@@ -22,16 +22,18 @@
  * @author Matt Coley
  */
 public class ClassBuilder {
-	private final List<Attribute> attributes = new ArrayList<>();
 	private final List<CpClass> interfaces = new ArrayList<>();
-	private final List<Field> fields = new ArrayList<>();
-	private final List<Method> methods = new ArrayList<>();
+	private List<Attribute> attributes = new ArrayList<>();
+	private List<Field> fields = new ArrayList<>();
+	private List<Method> methods = new ArrayList<>();
 	private ConstPool pool = new ConstPool();
 	private int versionMajor;
 	private int versionMinor;
 	private int access;
 	private CpClass thisClass = Placeholders.CLASS;
 	private CpClass superClass = Placeholders.CLASS;
+	private ConstPool sourcePool;
+	private int sourceRevision;
 
 	/**
 	 * @return {@code true} when the version pattern indicates a pre-java Oak class.
@@ -70,6 +72,32 @@ public void setConstPool(@Nonnull ConstPool pool) {
 		this.pool = pool;
 	}
 
+	/**
+	 * @return Pool of the class being read when this builder reads deferred content against a snapshot of it,
+	 * otherwise {@code null}.
+	 */
+	@Nullable
+	ConstPool getSourcePool() {
+		return sourcePool;
+	}
+
+	/**
+	 * @return {@link ConstPool#getRevision() Revision} of the {@link #getSourcePool() source pool}
+	 * when the snapshot was taken.
+	 */
+	int getSourceRevision() {
+		return sourceRevision;
+	}
+
+	/**
+	 * @param sourcePool
+	 * 		Pool of the class being read, which this builder's pool is a snapshot of.
+	 */
+	void setSourcePool(@Nonnull ConstPool sourcePool) {
+		this.sourcePool = sourcePool;
+		this.sourceRevision = sourcePool.getRevision();
+	}
+
 	/**
 	 * @return Major version.
 	 */
@@ -163,6 +191,30 @@ public void addAttribute(@Nonnull Attribute attribute) {
 		attributes.add(attribute);
 	}
 
+	/**
+	 * @param fields
+	 * 		New list of declared fields.
+	 */
+	public void setFields(@Nonnull List<Field> fields) {
+		this.fields = fields;
+	}
+
+	/**
+	 * @param methods
+	 * 		New list of declared methods.
+	 */
+	public void setMethods(@Nonnull List<Method> methods) {
+		this.methods = methods;
+	}
+
+	/**
+	 * @param attributes
+	 * 		New list of attributes.
+	 */
+	public void setAttributes(@Nonnull List<Attribute> attributes) {
+		this.attributes = attributes;
+	}
+
 	/**
 	 * @return List of interfaces implemented.
 	 */
@@ -1,43 +1,36 @@
 package software.coley.cafedude.io;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.coley.cafedude.InvalidClassException;
 import software.coley.cafedude.classfile.ClassFile;
 import software.coley.cafedude.classfile.ConstPool;
-import software.coley.cafedude.classfile.ConstantPoolConstants;
 import software.coley.cafedude.classfile.Field;
 import software.coley.cafedude.classfile.Method;
 import software.coley.cafedude.classfile.attribute.Attribute;
-import software.coley.cafedude.classfile.constant.ConstDynamic;
-import software.coley.cafedude.classfile.constant.ConstRef;
+import software.coley.cafedude.classfile.attribute.CodeAttribute;
 import software.coley.cafedude.classfile.constant.CpClass;
-import software.coley.cafedude.classfile.constant.CpDouble;
-import software.coley.cafedude.classfile.constant.CpDynamic;
 import software.coley.cafedude.classfile.constant.CpEntry;
-import software.coley.cafedude.classfile.constant.CpFieldRef;
-import software.coley.cafedude.classfile.constant.CpFloat;
-import software.coley.cafedude.classfile.constant.CpInt;
-import software.coley.cafedude.classfile.constant.CpInterfaceMethodRef;
-import software.coley.cafedude.classfile.constant.CpInvokeDynamic;
-import software.coley.cafedude.classfile.constant.CpLong;
-import software.coley.cafedude.classfile.constant.CpMethodHandle;
-import software.coley.cafedude.classfile.constant.CpMethodRef;
-import software.coley.cafedude.classfile.constant.CpMethodType;
-import software.coley.cafedude.classfile.constant.CpModule;
-import software.coley.cafedude.classfile.constant.CpNameType;
-import software.coley.cafedude.classfile.constant.CpPackage;
-import software.coley.cafedude.classfile.constant.CpString;
 import software.coley.cafedude.classfile.constant.CpUtf8;
 import software.coley.cafedude.classfile.constant.Placeholders;
+import software.coley.cafedude.classfile.instruction.BasicInstruction;
+import software.coley.cafedude.classfile.instruction.Instruction;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Class file format parser.
+ * <br>
+ * Reading keeps all parse state local to each call. Once configured, a single reader may be shared by multiple threads.
  *
  * @author Matt Coley
  * @see ClassFile Parsed class representation.
@@ -45,15 +38,25 @@
  */
 public class ClassFileReader {
 	private static final Logger logger = LoggerFactory.getLogger(ClassFileReader.class);
-	private IndexableByteStream is;
 	// config
 	private boolean dropForwardVersioned = true;
 	private boolean dropBadContextAttributes = true;
 	private boolean dropEofAttributes = true;
 	private boolean dropDupeAnnotations = true;
 	private boolean checkCodeLength = true;
+	private boolean lazyParsing;
+	private boolean passThroughUntouched;
+	private boolean shareBasicInstructions = true;
+	private boolean skipDebug;
+	private boolean skipCode;
+	private boolean skipAnnotations;
 
 	/**
+	 * Outside of {@link #doLazyParsing() lazy parsing mode} the parsed class holds no reference to the given array,
+	 * so it may be reused or modified once this returns. In lazy parsing mode the parsed class decodes content from
+	 * the array on demand, and copies untouched parts of it when written. The array must then not be modified for
+	 * as long as the parsed class is in use.
+	 *
 	 * @param code
 	 * 		Class bytecode to read.
 	 *
@@ -64,10 +67,64 @@ public class ClassFileReader {
 	 */
 	@Nonnull
 	public ClassFile read(@Nonnull byte[] code) throws InvalidClassException {
-		ClassBuilder builder = new ClassBuilder();
-		try (IndexableByteStream is = new IndexableByteStream(code)) {
-			this.is = is;
+		return read(new ByteCursor(code));
+	}
+
+	/**
+	 * Reads a class from the remaining content of the given buffer, which may be a heap, direct or memory-mapped buffer.
+	 * The position of the buffer is not modified.
+	 * <br>
+	 * As with {@link #read(byte[])}, the parsed class only refers to the buffer's content in
+	 * {@link #doLazyParsing() lazy parsing mode}, in which case the content must not be modified afterwards.
+	 *
+	 * @param buffer
+	 * 		Buffer holding the class bytecode.
+	 *
+	 * @return Parsed class file.
+	 *
+	 * @throws InvalidClassException
+	 * 		When some class reading exception occurs.
+	 */
+	@Nonnull
+	public ClassFile read(@Nonnull ByteBuffer buffer) throws InvalidClassException {
+		return read(new ByteCursor(buffer));
+	}
 
+	/**
+	 * Reads a class by mapping the given file into memory, rather than copying it onto the heap.
+	 *
+	 * @param path
+	 * 		Path of the class file to read.
+	 *
+	 * @return Parsed class file.
+	 *
+	 * @throws IOException
+	 * 		When the file cannot be opened or mapped.
+	 * @throws InvalidClassException
+	 * 		When some class reading exception occurs.
+	 */
+	@Nonnull
+	public ClassFile read(@Nonnull Path path) throws IOException, InvalidClassException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		return read(buffer);
+	}
+
+	/**
+	 * @param is
+	 * 		Cursor over the class bytecode.
+	 *
+	 * @return Parsed class file.
+	 *
+	 * @throws InvalidClassException
+	 * 		When some class reading exception occurs.
+	 */
+	@Nonnull
+	private ClassFile read(@Nonnull ByteCursor is) throws InvalidClassException {
+		ClassBuilder builder = new ClassBuilder();
+		try {
 			// Read magic header
 			if (is.readInt() != 0xCAFEBABE)
 				throw new InvalidClassException("Does not start with 0xCAFEBABE");
@@ -78,28 +135,11 @@ public ClassFile read(@Nonnull byte[] code) throws InvalidClassException {
 
 			// Constant pool
 			int numConstants = is.readUnsignedShort();
-			int start = is.getIndex();
 			ConstPool constPool = builder.getPool();
-
-			// First pass: Populate entries with placeholder references
-			for (int i = 1; i < numConstants; i++) {
-				CpEntry entry = readPoolEntryBasic();
-				constPool.add(entry);
-				if (entry.isWide())
-					i++;
-			}
-
-			// Rewind
-			int diff = is.getIndex() - start;
-			is.moveBack(diff);
-
-			// Second pass: Fill entries with references to items in our pool
-			for (int i = 1; i < numConstants; i++) {
-				CpEntry entry = constPool.get(i);
-				readPoolEntryResolve(constPool, entry);
-				if (entry.isWide())
-					i++;
-			}
+			ConstPoolReader poolReader = new ConstPoolReader(is, numConstants, lazyParsing);
+			poolReader.scan();
+			poolReader.readInto(constPool);
+			constPool.setEncoded(poolReader.getEncoded());
 
 			// Flags
 			builder.setAccess(is.readUnsignedShort());
@@ -113,26 +153,26 @@ public ClassFile read(@Nonnull byte[] code) throws InvalidClassException {
 			for (int i = 0; i < numInterfaces; i++)
 				builder.addInterface((CpClass) constPool.get(is.readUnsignedShort()));
 
-			// Fields
-			int numFields = is.readUnsignedShort();
-			for (int i = 0; i < numFields; i++)
-				builder.addField(readField(builder));
-
-			// Methods
-			int numMethods = is.readUnsignedShort();
-			for (int i = 0; i < numMethods; i++)
-				builder.addMethod(readMethod(builder));
-
-			// Attributes
-			int numAttributes = is.readUnsignedShort();
-			for (int i = 0; i < numAttributes; i++) {
-				Attribute attr = AttributeReader.readAttribute(this, builder, is, new AttributeContext(AttributeHolderType.CLASS, 0));
-				if (attr != null)
-					builder.addAttribute(attr);
+			// Fields, methods and attributes.
+			// When lazy parsing is enabled and the declared table sizes line up with the end of the class,
+			// these are skipped over and decoded against a snapshot of the pool when first accessed.
+			MemberTables tables = lazyParsing ? scanMembers(builder, is) : null;
+			if (tables != null) {
+				ClassBuilder deferredBuilder = newDeferredBuilder(builder);
+				builder.setFields(readFields(deferredBuilder, is, tables.fields()));
+				builder.setMethods(readMethods(deferredBuilder, is, tables.methods()));
+				builder.setAttributes(readAttributes(deferredBuilder, is,
+						new AttributeContext(AttributeHolderType.CLASS, 0), tables.attributes()));
+			} else {
+				builder.setFields(readFields(builder, is, null));
+				builder.setMethods(readMethods(builder, is, null));
+				builder.setAttributes(readAttributes(builder, is,
+						new AttributeContext(AttributeHolderType.CLASS, 0), null));
 			}
 
-			// Prune garbage that wasn't parsed properly in the second pass
+			// Prune garbage that could not be resolved when reading the pool, in a single compaction pass
 			// - A CpClass that holds a bogus index pointing to a CpInt for instance
+			// - Removals also discard the encoded pool content, so the pruned entries are never written back out
 			constPool.removeIf(Placeholders::containsPlaceholder);
 
 			return builder.build();
@@ -146,188 +186,119 @@ public ClassFile read(@Nonnull byte[] code) throws InvalidClassException {
 	}
 
 	/**
-	 * @return Constant pool entry.
+	 * @param builder
+	 * 		Class being built/read.
+	 * @param is
+	 * 		Cursor positioned at the field table.
+	 * @param bounds
+	 * 		Bounds of the table to skip over and decode on first access, or {@code null} to decode it now.
+	 *
+	 * @return Field members.
 	 *
 	 * @throws IOException
 	 * 		When the stream is unexpectedly closed or ends.
-	 * @throws InvalidClassException
-	 * 		An unknown attribute is present.
 	 */
 	@Nonnull
-	private CpEntry readPoolEntryBasic() throws IOException, InvalidClassException {
-		int tag = is.readUnsignedByte();
-		switch (tag) {
-			case ConstantPoolConstants.UTF8:
-				return new CpUtf8(is.readUTF());
-			case ConstantPoolConstants.INTEGER:
-				return new CpInt(is.readInt());
-			case ConstantPoolConstants.FLOAT:
-				return new CpFloat(is.readFloat());
-			case ConstantPoolConstants.LONG:
-				return new CpLong(is.readLong());
-			case ConstantPoolConstants.DOUBLE:
-				return new CpDouble(is.readDouble());
-			case ConstantPoolConstants.STRING:
-				is.readUnsignedShort();
-				return new CpString(Placeholders.UTF8);
-			case ConstantPoolConstants.CLASS:
-				is.readUnsignedShort();
-				return new CpClass(Placeholders.UTF8);
-			case ConstantPoolConstants.FIELD_REF:
-				is.readUnsignedShort();
-				is.readUnsignedShort();
-				return new CpFieldRef(Placeholders.CLASS, Placeholders.NAME_TYPE);
-			case ConstantPoolConstants.METHOD_REF:
-				is.readUnsignedShort();
-				is.readUnsignedShort();
-				return new CpMethodRef(Placeholders.CLASS, Placeholders.NAME_TYPE);
-			case ConstantPoolConstants.INTERFACE_METHOD_REF:
-				is.readUnsignedShort();
-				is.readUnsignedShort();
-				return new CpInterfaceMethodRef(Placeholders.CLASS, Placeholders.NAME_TYPE);
-			case ConstantPoolConstants.NAME_TYPE:
-				is.readUnsignedShort();
-				is.readUnsignedShort();
-				return new CpNameType(Placeholders.UTF8, Placeholders.UTF8);
-			case ConstantPoolConstants.DYNAMIC:
-				int bsmIndex = is.readUnsignedShort();
-				is.readUnsignedShort();
-				return new CpDynamic(bsmIndex, Placeholders.NAME_TYPE);
-			case ConstantPoolConstants.METHOD_HANDLE:
-				byte refKind = is.readByte();
-				is.readUnsignedShort();
-				return new CpMethodHandle(refKind, Placeholders.CONST_REF);
-			case ConstantPoolConstants.METHOD_TYPE:
-				is.readUnsignedShort();
-				return new CpMethodType(Placeholders.UTF8);
-			case ConstantPoolConstants.INVOKE_DYNAMIC:
-				int bsmIndex2 = is.readUnsignedShort();
-				is.readUnsignedShort();
-				return new CpInvokeDynamic(bsmIndex2, Placeholders.NAME_TYPE);
-			case ConstantPoolConstants.MODULE:
-				is.readUnsignedShort();
-				return new CpModule(Placeholders.UTF8);
-			case ConstantPoolConstants.PACKAGE:
-				is.readUnsignedShort();
-				return new CpPackage(Placeholders.UTF8);
-			default:
-				throw new InvalidClassException("Unknown constant-pool tag: " + tag);
-		}
+	private List<Field> readFields(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                               @Nullable TableBounds bounds) throws IOException {
+		if (bounds != null)
+			return deferTable(builder, is, bounds, tableCursor -> readFieldTable(builder, tableCursor, true));
+		return readFieldTable(builder, is, false);
 	}
 
-	private void readPoolEntryResolve(@Nonnull ConstPool constPool, @Nonnull CpEntry entry)
-			throws IOException, InvalidClassException {
-		int tag = entry.getTag();
-		if (tag != is.readUnsignedByte())
-			throw new InvalidClassException("Constant pool tag mismatch");
-		switch (tag) {
-			case ConstantPoolConstants.UTF8:
-				is.readUTF();
-				break;
-			case ConstantPoolConstants.INTEGER:
-				is.readInt();
-				break;
-			case ConstantPoolConstants.FLOAT:
-				is.readFloat();
-				break;
-			case ConstantPoolConstants.LONG:
-				is.readLong();
-				break;
-			case ConstantPoolConstants.DOUBLE:
-				is.readDouble();
-				break;
-			case ConstantPoolConstants.STRING: {
-				CpEntry param = constPool.get(is.readUnsignedShort());
-				if (entry instanceof CpString string && param instanceof CpUtf8 utf8)
-					string.setString(utf8);
-				break;
-			}
-			case ConstantPoolConstants.CLASS: {
-				CpEntry param = constPool.get(is.readUnsignedShort());
-				if (entry instanceof CpClass clazz && param instanceof CpUtf8 utf8)
-					clazz.setName(utf8);
-				break;
-			}
-			case ConstantPoolConstants.FIELD_REF:
-			case ConstantPoolConstants.METHOD_REF:
-			case ConstantPoolConstants.INTERFACE_METHOD_REF: {
-				CpEntry param1 = constPool.get(is.readUnsignedShort());
-				CpEntry param2 = constPool.get(is.readUnsignedShort());
-				if (entry instanceof ConstRef ref && param1 instanceof CpClass clazz && param2 instanceof CpNameType nameType) {
-					ref.setClassRef(clazz);
-					ref.setNameType(nameType);
-				}
-				break;
-			}
-			case ConstantPoolConstants.NAME_TYPE: {
-				CpEntry param1 = constPool.get(is.readUnsignedShort());
-				CpEntry param2 = constPool.get(is.readUnsignedShort());
-				if (entry instanceof CpNameType nameType && param1 instanceof CpUtf8 name && param2 instanceof CpUtf8 type) {
-					nameType.setName(name);
-					nameType.setType(type);
-				}
-				break;
-			}
-			case ConstantPoolConstants.DYNAMIC:
-			case ConstantPoolConstants.INVOKE_DYNAMIC: {
-				is.readUnsignedShort();
-				CpEntry param = constPool.get(is.readUnsignedShort());
-				if (entry instanceof ConstDynamic dynamic && param instanceof CpNameType nameType)
-					dynamic.setNameType(nameType);
-				break;
-			}
-			case ConstantPoolConstants.METHOD_HANDLE: {
-				is.readByte();
-				CpEntry param = constPool.get(is.readUnsignedShort());
-				if (entry instanceof CpMethodHandle methodHandle && param instanceof ConstRef ref)
-					methodHandle.setReference(ref);
-				break;
-			}
-			case ConstantPoolConstants.METHOD_TYPE: {
-				CpEntry param = constPool.get(is.readUnsignedShort());
-				if (entry instanceof CpMethodType methodType && param instanceof CpUtf8 type)
-					methodType.setDescriptor(type);
-				break;
-			}
-			case ConstantPoolConstants.MODULE: {
-				CpEntry param = constPool.get(is.readUnsignedShort());
-				if (entry instanceof CpModule module && param instanceof CpUtf8 name)
-					module.setName(name);
-				break;
-			}
-			case ConstantPoolConstants.PACKAGE: {
-				CpEntry param = constPool.get(is.readUnsignedShort());
-				if (entry instanceof CpPackage pkg && param instanceof CpUtf8 name)
-					pkg.setPackageName(name);
-				break;
-			}
-			default:
-				throw new IOException("Unknown CP tag: " + tag);
-		}
+	@Nonnull
+	private List<Field> readFieldTable(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                                   boolean deferred) throws IOException {
+		int numFields = is.readUnsignedShort();
+		List<Field> fields = new ArrayList<>(numFields);
+		for (int i = 0; i < numFields; i++)
+			fields.add(readField(builder, is, deferred));
+		return fields;
 	}
 
 	/**
 	 * @param builder
 	 * 		Class being built/read.
+	 * @param is
+	 * 		Cursor positioned at the method table.
+	 * @param bounds
+	 * 		Bounds of the table to skip over and decode on first access, or {@code null} to decode it now.
 	 *
-	 * @return Field member.
+	 * @return Method members.
 	 *
 	 * @throws IOException
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	@Nonnull
-	private Field readField(@Nonnull ClassBuilder builder) throws IOException {
-		int access = is.readUnsignedShort();
-		int nameIndex = is.readUnsignedShort();
-		int descIndex = is.readUnsignedShort();
-		int numAttributes = is.readUnsignedShort();
+	private List<Method> readMethods(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                                 @Nullable TableBounds bounds) throws IOException {
+		if (bounds != null)
+			return deferTable(builder, is, bounds, tableCursor -> readMethodTable(builder, tableCursor, true));
+		return readMethodTable(builder, is, false);
+	}
 
+	@Nonnull
+	private List<Method> readMethodTable(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                                     boolean deferred) throws IOException {
+		int numMethods = is.readUnsignedShort();
+		List<Method> methods = new ArrayList<>(numMethods);
+		for (int i = 0; i < numMethods; i++)
+			methods.add(readMethod(builder, is, deferred));
+		return methods;
+	}
+
+	/**
+	 * @param builder
+	 * 		Class being built/read.
+	 * @param is
+	 * 		Cursor positioned at the attribute table.
+	 * @param context
+	 * 		Where the attributes are applied to.
+	 * @param bounds
+	 * 		Bounds of the table to skip over and decode on first access, or {@code null} to decode it now.
+	 *
+	 * @return Attributes.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 */
+	@Nonnull
+	private List<Attribute> readAttributes(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                                       @Nonnull AttributeContext context, @Nullable TableBounds bounds) throws IOException {
+		if (bounds != null)
+			return deferTable(builder, is, bounds, tableCursor -> readAttributes(builder, tableCursor, context, null));
+		int numAttributes = is.readUnsignedShort();
 		List<Attribute> attributes = new ArrayList<>(numAttributes);
 		for (int i = 0; i < numAttributes; i++) {
-			Attribute attr = AttributeReader.readAttribute(this, builder, is, new AttributeContext(AttributeHolderType.FIELD, access));
+			Attribute attr = AttributeReader.readAttribute(this, builder, is, context);
 			if (attr != null)
 				attributes.add(attr);
 		}
+		return attributes;
+	}
+
+	/**
+	 * @param builder
+	 * 		Class being built/read.
+	 * @param is
+	 * 		Cursor positioned at the field.
+	 * @param deferred
+	 * 		{@code true} to skip over the field's attributes and decode them on first access.
+	 *
+	 * @return Field member.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 */
+	@Nonnull
+	private Field readField(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                        boolean deferred) throws IOException {
+		int access = is.readUnsignedShort();
+		int nameIndex = is.readUnsignedShort();
+		int descIndex = is.readUnsignedShort();
+		AttributeContext context = new AttributeContext(AttributeHolderType.FIELD, access);
+		List<Attribute> attributes = readAttributes(builder, is, context,
+				deferred ? skipAttributes(builder, is.fork(), context) : null);
 
 		CpEntry nameEntry = builder.getPool().get(nameIndex);
 		CpEntry descEntry = builder.getPool().get(descIndex);
@@ -339,6 +310,10 @@ private Field readField(@Nonnull ClassBuilder builder) throws IOException {
 	/**
 	 * @param builder
 	 * 		Class being built/read.
+	 * @param is
+	 * 		Cursor positioned at the method.
+	 * @param deferred
+	 * 		{@code true} to skip over the method's attributes and decode them on first access.
 	 *
 	 * @return Method member.
 	 *
@@ -346,18 +321,14 @@ private Field readField(@Nonnull ClassBuilder builder) throws IOException {
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	@Nonnull
-	private Method readMethod(@Nonnull ClassBuilder builder) throws IOException {
+	private Method readMethod(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                          boolean deferred) throws IOException {
 		int access = is.readUnsignedShort();
 		int nameIndex = is.readUnsignedShort();
 		int descIndex = is.readUnsignedShort();
-		int numAttributes = is.readUnsignedShort();
-
-		List<Attribute> attributes = new ArrayList<>(numAttributes);
-		for (int i = 0; i < numAttributes; i++) {
-			Attribute attr = AttributeReader.readAttribute(this, builder, is, new AttributeContext(AttributeHolderType.METHOD, access));
-			if (attr != null)
-				attributes.add(attr);
-		}
+		AttributeContext context = new AttributeContext(AttributeHolderType.METHOD, access);
+		List<Attribute> attributes = readAttributes(builder, is, context,
+				deferred ? skipAttributes(builder, is.fork(), context) : null);
 
 		CpEntry nameEntry = builder.getPool().get(nameIndex);
 		CpEntry descEntry = builder.getPool().get(descIndex);
@@ -366,6 +337,162 @@ private Method readMethod(@Nonnull ClassBuilder builder) throws IOException {
 		throw new IOException("Method name/type index do not point to UTF8 values: " + nameIndex + "/" + descIndex);
 	}
 
+	/**
+	 * Deferred tables that are never accessed can be written back out by copying their original bytes,
+	 * rather than being decoded and re-encoded. This is only done when {@link #doPassThroughUntouched() enabled},
+	 * no attributes are configured to be skipped, the pool has no placeholders, and skipping over the table found
+	 * no attribute that would be dropped by its name or location.
+	 *
+	 * @param builder
+	 * 		Builder used to decode deferred content.
+	 * @param retained
+	 * 		{@code true} when skipping over the table found no attributes that would be dropped.
+	 *
+	 * @return Pool the original bytes of deferred tables refer to, or {@code null} if they cannot be copied as-is.
+	 */
+	@Nullable
+	private ConstPool getPassThroughPool(@Nonnull ClassBuilder builder, boolean retained) {
+		if (!passThroughUntouched || !retained || skipDebug || skipCode || skipAnnotations)
+			return null;
+		return builder.getSourcePool();
+	}
+
+	/**
+	 * Walks over the field, method and attribute tables using only their declared lengths.
+	 * The cursor position is left unchanged.
+	 *
+	 * @param builder
+	 * 		Class being built/read, to check skipped attributes against.
+	 * @param is
+	 * 		Cursor positioned at the field table.
+	 *
+	 * @return Bounds of each table when they end exactly at the end of the class, meaning they can be
+	 * skipped over and decoded later. {@code null} when the declared lengths are not trustworthy.
+	 */
+	@Nullable
+	private MemberTables scanMembers(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is) {
+		ByteCursor scanner = is.fork();
+		try {
+			TableBounds fields = skipMembers(builder, scanner, AttributeHolderType.FIELD);
+			TableBounds methods = skipMembers(builder, scanner, AttributeHolderType.METHOD);
+			TableBounds attributes = skipAttributes(builder, scanner, new AttributeContext(AttributeHolderType.CLASS, 0));
+			return scanner.remaining() == 0 ? new MemberTables(fields, methods, attributes) : null;
+		} catch (IOException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param builder
+	 * 		Class being built/read.
+	 * @param is
+	 * 		Cursor positioned at the start of a table. Moved to the end of the table.
+	 * @param bounds
+	 * 		Bounds of the table.
+	 * @param reader
+	 * 		Function to decode the table from a cursor positioned at its start.
+	 * @param <T>
+	 * 		Table item type.
+	 *
+	 * @return List that decodes the table on first access.
+	 *
+	 * @throws IOException
+	 * 		When the table bounds are outside the class.
+	 */
+	@Nonnull
+	private <T> List<T> deferTable(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                               @Nonnull TableBounds bounds, @Nonnull TableReader<T> reader) throws IOException {
+		ByteCursor tableCursor = is.fork();
+		is.moveToAbsolute(bounds.end());
+		return new LazyList<>(() -> reader.read(tableCursor),
+				tableCursor.view(0, bounds.end() - tableCursor.getAbsoluteIndex()), getPassThroughPool(builder, bounds.retained()));
+	}
+
+	/**
+	 * @param builder
+	 * 		Class being built/read, to check skipped attributes against.
+	 * @param is
+	 * 		Cursor positioned at a field or method table. Moved to the end of the table.
+	 * @param type
+	 * 		Type of members in the table.
+	 *
+	 * @return Bounds of the table.
+	 *
+	 * @throws IOException
+	 * 		When the table runs beyond the end of the class.
+	 */
+	@Nonnull
+	private TableBounds skipMembers(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                            @Nonnull AttributeHolderType type) throws IOException {
+		boolean retained = true;
+		int numMembers = is.readUnsignedShort();
+		for (int i = 0; i < numMembers; i++) {
+			// u2: access, u2: name_index, u2: descriptor_index
+			int access = is.readUnsignedShort();
+			is.moveTo(is.getIndex() + 4);
+			retained &= skipAttributes(builder, is, new AttributeContext(type, access)).retained();
+		}
+		return new TableBounds(is.getAbsoluteIndex(), retained);
+	}
+
+	/**
+	 * @param builder
+	 * 		Class being built/read, to check skipped attributes against.
+	 * @param is
+	 * 		Cursor positioned at an attribute table. Moved to the end of the table.
+	 * @param context
+	 * 		Where the attributes are applied to.
+	 *
+	 * @return Bounds of the table.
+	 *
+	 * @throws IOException
+	 * 		When the table runs beyond the end of the class.
+	 */
+	@Nonnull
+	private TableBounds skipAttributes(@Nonnull ClassBuilder builder, @Nonnull ByteCursor is,
+	                               @Nonnull AttributeContext context) throws IOException {
+		boolean retained = true;
+		int numAttributes = is.readUnsignedShort();
+		for (int i = 0; i < numAttributes; i++) {
+			// u2: name_index, u4: length
+			int nameIndex = is.readUnsignedShort();
+			int attributeLength = is.readInt();
+			if (attributeLength < 0 || attributeLength > is.remaining())
+				throw new IOException("Attribute length exceeds class bounds: " + attributeLength);
+			if (retained && passThroughUntouched)
+				retained = AttributeReader.isRetainedByHeader(this, builder, nameIndex, context);
+			is.moveTo(is.getIndex() + attributeLength);
+		}
+		return new TableBounds(is.getAbsoluteIndex(), retained);
+	}
+
+	/**
+	 * Deferred content is decoded after {@link #read(byte[])} returns, at which point the class's pool may have
+	 * been pruned or modified. Decoding against a copy of the pool as it was when the class was read ensures
+	 * indices resolve to the same entries they would have during eager parsing.
+	 *
+	 * @param builder
+	 * 		Class being built/read.
+	 *
+	 * @return Builder to decode deferred content with.
+	 */
+	@Nonnull
+	private static ClassBuilder newDeferredBuilder(@Nonnull ClassBuilder builder) {
+		ConstPool pool = new ConstPool();
+		pool.addAll(builder.getPool());
+		ClassBuilder deferredBuilder = new ClassBuilder();
+		deferredBuilder.setConstPool(pool);
+
+		// Method code can also be deferred, but doing so skips checking if the code refers to placeholder entries.
+		// So it is only done when the pool has none.
+		if (pool.stream().noneMatch(Placeholders::containsPlaceholder))
+			deferredBuilder.setSourcePool(builder.getPool());
+		deferredBuilder.setVersionMinor(builder.getVersionMinor());
+		deferredBuilder.setVersionMajor(builder.getVersionMajor());
+		deferredBuilder.setAccess(builder.getAccess());
+		return deferredBuilder;
+	}
+
 	/**
 	 * @return {@code true} if attributes declared from future versions should be removed.
 	 */
@@ -442,6 +569,137 @@ public void setCheckCodeLength(boolean checkCodeLength) {
 		this.checkCodeLength = checkCodeLength;
 	}
 
+	/**
+	 * @return {@code true} to defer decoding of fields, methods and attributes until they are first accessed.
+	 */
+	public boolean doLazyParsing() {
+		return lazyParsing;
+	}
+
+	/**
+	 * Lazy parsing records where each member and attribute table is located, and decodes a table the first time
+	 * its list is accessed. Passes that only look at a few members of a class skip decoding the rest entirely.
+	 * <br>
+	 * Method instructions are also decoded on the first call to {@link CodeAttribute#getInstructions()}.
+	 * Code that is never decoded is written back out as-is. Other tables that are never accessed are still decoded
+	 * when the class is written, unless {@link #setPassThroughUntouched(boolean) pass-through} is enabled.
+	 * Content that turns out to be malformed when it is decoded results in an {@link IllegalStateException}.
+	 * <br>
+	 * Since content is decoded from the input on demand, parsed classes refer to the input given to
+	 * {@link #read(byte[])} and it must not be modified while they are in use. Without lazy parsing,
+	 * the parts of the input that are kept <i>(such as the encoded constant pool)</i> are copied.
+	 *
+	 * @param lazyParsing
+	 *        {@code true} to defer decoding of fields, methods and attributes until they are first accessed.
+	 */
+	public void setLazyParsing(boolean lazyParsing) {
+		this.lazyParsing = lazyParsing;
+	}
+
+	/**
+	 * @return {@code true} to copy tables that are never accessed in {@link #doLazyParsing() lazy parsing mode}
+	 * when writing, rather than decoding and re-encoding them.
+	 */
+	public boolean doPassThroughUntouched() {
+		return passThroughUntouched;
+	}
+
+	/**
+	 * In {@link #doLazyParsing() lazy parsing mode} the field, method and attribute tables that are never accessed
+	 * can be copied verbatim by {@link ClassFileWriter} rather than being decoded and re-encoded. This skips the
+	 * checks made when decoding, such as dropping malformed attributes or duplicate annotations, so it should
+	 * only be enabled for input that is known to be well-formed. Tables with attributes that would be dropped
+	 * based on their name or location alone are still decoded.
+	 * <br>
+	 * Tables are not copied when any attributes are configured to be skipped, or when the constant pool has
+	 * been changed in a way that moves existing entries.
+	 *
+	 * @param passThroughUntouched
+	 *        {@code true} to copy tables that are never accessed in lazy parsing mode when writing.
+	 */
+	public void setPassThroughUntouched(boolean passThroughUntouched) {
+		this.passThroughUntouched = passThroughUntouched;
+	}
+
+	/**
+	 * @return {@code true} to use {@link BasicInstruction#of(int) shared instances} for instructions without operands.
+	 */
+	public boolean doShareBasicInstructions() {
+		return shareBasicInstructions;
+	}
+
+	/**
+	 * Enabled by default. Sharing a single instance per opcode saves memory when reading many methods,
+	 * but changes how the read instructions behave:
+	 * <ul>
+	 *     <li>{@link BasicInstruction#setOpcode(int)} throws on shared instances.</li>
+	 *     <li>Lookups by instance, such as {@link CodeAttribute#indexOf(Instruction)} and
+	 *     {@link CodeAttribute#computeOffsetOf(Instruction)}, resolve to the first occurrence in the method.</li>
+	 *     <li>Instances cannot be told apart as keys of identity based maps.</li>
+	 * </ul>
+	 * Disable it to read a new instance for each occurrence instead.
+	 *
+	 * @param shareBasicInstructions
+	 *        {@code true} to use shared instances for instructions without operands.
+	 */
+	public void setShareBasicInstructions(boolean shareBasicInstructions) {
+		this.shareBasicInstructions = shareBasicInstructions;
+	}
+
+	/**
+	 * @return {@code true} to skip over debug attributes without reading them. This covers
+	 * {@code LineNumberTable}, {@code LocalVariableTable}, {@code LocalVariableTypeTable} and {@code SourceDebugExtension}.
+	 */
+	public boolean doSkipDebug() {
+		return skipDebug;
+	}
+
+	/**
+	 * Skipped attributes are not present in the parsed class, and thus are not written back out.
+	 *
+	 * @param skipDebug
+	 *        {@code true} to skip over debug attributes without reading them.
+	 */
+	public void setSkipDebug(boolean skipDebug) {
+		this.skipDebug = skipDebug;
+	}
+
+	/**
+	 * @return {@code true} to skip over method {@code Code} attributes without reading them.
+	 */
+	public boolean doSkipCode() {
+		return skipCode;
+	}
+
+	/**
+	 * Skipped attributes are not present in the parsed class, and thus are not written back out.
+	 *
+	 * @param skipCode
+	 *        {@code true} to skip over method {@code Code} attributes without reading them.
+	 */
+	public void setSkipCode(boolean skipCode) {
+		this.skipCode = skipCode;
+	}
+
+	/**
+	 * @return {@code true} to skip over annotation attributes without reading them. This covers the visible and
+	 * invisible variants of {@code Annotations}, {@code ParameterAnnotations} and {@code TypeAnnotations},
+	 * along with {@code AnnotationDefault}.
+	 */
+	public boolean doSkipAnnotations() {
+		return skipAnnotations;
+	}
+
+	/**
+	 * Skipped attributes are not present in the parsed class, and thus are not written back out.
+	 *
+	 * @param skipAnnotations
+	 *        {@code true} to skip over annotation attributes without reading them.
+	 */
+	public void setSkipAnnotations(boolean skipAnnotations) {
+		this.skipAnnotations = skipAnnotations;
+	}
+
 	/**
 	 * @param builder
 	 * 		Builder to utilize for constant pool access.
@@ -452,4 +710,35 @@ public void setCheckCodeLength(boolean checkCodeLength) {
 	public FallbackInstructionReader getFallbackInstructionReader(@Nonnull ClassBuilder builder) {
 		return FallbackInstructionReader.fail();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @param end
+	 * 		Absolute index of the end of the table.
+	 * @param retained
+	 * 		{@code true} when all skipped attributes would be retained by {@link AttributeReader}
+	 * 		based on their name and context.
+	 */
+	private record TableBounds(int end, boolean retained) {
+	}
+
+	/**
+	 * @param fields
+	 * 		Bounds of the field table.
+	 * @param methods
+	 * 		Bounds of the method table.
+	 * @param attributes
+	 * 		Bounds of the class attribute table.
+	 */
+	private record MemberTables(@Nonnull TableBounds fields, @Nonnull TableBounds methods,
+	                            @Nonnull TableBounds attributes) {
+	}
+
+	/**
+	 * @param <T>
+	 * 		Table item type.
+	 */
+	private interface TableReader<T> {
+		@Nonnull
+		List<T> read(@Nonnull ByteCursor is) throws IOException;
+	}
+}
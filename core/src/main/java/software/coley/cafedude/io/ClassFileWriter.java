@@ -1,8 +1,10 @@
 package software.coley.cafedude.io;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import software.coley.cafedude.InvalidClassException;
 import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.ConstPool;
 import software.coley.cafedude.classfile.ConstantPoolConstants;
 import software.coley.cafedude.classfile.Field;
 import software.coley.cafedude.classfile.Method;
@@ -23,22 +25,26 @@
 import software.coley.cafedude.classfile.constant.CpPackage;
 import software.coley.cafedude.classfile.constant.CpString;
 import software.coley.cafedude.classfile.constant.CpUtf8;
+import software.coley.cafedude.util.GrowingByteBuffer;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
 
 /**
  * Class file format writer.
+ * <br>
+ * Writing keeps all state local to each call, so a single writer may be shared by multiple threads.
  *
  * @author Matt Coley
  * @see ClassFile Parsed class representation.
  * @see ClassFileWriter Class file format writer.
  */
 public class ClassFileWriter {
-	private DataOutputStream out;
-	private AttributeWriter attributeWriter;
-	private FallbackInstructionWriter fallbackInstructionWriter;
+	private final ThreadLocal<FallbackInstructionWriter> fallbackInstructionWriter = new ThreadLocal<>();
 
 	/**
 	 * @param clazz
@@ -50,11 +56,115 @@ public class ClassFileWriter {
 	 * 		When the class cannot be written.
 	 */
 	public byte[] write(ClassFile clazz) throws InvalidClassException {
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		try (DataOutputStream out = new DataOutputStream(baos)) {
-			this.out = out;
-			attributeWriter = new AttributeWriter(this);
-			fallbackInstructionWriter = newFallbackInstructionWriter(clazz);
+		GrowingByteBuffer out = writeBuffer(clazz);
+
+		// The backing array can be handed out as-is when the content fills it exactly.
+		ByteBuffer content = out.unwrap();
+		if (content.position() == content.capacity() && content.hasArray() && content.arrayOffset() == 0)
+			return content.array();
+		return out.toByteArray();
+	}
+
+	/**
+	 * @param clazz
+	 * 		Parsed class file.
+	 * @param out
+	 * 		Stream to write the bytecode of the class to. The stream is not closed.
+	 *
+	 * @throws IOException
+	 * 		When the stream cannot be written to.
+	 * @throws InvalidClassException
+	 * 		When the class cannot be written.
+	 */
+	public void write(@Nonnull ClassFile clazz, @Nonnull OutputStream out) throws IOException, InvalidClassException {
+		ByteBuffer content = writeBuffer(clazz).unwrap();
+		out.write(content.array(), content.arrayOffset(), content.position());
+	}
+
+	/**
+	 * @param clazz
+	 * 		Parsed class file.
+	 * @param channel
+	 * 		Channel to write the bytecode of the class to. The channel is not closed.
+	 *
+	 * @throws IOException
+	 * 		When the channel cannot be written to.
+	 * @throws InvalidClassException
+	 * 		When the class cannot be written.
+	 */
+	public void write(@Nonnull ClassFile clazz, @Nonnull WritableByteChannel channel) throws IOException, InvalidClassException {
+		ByteBuffer content = writeBuffer(clazz).unwrap().flip();
+		while (content.hasRemaining())
+			channel.write(content);
+	}
+
+	/**
+	 * @param clazz
+	 * 		Parsed class file.
+	 * @param buffer
+	 * 		Buffer to write the bytecode of the class to, starting at its current position.
+	 * 		The position is advanced past the written content.
+	 *
+	 * @throws BufferOverflowException
+	 * 		When there is insufficient space remaining in the buffer. The position of the buffer is unchanged,
+	 * 		but the content after it may have been partially written over.
+	 * @throws InvalidClassException
+	 * 		When the class cannot be written.
+	 */
+	public void write(@Nonnull ClassFile clazz, @Nonnull ByteBuffer buffer) throws InvalidClassException {
+		// Write directly into the remaining space of the given buffer.
+		// If the content does not fit, it is moved to a larger buffer which we do not need.
+		ByteBuffer target = buffer.slice();
+		GrowingByteBuffer out = new GrowingByteBuffer(target);
+		write(clazz, out);
+		if (out.unwrap() != target)
+			throw new BufferOverflowException();
+		buffer.position(buffer.position() + out.position());
+	}
+
+	/**
+	 * @param clazz
+	 * 		Parsed class file.
+	 *
+	 * @return Buffer holding the bytecode of the class, positioned at the end of the content.
+	 *
+	 * @throws InvalidClassException
+	 * 		When the class cannot be written.
+	 */
+	@Nonnull
+	private GrowingByteBuffer writeBuffer(@Nonnull ClassFile clazz) throws InvalidClassException {
+		GrowingByteBuffer out = new GrowingByteBuffer(computeInitialCapacity(clazz));
+		write(clazz, out);
+		return out;
+	}
+
+	/**
+	 * @param clazz
+	 * 		Parsed class file.
+	 *
+	 * @return Capacity to allocate for writing the class.
+	 */
+	private static int computeInitialCapacity(@Nonnull ClassFile clazz) {
+		// Measuring the exact size would take a pass over the whole class, and would decode tables from lazy parsing.
+		// The pool is commonly around half of a class, so it serves as an estimate instead.
+		return 2 * clazz.getPool().computeSize();
+	}
+
+	/**
+	 * @param clazz
+	 * 		Parsed class file.
+	 * @param out
+	 * 		Buffer to write the class to.
+	 *
+	 * @throws InvalidClassException
+	 * 		When the class cannot be written.
+	 */
+	private void write(@Nonnull ClassFile clazz, @Nonnull GrowingByteBuffer out) throws InvalidClassException {
+		FallbackInstructionWriter fallbackWriter = newFallbackInstructionWriter(clazz);
+		fallbackInstructionWriter.set(fallbackWriter);
+		try {
+			ConstPool pool = clazz.getPool();
+			AttributeWriter attributeWriter = new AttributeWriter(pool, fallbackWriter);
 
 			// Write magic header
 			out.writeInt(0xCAFEBABE);
@@ -64,9 +174,15 @@ public byte[] write(ClassFile clazz) throws InvalidClassException {
 			out.writeShort(clazz.getVersionMajor());
 
 			// Constant pool
-			out.writeShort(clazz.getPool().size());
-			for (CpEntry entry : clazz.getPool())
-				writeCpEntry(entry);
+			// - Copied as-is when unchanged since it was read
+			out.writeShort(pool.size());
+			ByteBuffer encodedPool = pool.getEncoded();
+			if (encodedPool != null) {
+				out.put(encodedPool);
+			} else {
+				for (CpEntry entry : pool)
+					writeCpEntry(out, entry);
+			}
 
 			// Flags
 			out.writeShort(clazz.getAccess());
@@ -82,27 +198,31 @@ public byte[] write(ClassFile clazz) throws InvalidClassException {
 				out.writeShort(interfaceEntry.getIndex());
 
 			// Fields
-			out.writeShort(clazz.getFields().size());
-			for (Field field : clazz.getFields())
-				writeField(field);
+			if (!writeUnmodified(out, pool, clazz.getFields())) {
+				out.writeShort(clazz.getFields().size());
+				for (Field field : clazz.getFields())
+					writeField(out, attributeWriter, pool, field);
+			}
 
 			// Methods
-			out.writeShort(clazz.getMethods().size());
-			for (Method method : clazz.getMethods())
-				writeMethod(method);
+			if (!writeUnmodified(out, pool, clazz.getMethods())) {
+				out.writeShort(clazz.getMethods().size());
+				for (Method method : clazz.getMethods())
+					writeMethod(out, attributeWriter, pool, method);
+			}
 
 			// Attributes
-			out.writeShort(clazz.getAttributes().size());
-			for (Attribute attribute : clazz.getAttributes())
-				writeAttribute(attribute);
-
-			return baos.toByteArray();
+			writeAttributes(out, attributeWriter, pool, clazz.getAttributes());
 		} catch (IOException ex) {
 			throw new InvalidClassException(ex);
+		} finally {
+			fallbackInstructionWriter.remove();
 		}
 	}
 
 	/**
+	 * @param out
+	 * 		Output to write to.
 	 * @param entry
 	 * 		Constant pool entry to write.
 	 *
@@ -111,12 +231,16 @@ public byte[] write(ClassFile clazz) throws InvalidClassException {
 	 * @throws InvalidClassException
 	 * 		When the class has unexpected data.
 	 */
-	private void writeCpEntry(CpEntry entry) throws IOException, InvalidClassException {
+	private static void writeCpEntry(GrowingByteBuffer out, CpEntry entry) throws IOException, InvalidClassException {
 		int tag = entry.getTag();
 		out.writeByte(tag);
 		switch (tag) {
 			case ConstantPoolConstants.UTF8:
-				out.writeUTF(((CpUtf8) entry).getText());
+				CpUtf8 utf8 = (CpUtf8) entry;
+				if (utf8.hasEncoded())
+					utf8.writeEncoded(out);
+				else
+					out.writeUTF(utf8.getText());
 				break;
 			case ConstantPoolConstants.INTEGER:
 				out.writeInt(((CpInt) entry).getValue());
@@ -173,6 +297,59 @@ private void writeCpEntry(CpEntry entry) throws IOException, InvalidClassExcepti
 	}
 
 	/**
+	 * Copies the original bytes of a table that was read by {@link ClassFileReader#doLazyParsing() lazy parsing}
+	 * and never accessed afterward.
+	 *
+	 * @param out
+	 * 		Output to write to.
+	 * @param pool
+	 * 		Pool of the current class.
+	 * @param table
+	 * 		Field, method or attribute table to write.
+	 *
+	 * @return {@code true} when the original bytes of the table were written.
+	 * {@code false} when the table must be written normally.
+	 */
+	private static boolean writeUnmodified(GrowingByteBuffer out, ConstPool pool, List<?> table) {
+		if (table instanceof LazyList<?> lazyTable) {
+			ByteBuffer source = lazyTable.getSourceFor(pool);
+			if (source != null) {
+				out.put(source);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param out
+	 * 		Output to write to.
+	 * @param attributeWriter
+	 * 		Writer for attributes of the current class.
+	 * @param pool
+	 * 		Pool of the current class.
+	 * @param attributes
+	 * 		Attribute table to write.
+	 *
+	 * @throws IOException
+	 * 		When the stream cannot be written to.
+	 * @throws InvalidClassException
+	 * 		When an attribute is invalid.
+	 */
+	private static void writeAttributes(GrowingByteBuffer out, AttributeWriter attributeWriter, ConstPool pool,
+	                                    List<Attribute> attributes) throws IOException, InvalidClassException {
+		if (writeUnmodified(out, pool, attributes))
+			return;
+		out.writeShort(attributes.size());
+		for (Attribute attribute : attributes)
+			writeAttribute(out, attributeWriter, attribute);
+	}
+
+	/**
+	 * @param out
+	 * 		Output to write to.
+	 * @param attributeWriter
+	 * 		Writer for attributes of the current class.
 	 * @param attribute
 	 * 		Attribute to write.
 	 *
@@ -182,11 +359,18 @@ private void writeCpEntry(CpEntry entry) throws IOException, InvalidClassExcepti
 	 * 		When the attribute name points to a non-utf8
 	 * 		constant.
 	 */
-	private void writeAttribute(Attribute attribute) throws IOException, InvalidClassException {
-		out.write(attributeWriter.writeAttribute(attribute));
+	private static void writeAttribute(GrowingByteBuffer out, AttributeWriter attributeWriter,
+	                                   Attribute attribute) throws IOException, InvalidClassException {
+		attributeWriter.writeAttribute(out, attribute);
 	}
 
 	/**
+	 * @param out
+	 * 		Output to write to.
+	 * @param attributeWriter
+	 * 		Writer for attributes of the current class.
+	 * @param pool
+	 * 		Pool of the current class.
 	 * @param field
 	 * 		Field to write.
 	 *
@@ -195,16 +379,21 @@ private void writeAttribute(Attribute attribute) throws IOException, InvalidClas
 	 * @throws InvalidClassException
 	 * 		When an attached attribute is invalid.
 	 */
-	private void writeField(Field field) throws IOException, InvalidClassException {
+	private static void writeField(GrowingByteBuffer out, AttributeWriter attributeWriter, ConstPool pool,
+	                               Field field) throws IOException, InvalidClassException {
 		out.writeShort(field.getAccess());
 		out.writeShort(field.getName().getIndex());
 		out.writeShort(field.getType().getIndex());
-		out.writeShort(field.getAttributes().size());
-		for (Attribute attribute : field.getAttributes())
-			writeAttribute(attribute);
+		writeAttributes(out, attributeWriter, pool, field.getAttributes());
 	}
 
 	/**
+	 * @param out
+	 * 		Output to write to.
+	 * @param attributeWriter
+	 * 		Writer for attributes of the current class.
+	 * @param pool
+	 * 		Pool of the current class.
 	 * @param method
 	 * 		Method to write.
 	 *
@@ -213,17 +402,17 @@ private void writeField(Field field) throws IOException, InvalidClassException {
 	 * @throws InvalidClassException
 	 * 		When an attached attribute is invalid.
 	 */
-	private void writeMethod(Method method) throws IOException, InvalidClassException {
+	private static void writeMethod(GrowingByteBuffer out, AttributeWriter attributeWriter, ConstPool pool,
+	                                Method method) throws IOException, InvalidClassException {
 		out.writeShort(method.getAccess());
 		out.writeShort(method.getName().getIndex());
 		out.writeShort(method.getType().getIndex());
-		out.writeShort(method.getAttributes().size());
-		for (Attribute attribute : method.getAttributes())
-			writeAttribute(attribute);
+		writeAttributes(out, attributeWriter, pool, method.getAttributes());
 	}
 
 	/**
-	 * Called when writing a class. Facilitates use of {@link #getFallbackInstructionWriter()}.
+	 * Called once for each class written. Since writers may be used by multiple threads at once,
+	 * any state for the fallback writer should be held by the returned instance.
 	 *
 	 * @param classFile
 	 * 		Class file to utilize for constant pool access.
@@ -236,10 +425,15 @@ public FallbackInstructionWriter newFallbackInstructionWriter(@Nonnull ClassFile
 	}
 
 	/**
-	 * @return {@link #newFallbackInstructionWriter(ClassFile)}.
+	 * @return {@link #newFallbackInstructionWriter(ClassFile)} of the class currently being written by the calling
+	 * thread, or {@code null} when the thread is not writing a class.
+	 *
+	 * @deprecated Writing no longer stores the fallback writer on the instance. Subclasses should keep any state
+	 * they need in the instance returned by {@link #newFallbackInstructionWriter(ClassFile)}.
 	 */
-	@Nonnull
+	@Nullable
+	@Deprecated(forRemoval = true)
 	protected final FallbackInstructionWriter getFallbackInstructionWriter() {
-		return fallbackInstructionWriter;
+		return fallbackInstructionWriter.get();
 	}
 }
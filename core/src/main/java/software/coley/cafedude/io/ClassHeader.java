@@ -0,0 +1,28 @@
+package software.coley.cafedude.io;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Summary of the header of a class file, as read by {@link ClassHeaderReader}.
+ *
+ * @param versionMinor
+ * 		Class minor version.
+ * @param versionMajor
+ * 		Class major version.
+ * @param access
+ * 		Class access flags.
+ * @param name
+ * 		Internal name of the class.
+ * @param superName
+ * 		Internal name of the parent class, or {@code null} when there is no parent <i>(such as for {@code java/lang/Object})</i>.
+ * @param interfaces
+ * 		Internal names of the implemented interfaces.
+ *
+ * @author Matt Coley
+ */
+public record ClassHeader(int versionMinor, int versionMajor, int access, @Nonnull String name,
+                          @Nullable String superName, @Nonnull List<String> interfaces) {
+}
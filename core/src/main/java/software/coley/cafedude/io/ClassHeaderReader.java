@@ -0,0 +1,88 @@
+package software.coley.cafedude.io;
+
+import jakarta.annotation.Nonnull;
+import software.coley.cafedude.InvalidClassException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader for only the header of a class file, being its version, access flags, name, parent and interfaces.
+ * <br>
+ * Unlike {@link ClassFileReader} no {@link software.coley.cafedude.classfile.ClassFile} is built. The constant pool
+ * is only walked to find where it ends, and only the names in the header are decoded, straight from the input.
+ * Fields, methods and attributes are never read. This makes it suitable for indexing passes such as building
+ * class hierarchies.
+ *
+ * @author Matt Coley
+ */
+public class ClassHeaderReader {
+	/**
+	 * @param code
+	 * 		Class bytecode to read.
+	 *
+	 * @return Header of the class.
+	 *
+	 * @throws InvalidClassException
+	 * 		When the header cannot be read.
+	 */
+	@Nonnull
+	public ClassHeader read(@Nonnull byte[] code) throws InvalidClassException {
+		return read(new ByteCursor(code));
+	}
+
+	/**
+	 * @param buffer
+	 * 		Buffer holding the class bytecode. The position of the buffer is not modified.
+	 *
+	 * @return Header of the class.
+	 *
+	 * @throws InvalidClassException
+	 * 		When the header cannot be read.
+	 */
+	@Nonnull
+	public ClassHeader read(@Nonnull ByteBuffer buffer) throws InvalidClassException {
+		return read(new ByteCursor(buffer));
+	}
+
+	@Nonnull
+	private static ClassHeader read(@Nonnull ByteCursor is) throws InvalidClassException {
+		try {
+			if (is.readInt() != 0xCAFEBABE)
+				throw new InvalidClassException("Does not start with 0xCAFEBABE");
+			int versionMinor = is.readUnsignedShort();
+			int versionMajor = is.readUnsignedShort();
+
+			// Only record where entries are, names are decoded below without creating any entries.
+			ConstPoolReader poolReader = new ConstPoolReader(is, is.readUnsignedShort(), true);
+			poolReader.scan();
+
+			int access = is.readUnsignedShort();
+			int thisIndex = is.readUnsignedShort();
+			int superIndex = is.readUnsignedShort();
+			int[] interfaceIndices = new int[is.readUnsignedShort()];
+			for (int i = 0; i < interfaceIndices.length; i++)
+				interfaceIndices[i] = is.readUnsignedShort();
+
+			String name = className(poolReader, thisIndex);
+			String superName = superIndex == 0 ? null : className(poolReader, superIndex);
+			List<String> interfaces = new ArrayList<>(interfaceIndices.length);
+			for (int interfaceIndex : interfaceIndices)
+				interfaces.add(className(poolReader, interfaceIndex));
+			return new ClassHeader(versionMinor, versionMajor, access, name, superName, interfaces);
+		} catch (IOException ex) {
+			throw new InvalidClassException(ex);
+		}
+	}
+
+	@Nonnull
+	private static String className(@Nonnull ConstPoolReader poolReader, int index)
+			throws IOException, InvalidClassException {
+		String name = poolReader.readClassName(index);
+		if (name == null)
+			throw new InvalidClassException("Class index does not point to a valid class entry: " + index);
+		return name;
+	}
+}
@@ -0,0 +1,339 @@
+package software.coley.cafedude.io;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.cafedude.InvalidClassException;
+import software.coley.cafedude.classfile.ConstPool;
+import software.coley.cafedude.classfile.ConstantPoolConstants;
+import software.coley.cafedude.classfile.constant.ConstRef;
+import software.coley.cafedude.classfile.constant.CpClass;
+import software.coley.cafedude.classfile.constant.CpDouble;
+import software.coley.cafedude.classfile.constant.CpDynamic;
+import software.coley.cafedude.classfile.constant.CpEntry;
+import software.coley.cafedude.classfile.constant.CpFieldRef;
+import software.coley.cafedude.classfile.constant.CpFloat;
+import software.coley.cafedude.classfile.constant.CpInt;
+import software.coley.cafedude.classfile.constant.CpInterfaceMethodRef;
+import software.coley.cafedude.classfile.constant.CpInvokeDynamic;
+import software.coley.cafedude.classfile.constant.CpLong;
+import software.coley.cafedude.classfile.constant.CpMethodHandle;
+import software.coley.cafedude.classfile.constant.CpMethodRef;
+import software.coley.cafedude.classfile.constant.CpMethodType;
+import software.coley.cafedude.classfile.constant.CpModule;
+import software.coley.cafedude.classfile.constant.CpNameType;
+import software.coley.cafedude.classfile.constant.CpPackage;
+import software.coley.cafedude.classfile.constant.CpString;
+import software.coley.cafedude.classfile.constant.CpUtf8;
+import software.coley.cafedude.classfile.constant.Placeholders;
+import software.coley.cafedude.util.ModifiedUtf8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Constant pool decoder.
+ * <br>
+ * A single linear {@link #scan()} records the tag and content offset of each entry.
+ * Entries are then created on demand by {@link #get(int)}, which resolves references to other entries
+ * by directly indexing into those tables. References that point to entries of the wrong type, or that do not
+ * point to an entry at all, are filled with {@link Placeholders} so the referencing entry can be pruned.
+ * <br>
+ * UTF8 entries are backed by their encoded bytes, and only decoded when their text is requested.
+ * Unless the input is retained, the pool content is copied once after the scan so that entries
+ * do not refer to the caller's input.
+ *
+ * @author Matt Coley
+ */
+final class ConstPoolReader implements ConstantPoolConstants {
+	private final ByteCursor is;
+	private final int count;
+	private final byte[] tags;
+	private final int[] offsets;
+	private final CpEntry[] entries;
+	private final boolean retainInput;
+	private byte[] content;
+	private int contentShift;
+	private int start = -1;
+	private int end = -1;
+
+	/**
+	 * @param is
+	 * 		Stream positioned at the first constant pool entry.
+	 * @param count
+	 * 		Declared {@code constant_pool_count}.
+	 * @param retainInput
+	 *        {@code true} to let entries refer to the array backing the stream, when it has one.
+	 *        {@code false} to copy the pool content so that entries do not refer to the stream's content.
+	 */
+	ConstPoolReader(@Nonnull ByteCursor is, int count, boolean retainInput) {
+		this.is = is;
+		this.count = count;
+		this.retainInput = retainInput;
+		tags = new byte[Math.max(count, 1)];
+		offsets = new int[Math.max(count, 1)];
+		entries = new CpEntry[Math.max(count, 1)];
+	}
+
+	/**
+	 * Records the tag and content offset of each entry. The stream is left at the end of the pool.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 * @throws InvalidClassException
+	 * 		When an unknown constant pool tag is found.
+	 */
+	void scan() throws IOException, InvalidClassException {
+		start = is.getIndex();
+		for (int i = 1; i < count; i++) {
+			int tag = is.readUnsignedByte();
+			tags[i] = (byte) tag;
+			offsets[i] = is.getIndex();
+			switch (tag) {
+				case UTF8 -> {
+					int length = is.readUnsignedShort();
+					is.moveTo(is.getIndex() + length);
+				}
+				case STRING, CLASS, METHOD_TYPE, MODULE, PACKAGE -> is.moveTo(is.getIndex() + 2);
+				case METHOD_HANDLE -> is.moveTo(is.getIndex() + 3);
+				case INTEGER, FLOAT, FIELD_REF, METHOD_REF, INTERFACE_METHOD_REF, NAME_TYPE, DYNAMIC, INVOKE_DYNAMIC ->
+						is.moveTo(is.getIndex() + 4);
+				case LONG, DOUBLE -> {
+					is.moveTo(is.getIndex() + 8);
+					i++;
+				}
+				default -> throw new InvalidClassException("Unknown constant-pool tag: " + tag);
+			}
+		}
+		end = is.getIndex();
+	}
+
+	/**
+	 * Creates every entry and adds them to the given pool in order.
+	 * The stream is left at the end of the pool.
+	 *
+	 * @param pool
+	 * 		Pool to populate.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 */
+	void readInto(@Nonnull ConstPool pool) throws IOException {
+		for (int i = 1; i < count; i++) {
+			CpEntry entry = get(i);
+			if (entry == null)
+				throw new IOException("Constant pool entry missing at index: " + i);
+			pool.add(entry);
+			if (entry.isWide())
+				i++;
+		}
+		is.moveTo(end);
+	}
+
+	/**
+	 * @param index
+	 * 		Constant pool index.
+	 *
+	 * @return Tag of the entry at the index, or {@code 0} if there is no entry at the index.
+	 */
+	int getTag(int index) {
+		if (index < 1 || index >= count)
+			return 0;
+		return tags[index] & 0xFF;
+	}
+
+	/**
+	 * @param index
+	 * 		Constant pool index.
+	 *
+	 * @return Entry at the index, or {@code null} if the index does not point to an entry.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 */
+	@Nullable
+	CpEntry get(int index) throws IOException {
+		if (index < 1 || index >= count || offsets[index] == 0)
+			return null;
+		CpEntry entry = entries[index];
+		if (entry == null) {
+			entry = read(index);
+			entries[index] = entry;
+		}
+		return entry;
+	}
+
+	/**
+	 * Decodes the text of a UTF8 entry straight from the stream. Only the bytes of the entry are copied,
+	 * and no entries are created.
+	 *
+	 * @param index
+	 * 		Constant pool index.
+	 *
+	 * @return Text of the entry at the index, or {@code null} if the index does not point to a UTF8 entry.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends, or the entry is not valid modified UTF-8.
+	 */
+	@Nullable
+	String readUtf8Text(int index) throws IOException {
+		if (getTag(index) != UTF8)
+			return null;
+		int offset = offsets[index] + 2;
+		byte[] data = is.copyRange(offset, offset + is.getUnsignedShort(offsets[index]));
+		return ModifiedUtf8.decode(data, 0, data.length, ModifiedUtf8.validate(data, 0, data.length));
+	}
+
+	/**
+	 * Decodes the name of a class entry straight from the stream, see {@link #readUtf8Text(int)}.
+	 *
+	 * @param index
+	 * 		Constant pool index.
+	 *
+	 * @return Name of the class entry at the index, or {@code null} if the index does not point to a class entry
+	 * with a valid name.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends, or the name is not valid modified UTF-8.
+	 */
+	@Nullable
+	String readClassName(int index) throws IOException {
+		if (getTag(index) != CLASS)
+			return null;
+		return readUtf8Text(is.getUnsignedShort(offsets[index]));
+	}
+
+	/**
+	 * @return Offset of the end of the pool.
+	 */
+	int getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return Read-only view of the encoded pool entries.
+	 * Only refers to the stream's content when the input is retained.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 */
+	@Nonnull
+	ByteBuffer getEncoded() throws IOException {
+		if (retainInput)
+			return is.view(start, end);
+		return ByteBuffer.wrap(getContent()).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Maps stream indices to the array UTF8 entries are backed by, copying the pool content on first use
+	 * when the input is not retained or has no accessible array.
+	 *
+	 * @return Array backing UTF8 entries, offset from stream indices by {@link #contentShift}.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 */
+	@Nonnull
+	private byte[] getContent() throws IOException {
+		byte[] content = this.content;
+		if (content == null) {
+			byte[] array = is.array();
+			if (retainInput && array != null) {
+				content = array;
+				contentShift = is.arrayOffset() + is.getAbsoluteIndex() - is.getIndex();
+			} else {
+				content = is.copyRange(start, end);
+				contentShift = -start;
+			}
+			this.content = content;
+		}
+		return content;
+	}
+
+	@Nonnull
+	private CpEntry read(int index) throws IOException {
+		int tag = tags[index] & 0xFF;
+		is.moveTo(offsets[index]);
+		switch (tag) {
+			case UTF8: {
+				// Decoding is deferred until the text is requested.
+				int length = is.readUnsignedShort();
+				byte[] content = getContent();
+				return new CpUtf8(content, is.getIndex() + contentShift, length);
+			}
+			case INTEGER:
+				return new CpInt(is.readInt());
+			case FLOAT:
+				return new CpFloat(is.readFloat());
+			case LONG:
+				return new CpLong(is.readLong());
+			case DOUBLE:
+				return new CpDouble(is.readDouble());
+			case STRING:
+				return new CpString(utf8(is.readUnsignedShort()));
+			case CLASS:
+				return new CpClass(utf8(is.readUnsignedShort()));
+			case FIELD_REF:
+			case METHOD_REF:
+			case INTERFACE_METHOD_REF: {
+				// Both references must be valid, otherwise both are left as placeholders.
+				int classIndex = is.readUnsignedShort();
+				int nameTypeIndex = is.readUnsignedShort();
+				CpClass classRef = Placeholders.CLASS;
+				CpNameType nameType = Placeholders.NAME_TYPE;
+				if (getTag(classIndex) == CLASS && getTag(nameTypeIndex) == NAME_TYPE) {
+					classRef = (CpClass) get(classIndex);
+					nameType = (CpNameType) get(nameTypeIndex);
+				}
+				if (tag == FIELD_REF)
+					return new CpFieldRef(classRef, nameType);
+				else if (tag == METHOD_REF)
+					return new CpMethodRef(classRef, nameType);
+				return new CpInterfaceMethodRef(classRef, nameType);
+			}
+			case NAME_TYPE: {
+				int nameIndex = is.readUnsignedShort();
+				int typeIndex = is.readUnsignedShort();
+				if (getTag(nameIndex) == UTF8 && getTag(typeIndex) == UTF8)
+					return new CpNameType(utf8(nameIndex), utf8(typeIndex));
+				return new CpNameType(Placeholders.UTF8, Placeholders.UTF8);
+			}
+			case DYNAMIC: {
+				int bsmIndex = is.readUnsignedShort();
+				return new CpDynamic(bsmIndex, nameType(is.readUnsignedShort()));
+			}
+			case INVOKE_DYNAMIC: {
+				int bsmIndex = is.readUnsignedShort();
+				return new CpInvokeDynamic(bsmIndex, nameType(is.readUnsignedShort()));
+			}
+			case METHOD_HANDLE: {
+				byte refKind = is.readByte();
+				int refIndex = is.readUnsignedShort();
+				int refTag = getTag(refIndex);
+				if (refTag == FIELD_REF || refTag == METHOD_REF || refTag == INTERFACE_METHOD_REF)
+					return new CpMethodHandle(refKind, (ConstRef) get(refIndex));
+				return new CpMethodHandle(refKind, Placeholders.CONST_REF);
+			}
+			case METHOD_TYPE:
+				return new CpMethodType(utf8(is.readUnsignedShort()));
+			case MODULE:
+				return new CpModule(utf8(is.readUnsignedShort()));
+			case PACKAGE:
+				return new CpPackage(utf8(is.readUnsignedShort()));
+			default:
+				throw new IOException("Unknown CP tag: " + tag);
+		}
+	}
+
+	// Tags are checked before resolving a reference. The types that entries may refer to form an acyclic graph,
+	// so checking first ensures that malformed self-referencing or cyclic entries cannot recurse.
+
+	@Nonnull
+	private CpUtf8 utf8(int index) throws IOException {
+		return getTag(index) == UTF8 ? (CpUtf8) get(index) : Placeholders.UTF8;
+	}
+
+	@Nonnull
+	private CpNameType nameType(int index) throws IOException {
+		return getTag(index) == NAME_TYPE ? (CpNameType) get(index) : Placeholders.NAME_TYPE;
+	}
+}
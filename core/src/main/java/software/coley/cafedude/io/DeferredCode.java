@@ -0,0 +1,81 @@
+package software.coley.cafedude.io;
+
+import jakarta.annotation.Nonnull;
+import software.coley.cafedude.classfile.ConstPool;
+import software.coley.cafedude.classfile.attribute.CodeAttribute;
+import software.coley.cafedude.classfile.instruction.Instruction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Instructions of a {@link CodeAttribute} that are decoded from the class bytecode on first access.
+ * Used by {@link ClassFileReader} in {@link ClassFileReader#doLazyParsing() lazy parsing mode}.
+ * <br>
+ * Until decoded, the original code can be written back out as-is so long as the pool it refers to
+ * has not had its layout changed.
+ *
+ * @author Matt Coley
+ */
+final class DeferredCode implements CodeAttribute.DeferredInstructions {
+	private final ClassFileReader reader;
+	private final ClassBuilder builder;
+	private final ByteCursor code;
+	private final ConstPool sourcePool;
+	private final int sourceRevision;
+
+	/**
+	 * @param reader
+	 * 		Parent class reader.
+	 * @param builder
+	 * 		Builder holding a snapshot of the pool to resolve references against.
+	 * @param code
+	 * 		Cursor covering the code.
+	 */
+	DeferredCode(@Nonnull ClassFileReader reader, @Nonnull ClassBuilder builder, @Nonnull ByteCursor code) {
+		this.reader = reader;
+		this.builder = builder;
+		this.code = code;
+		this.sourcePool = builder.getSourcePool();
+		this.sourceRevision = builder.getSourceRevision();
+	}
+
+	@Override
+	public int getCodeLength() {
+		return code.remaining();
+	}
+
+	@Nonnull
+	@Override
+	public List<Instruction> decode() {
+		try {
+			InstructionReader insnReader = new InstructionReader(reader.getFallbackInstructionReader(builder),
+					reader.doShareBasicInstructions());
+			return insnReader.read(code.fork(), builder.getPool(), getCodeLength());
+		} catch (IOException | RuntimeException ex) {
+			throw new IllegalStateException("Failed to read deferred method code", ex);
+		}
+	}
+
+	/**
+	 * @param pool
+	 * 		Pool of the class being written.
+	 *
+	 * @return {@code true} when the original code is still valid to write against the given pool.
+	 */
+	boolean isValidFor(@Nonnull ConstPool pool) {
+		return pool == sourcePool && pool.getRevision() == sourceRevision;
+	}
+
+	/**
+	 * @return Read-only view of the original code.
+	 *
+	 * @throws IOException
+	 * 		When the code could not be accessed.
+	 */
+	@Nonnull
+	ByteBuffer viewCode() throws IOException {
+		return code.view(0, getCodeLength());
+	}
+}
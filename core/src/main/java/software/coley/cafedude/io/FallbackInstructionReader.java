@@ -24,15 +24,43 @@ public interface FallbackInstructionReader {
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	@Nonnull
-	List<Instruction> read(int opcode, @Nonnull IndexableByteStream is) throws IOException;
+	default List<Instruction> read(int opcode, @Nonnull ByteCursor is) throws IOException {
+		// Bridge for readers only implementing the old stream based signature
+		IndexableByteStream stream = IndexableByteStream.of(is);
+		List<Instruction> instructions = read(opcode, stream);
+		is.moveTo(stream.getIndex());
+		return instructions;
+	}
+
+	/**
+	 * @param opcode
+	 * 		Instruction opcode.
+	 * @param is
+	 * 		Parent stream.
+	 *
+	 * @return Read instruction.
+	 *
+	 * @throws IOException
+	 * 		When the stream is unexpectedly closed or ends.
+	 * @deprecated Implement {@link #read(int, ByteCursor)} instead. This is only called by its default implementation.
+	 */
+	@Nonnull
+	@Deprecated(forRemoval = true)
+	default List<Instruction> read(int opcode, @Nonnull IndexableByteStream is) throws IOException {
+		throw new UnsupportedOperationException("Fallback reader does not implement read(int, ByteCursor)");
+	}
 
 	/**
 	 * @return Default fail-fast fallback reader.
 	 */
 	@Nonnull
 	static FallbackInstructionReader fail() {
-		return (opcode, buffer) -> {
-			throw new IllegalStateException("Unable to read instruction, opcode=" + opcode);
+		return new FallbackInstructionReader() {
+			@Nonnull
+			@Override
+			public List<Instruction> read(int opcode, @Nonnull ByteCursor is) {
+				throw new IllegalStateException("Unable to read instruction, opcode=" + opcode);
+			}
 		};
 	}
 }
@@ -4,6 +4,7 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.util.Arrays;
 
 /**
@@ -11,7 +12,10 @@
  * based off an internal {@link ByteArrayInputStream}.
  *
  * @author Matt Coley
+ * @deprecated Readers now use {@link ByteCursor}. This is only kept so that
+ * {@link FallbackInstructionReader fallback readers} written against it continue to work.
  */
+@Deprecated(forRemoval = true)
 public class IndexableByteStream extends DataInputStream {
 	private final IndexableByteArrayInputStream exposer;
 	private int sliceStart;
@@ -47,6 +51,32 @@ public IndexableByteStream(@Nonnull IndexableByteStream is, int length) {
 		sliceEnd = Math.min(index + length, maxLength);
 	}
 
+	/**
+	 * @param cursor
+	 * 		Cursor to adapt.
+	 *
+	 * @return Stream over the content of the cursor, positioned at the cursor's position.
+	 * Relative indices of the stream match those of the cursor. Heap backed content is shared, other content is copied.
+	 *
+	 * @throws EOFException
+	 * 		When the cursor position is outside its content.
+	 */
+	@Nonnull
+	static IndexableByteStream of(@Nonnull ByteCursor cursor) throws EOFException {
+		int length = cursor.getIndex() + cursor.remaining();
+		byte[] array = cursor.array();
+		IndexableByteStream stream;
+		if (array != null) {
+			IndexableByteStream root = new IndexableByteStream(array);
+			root.moveToAbsolute(cursor.arrayOffset() + cursor.getAbsoluteIndex() - cursor.getIndex());
+			stream = new IndexableByteStream(root, length);
+		} else {
+			stream = new IndexableByteStream(cursor.copyRange(0, length));
+		}
+		stream.moveTo(cursor.getIndex());
+		return stream;
+	}
+
 	/**
 	 * @return Current absolute input stream index.
 	 */
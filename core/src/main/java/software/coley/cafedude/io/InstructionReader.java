@@ -30,13 +30,25 @@
  */
 public class InstructionReader {
 	private final FallbackInstructionReader fallbackReader;
+	private final boolean shareBasicInstructions;
 
 	/**
 	 * @param fallbackReader
 	 * 		Fallback instruction reader.
 	 */
 	public InstructionReader(@Nonnull FallbackInstructionReader fallbackReader) {
+		this(fallbackReader, true);
+	}
+
+	/**
+	 * @param fallbackReader
+	 * 		Fallback instruction reader.
+	 * @param shareBasicInstructions
+	 *        {@code true} to use {@link BasicInstruction#of(int) shared instances} for instructions without operands.
+	 */
+	public InstructionReader(@Nonnull FallbackInstructionReader fallbackReader, boolean shareBasicInstructions) {
 		this.fallbackReader = fallbackReader;
+		this.shareBasicInstructions = shareBasicInstructions;
 	}
 
 	/**
@@ -61,7 +73,7 @@ public InstructionReader() {
 	 */
 	@Nonnull
 	@SuppressWarnings("DuplicateBranchesInSwitch")
-	public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPool pool, int codeLength) throws IOException {
+	public List<Instruction> read(@Nonnull ByteCursor is, @Nonnull ConstPool pool, int codeLength) throws IOException {
 		int start = is.getIndex();
 		int end = start + codeLength;
 		List<Instruction> instructions = new ArrayList<>();
@@ -85,7 +97,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case FCONST_2:
 				case DCONST_0:
 				case DCONST_1:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case BIPUSH:
 					instructions.add(new IntOperandInstruction(opcode, is.readByte()));
@@ -127,7 +139,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case ALOAD_1:
 				case ALOAD_2:
 				case ALOAD_3:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case IALOAD:
 				case LALOAD:
@@ -137,7 +149,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case BALOAD:
 				case CALOAD:
 				case SALOAD:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case ISTORE:
 				case LSTORE:
@@ -166,7 +178,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case ASTORE_1:
 				case ASTORE_2:
 				case ASTORE_3:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case IASTORE:
 				case LASTORE:
@@ -176,7 +188,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case BASTORE:
 				case CASTORE:
 				case SASTORE:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case POP:
 				case POP2:
@@ -187,7 +199,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case DUP2_X1:
 				case DUP2_X2:
 				case SWAP:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case IADD:
 				case LADD:
@@ -225,7 +237,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case LOR:
 				case IXOR:
 				case LXOR:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case IINC:
 					instructions.add(new IincInstruction(is.readUnsignedByte(), is.readByte()));
@@ -245,14 +257,14 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case I2B:
 				case I2C:
 				case I2S:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case LCMP:
 				case FCMPL:
 				case FCMPG:
 				case DCMPL:
 				case DCMPG:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case IFEQ:
 				case IFNE:
@@ -284,7 +296,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case TABLESWITCH: {
 					int pos = is.getIndex();
 					// Skip padding.
-					is.skip((4 - pos & 3));
+					is.skipBytes(4 - pos & 3);
 					int dflt = is.readInt();
 					int low = is.readInt();
 					int high = is.readInt();
@@ -309,7 +321,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 				case DRETURN:
 				case ARETURN:
 				case RETURN:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case GETSTATIC:
 				case PUTSTATIC:
@@ -352,14 +364,14 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 					instructions.add(new IntOperandInstruction(NEWARRAY, is.readUnsignedByte()));
 					break;
 				case ARRAYLENGTH:
-					instructions.add(new BasicInstruction(ARRAYLENGTH));
+					instructions.add(basic(ARRAYLENGTH));
 					break;
 				case ATHROW:
-					instructions.add(new BasicInstruction(ATHROW));
+					instructions.add(basic(ATHROW));
 					break;
 				case MONITORENTER:
 				case MONITOREXIT:
-					instructions.add(new BasicInstruction(opcode));
+					instructions.add(basic(opcode));
 					break;
 				case WIDE:
 					int type = is.readUnsignedByte();
@@ -419,7 +431,7 @@ public List<Instruction> read(@Nonnull IndexableByteStream is, @Nonnull ConstPoo
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	@Nonnull
-	public static IntOperandInstruction readXLoad(@Nonnull IndexableByteStream is, int opcode) throws IOException {
+	public static IntOperandInstruction readXLoad(@Nonnull ByteCursor is, int opcode) throws IOException {
 		return new IntOperandInstruction(opcode, is.readUnsignedByte());
 	}
 
@@ -435,7 +447,7 @@ public static IntOperandInstruction readXLoad(@Nonnull IndexableByteStream is, i
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	@Nonnull
-	public static CpRefInstruction readLdc(@Nonnull IndexableByteStream is, @Nonnull ConstPool pool) throws IOException {
+	public static CpRefInstruction readLdc(@Nonnull ByteCursor is, @Nonnull ConstPool pool) throws IOException {
 		int index = is.readUnsignedByte();
 		CpEntry entry = pool.get(index);
 		return new CpRefInstruction(LDC, entry);
@@ -455,7 +467,7 @@ public static CpRefInstruction readLdc(@Nonnull IndexableByteStream is, @Nonnull
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	@Nonnull
-	public static CpRefInstruction readLdcW(@Nonnull IndexableByteStream is, @Nonnull ConstPool pool, int opcode) throws IOException {
+	public static CpRefInstruction readLdcW(@Nonnull ByteCursor is, @Nonnull ConstPool pool, int opcode) throws IOException {
 		int index = is.readUnsignedShort();
 		CpEntry entry = pool.get(index);
 		return new CpRefInstruction(opcode, entry);
@@ -471,10 +483,10 @@ public static CpRefInstruction readLdcW(@Nonnull IndexableByteStream is, @Nonnul
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	@Nonnull
-	public static LookupSwitchInstruction readLookupSwitchInstruction(@Nonnull IndexableByteStream is) throws IOException {
+	public static LookupSwitchInstruction readLookupSwitchInstruction(@Nonnull ByteCursor is) throws IOException {
 		int pos = is.getIndex();
 		// Skip padding.
-		is.skip((4 - pos & 3));
+		is.skipBytes(4 - pos & 3);
 		int dflt = is.readInt();
 		int keyCount = is.readInt();
 		List<Integer> keys = new ArrayList<>(keyCount);
@@ -502,9 +514,20 @@ public static LookupSwitchInstruction readLookupSwitchInstruction(@Nonnull Index
 	 * 		When the stream is unexpectedly closed or ends.
 	 */
 	@Nonnull
-	public static CpRefInstruction readMemberReferenceInstruction(@Nonnull IndexableByteStream is, @Nonnull ConstPool pool, int opcode) throws IOException {
+	public static CpRefInstruction readMemberReferenceInstruction(@Nonnull ByteCursor is, @Nonnull ConstPool pool, int opcode) throws IOException {
 		int index = is.readUnsignedShort();
 		ConstRef ref = (ConstRef) pool.get(index);
 		return new CpRefInstruction(opcode, ref);
 	}
+
+	/**
+	 * @param opcode
+	 * 		Instruction opcode.
+	 *
+	 * @return Instruction without operands.
+	 */
+	@Nonnull
+	private BasicInstruction basic(int opcode) {
+		return shareBasicInstructions ? BasicInstruction.of(opcode) : new BasicInstruction(opcode);
+	}
 }
@@ -13,8 +13,6 @@
 import software.coley.cafedude.classfile.instruction.WideInstruction;
 import software.coley.cafedude.util.GrowingByteBuffer;
 
-import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.List;
 
 import static software.coley.cafedude.classfile.instruction.Opcodes.*;
@@ -54,11 +52,30 @@ public InstructionWriter() {
 	 */
 	@Nonnull
 	public byte[] writeCode(@Nonnull List<Instruction> list) {
-		GrowingByteBuffer buffer = new GrowingByteBuffer();
+		int size = 0;
+		for (Instruction instruction : list)
+			size += instruction.computeSize();
+		GrowingByteBuffer buffer = new GrowingByteBuffer(size);
+		writeCode(buffer, list);
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Writes the list of instructions to the given buffer.
+	 * Instruction offsets, used for switch padding, are relative to the position of the buffer when called.
+	 *
+	 * @param buffer
+	 * 		Buffer to write to.
+	 * @param list
+	 * 		Instructions to write.
+	 */
+	public void writeCode(@Nonnull GrowingByteBuffer buffer, @Nonnull List<Instruction> list) {
 		FallbackInstructionWriter fallbackWriter = this.fallbackWriter;
+		int codeStart = buffer.position();
 		for (Instruction instruction : list) {
 			int expectedSize = instruction.computeSize();
 			int startPos = buffer.position();
+			int offset = startPos - codeStart;
 			int opcode = instruction.getOpcode();
 			buffer.put(opcode & 0xFF);
 			switch (opcode) {
@@ -286,7 +303,7 @@ public byte[] writeCode(@Nonnull List<Instruction> list) {
 				case TABLESWITCH: {
 					// Automatic padding determination
 					//  - Pos +1 to accommodate for opcode
-					buffer.skip(4 - (startPos + 1) & 3);
+					writePadding(buffer, 4 - (offset + 1) & 3);
 					TableSwitchInstruction tsw = (TableSwitchInstruction) instruction;
 					buffer.putInt(tsw.getDefault());
 					buffer.putInt(tsw.getLow());
@@ -300,7 +317,7 @@ public byte[] writeCode(@Nonnull List<Instruction> list) {
 				case LOOKUPSWITCH:
 					// Automatic padding determination
 					//  - Pos +1 to accommodate for opcode
-					buffer.skip(4 - (startPos + 1) & 3);
+					writePadding(buffer, 4 - (offset + 1) & 3);
 					LookupSwitchInstruction lsw = (LookupSwitchInstruction) instruction;
 					buffer.putInt(lsw.getDefault());
 					List<Integer> keys = lsw.getKeys();
@@ -368,8 +385,19 @@ public byte[] writeCode(@Nonnull List<Instruction> list) {
 						"\n - expected=" + expectedSize + ", actual=" + size);
 			}
 		}
-		ByteBuffer result = buffer.unwrap();
-		byte[] content = result.array();
-		return Arrays.copyOf(content, result.position());
+	}
+
+	/**
+	 * Padding is written out rather than skipped over, since the buffer may be
+	 * caller supplied and still hold prior content.
+	 *
+	 * @param buffer
+	 * 		Buffer to write to.
+	 * @param padding
+	 * 		Number of zero bytes to write.
+	 */
+	private static void writePadding(@Nonnull GrowingByteBuffer buffer, int padding) {
+		for (int i = 0; i < padding; i++)
+			buffer.put(0);
 	}
 }
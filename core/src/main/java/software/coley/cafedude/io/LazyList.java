@@ -0,0 +1,264 @@
+package software.coley.cafedude.io;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.cafedude.classfile.ConstPool;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * List that defers populating its content until it is first accessed.
+ * Used by {@link ClassFileReader} in {@link ClassFileReader#doLazyParsing() lazy parsing mode}
+ * to skip decoding of members and attributes that are never looked at.
+ * <br>
+ * Lists may also hold the original bytes of the content they were read from. So long as the list is never
+ * loaded, and the pool those bytes refer to is unchanged, the content can be written back out verbatim.
+ *
+ * @param <T>
+ * 		Element type.
+ *
+ * @author Matt Coley
+ */
+final class LazyList<T> extends AbstractList<T> {
+	private final ConstPool sourcePool;
+	private final int sourceRevision;
+	private Loader<T> loader;
+	private ByteBuffer source;
+	private List<T> backing;
+
+	/**
+	 * @param loader
+	 * 		Action to populate the list content.
+	 */
+	LazyList(@Nonnull Loader<T> loader) {
+		this(loader, null, null);
+	}
+
+	/**
+	 * @param loader
+	 * 		Action to populate the list content.
+	 * @param source
+	 * 		Original bytes of the content, or {@code null} if the content cannot be written back out verbatim.
+	 * @param sourcePool
+	 * 		Pool the original bytes refer to, or {@code null} if the content cannot be written back out verbatim.
+	 */
+	LazyList(@Nonnull Loader<T> loader, @Nullable ByteBuffer source, @Nullable ConstPool sourcePool) {
+		this.loader = loader;
+		this.source = sourcePool == null ? null : source;
+		this.sourcePool = sourcePool;
+		this.sourceRevision = sourcePool == null ? 0 : sourcePool.getRevision();
+	}
+
+	/**
+	 * @return {@code true} when the content has been populated.
+	 */
+	boolean isLoaded() {
+		return backing != null;
+	}
+
+	/**
+	 * @param pool
+	 * 		Pool of the class being written.
+	 *
+	 * @return Original bytes of the content, or {@code null} when the content has been loaded
+	 * or the pool indices it uses have changed.
+	 */
+	@Nullable
+	ByteBuffer getSourceFor(@Nonnull ConstPool pool) {
+		ByteBuffer source = this.source;
+		if (source == null || pool != sourcePool || pool.getRevision() != sourceRevision)
+			return null;
+		return source.duplicate();
+	}
+
+	/**
+	 * @return Populated content.
+	 */
+	@Nonnull
+	private List<T> backing() {
+		List<T> backing = this.backing;
+		if (backing == null) {
+			try {
+				backing = loader.load();
+			} catch (Exception ex) {
+				throw new IllegalStateException("Failed to read deferred class content", ex);
+			}
+			this.backing = backing;
+			loader = null;
+			source = null;
+		}
+		return backing;
+	}
+
+	@Override
+	public T get(int index) {
+		return backing().get(index);
+	}
+
+	@Override
+	public T set(int index, T element) {
+		return backing().set(index, element);
+	}
+
+	@Override
+	public void add(int index, T element) {
+		backing().add(index, element);
+	}
+
+	@Override
+	public boolean add(T element) {
+		return backing().add(element);
+	}
+
+	@Override
+	public T remove(int index) {
+		return backing().remove(index);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return backing().remove(o);
+	}
+
+	@Override
+	public int size() {
+		return backing().size();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return backing().contains(o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return backing().indexOf(o);
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return backing().lastIndexOf(o);
+	}
+
+	@Override
+	public boolean addAll(@Nonnull Collection<? extends T> c) {
+		return backing().addAll(c);
+	}
+
+	@Override
+	public boolean addAll(int index, @Nonnull Collection<? extends T> c) {
+		return backing().addAll(index, c);
+	}
+
+	@Override
+	public boolean removeAll(@Nonnull Collection<?> c) {
+		return backing().removeAll(c);
+	}
+
+	@Override
+	public boolean retainAll(@Nonnull Collection<?> c) {
+		return backing().retainAll(c);
+	}
+
+	@Override
+	public boolean removeIf(@Nonnull Predicate<? super T> filter) {
+		return backing().removeIf(filter);
+	}
+
+	@Override
+	public void replaceAll(@Nonnull UnaryOperator<T> operator) {
+		backing().replaceAll(operator);
+	}
+
+	@Override
+	public void sort(Comparator<? super T> c) {
+		backing().sort(c);
+	}
+
+	@Override
+	public void forEach(@Nonnull Consumer<? super T> action) {
+		backing().forEach(action);
+	}
+
+	@Override
+	public void clear() {
+		backing().clear();
+	}
+
+	@Nonnull
+	@Override
+	public Iterator<T> iterator() {
+		return backing().iterator();
+	}
+
+	@Nonnull
+	@Override
+	public ListIterator<T> listIterator() {
+		return backing().listIterator();
+	}
+
+	@Nonnull
+	@Override
+	public ListIterator<T> listIterator(int index) {
+		return backing().listIterator(index);
+	}
+
+	@Nonnull
+	@Override
+	public List<T> subList(int fromIndex, int toIndex) {
+		return backing().subList(fromIndex, toIndex);
+	}
+
+	@Nonnull
+	@Override
+	public Object[] toArray() {
+		return backing().toArray();
+	}
+
+	@Nonnull
+	@Override
+	public <A> A[] toArray(@Nonnull A[] a) {
+		return backing().toArray(a);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return backing().equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		return backing().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return backing().toString();
+	}
+
+	/**
+	 * Action to populate a {@link LazyList}.
+	 *
+	 * @param <T>
+	 * 		Element type.
+	 */
+	interface Loader<T> {
+		/**
+		 * @return List content.
+		 *
+		 * @throws Exception
+		 * 		When the content cannot be read.
+		 */
+		@Nonnull
+		List<T> load() throws Exception;
+	}
+}
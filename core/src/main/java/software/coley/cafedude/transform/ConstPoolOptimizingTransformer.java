@@ -0,0 +1,463 @@
+package software.coley.cafedude.transform;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.ClassMember;
+import software.coley.cafedude.classfile.ConstPoolReferences;
+import software.coley.cafedude.classfile.annotation.Annotation;
+import software.coley.cafedude.classfile.annotation.AnnotationElementValue;
+import software.coley.cafedude.classfile.annotation.ArrayElementValue;
+import software.coley.cafedude.classfile.annotation.ClassElementValue;
+import software.coley.cafedude.classfile.annotation.ElementValue;
+import software.coley.cafedude.classfile.annotation.EnumElementValue;
+import software.coley.cafedude.classfile.annotation.PrimitiveElementValue;
+import software.coley.cafedude.classfile.annotation.TypeAnnotation;
+import software.coley.cafedude.classfile.annotation.Utf8ElementValue;
+import software.coley.cafedude.classfile.attribute.AnnotationDefaultAttribute;
+import software.coley.cafedude.classfile.attribute.AnnotationsAttribute;
+import software.coley.cafedude.classfile.attribute.Attribute;
+import software.coley.cafedude.classfile.attribute.BootstrapMethodsAttribute;
+import software.coley.cafedude.classfile.attribute.BootstrapMethodsAttribute.BootstrapMethod;
+import software.coley.cafedude.classfile.attribute.CodeAttribute;
+import software.coley.cafedude.classfile.attribute.CodeAttribute.ExceptionTableEntry;
+import software.coley.cafedude.classfile.attribute.CompilationIdAttribute;
+import software.coley.cafedude.classfile.attribute.ConstantValueAttribute;
+import software.coley.cafedude.classfile.attribute.DefaultAttribute;
+import software.coley.cafedude.classfile.attribute.EnclosingMethodAttribute;
+import software.coley.cafedude.classfile.attribute.ExceptionsAttribute;
+import software.coley.cafedude.classfile.attribute.InnerClassesAttribute;
+import software.coley.cafedude.classfile.attribute.InnerClassesAttribute.InnerClass;
+import software.coley.cafedude.classfile.attribute.LocalVariableTableAttribute;
+import software.coley.cafedude.classfile.attribute.LocalVariableTableAttribute.VarEntry;
+import software.coley.cafedude.classfile.attribute.LocalVariableTypeTableAttribute;
+import software.coley.cafedude.classfile.attribute.LocalVariableTypeTableAttribute.VarTypeEntry;
+import software.coley.cafedude.classfile.attribute.MethodParametersAttribute;
+import software.coley.cafedude.classfile.attribute.ModuleAttribute;
+import software.coley.cafedude.classfile.attribute.ModuleHashesAttribute;
+import software.coley.cafedude.classfile.attribute.ModuleMainClassAttribute;
+import software.coley.cafedude.classfile.attribute.ModulePackagesAttribute;
+import software.coley.cafedude.classfile.attribute.ModuleTargetAttribute;
+import software.coley.cafedude.classfile.attribute.NestHostAttribute;
+import software.coley.cafedude.classfile.attribute.NestMembersAttribute;
+import software.coley.cafedude.classfile.attribute.ParameterAnnotationsAttribute;
+import software.coley.cafedude.classfile.attribute.PermittedClassesAttribute;
+import software.coley.cafedude.classfile.attribute.RecordAttribute;
+import software.coley.cafedude.classfile.attribute.SignatureAttribute;
+import software.coley.cafedude.classfile.attribute.SourceFileAttribute;
+import software.coley.cafedude.classfile.attribute.SourceIdAttribute;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.AppendFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.FullFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.ObjectVariableInfo;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameLocalsOneStackItem;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameLocalsOneStackItemExtended;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.StackMapFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.TypeInfo;
+import software.coley.cafedude.classfile.behavior.AttributeHolder;
+import software.coley.cafedude.classfile.constant.ConstDynamic;
+import software.coley.cafedude.classfile.constant.ConstRef;
+import software.coley.cafedude.classfile.constant.CpClass;
+import software.coley.cafedude.classfile.constant.CpEntry;
+import software.coley.cafedude.classfile.constant.CpMethodHandle;
+import software.coley.cafedude.classfile.constant.CpMethodType;
+import software.coley.cafedude.classfile.constant.CpModule;
+import software.coley.cafedude.classfile.constant.CpNameType;
+import software.coley.cafedude.classfile.constant.CpPackage;
+import software.coley.cafedude.classfile.constant.CpString;
+import software.coley.cafedude.classfile.constant.CpUtf8;
+import software.coley.cafedude.classfile.constant.CrossCpReferencing;
+import software.coley.cafedude.classfile.instruction.CpRefInstruction;
+import software.coley.cafedude.classfile.instruction.Instruction;
+import software.coley.cafedude.classfile.instruction.MultiANewArrayInstruction;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A transformer to shrink the constant pool of a class.
+ * <ul>
+ *     <li>Structurally equal entries are merged into the first occurrence</li>
+ *     <li>Every reference to a merged entry, in the pool and across the class, is pointed to the remaining entry</li>
+ *     <li>Entries not reachable from the class are removed</li>
+ * </ul>
+ * Classes with {@link DefaultAttribute unknown attributes} are left as-is, since the pool indices
+ * held in their raw content cannot be updated.
+ *
+ * @author Matt Coley
+ */
+public class ConstPoolOptimizingTransformer extends Transformer {
+	private static final Logger logger = LoggerFactory.getLogger(ConstPoolOptimizingTransformer.class);
+	private static final int MAX_REFERENCE_DEPTH = 3;
+	private final Map<CpEntry, CpEntry> canonical = new IdentityHashMap<>();
+	private int removedCount;
+
+	/**
+	 * @param clazz
+	 * 		Class to optimize the pool of.
+	 */
+	public ConstPoolOptimizingTransformer(@Nonnull ClassFile clazz) {
+		super(clazz);
+	}
+
+	/**
+	 * @return Number of entries removed from the pool by the last {@link #transform()}.
+	 */
+	public int getRemovedCount() {
+		return removedCount;
+	}
+
+	@Override
+	public void transform() {
+		logger.debug("Optimizing pool of '{}'", clazz.getName());
+		canonical.clear();
+		removedCount = 0;
+		if (hasUnknownAttributes()) {
+			logger.debug("Skipping pool optimization of '{}', it has unknown attributes", clazz.getName());
+			return;
+		}
+
+		// Map each pool entry to the first structurally equal entry. Entries are visited in order of how deeply they
+		// reference other entries, so references can be updated before looking for duplicates. That way entries which
+		// only differ by referencing duplicates are recognized as duplicates too.
+		Map<CpEntry, CpEntry> firstByContent = new HashMap<>();
+		for (int depth = 0; depth <= MAX_REFERENCE_DEPTH; depth++) {
+			for (CpEntry cp : pool) {
+				if (getReferenceDepth(cp) != depth)
+					continue;
+				remapEntry(cp);
+				CpEntry first = firstByContent.putIfAbsent(cp, cp);
+				canonical.put(cp, first == null ? cp : first);
+			}
+		}
+
+		// Point every reference in the class to the remaining entries.
+		remap(clazz.getThisClass(), clazz::setThisClass);
+		remap(clazz.getSuperClass(), clazz::setSuperClass);
+		remapList(clazz.getInterfaceClasses());
+		remapAttributes(clazz);
+		for (ClassMember field : clazz.getFields())
+			remapMember(field);
+		for (ClassMember method : clazz.getMethods())
+			remapMember(method);
+
+		// Drop merged entries, and entries nothing in the class refers to.
+		ConstPoolReferences references = clazz.computeCpReferences();
+		Set<CpEntry> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+		int sizeBefore = pool.size();
+		pool.removeIf(cp -> canonical.get(cp) != cp || !references.isReferenced(cp.getIndex()) || !kept.add(cp));
+		removedCount = sizeBefore - pool.size();
+	}
+
+	/**
+	 * @return {@code true} when any attribute in the class is not modeled, and may hold raw pool indices.
+	 */
+	private boolean hasUnknownAttributes() {
+		if (hasUnknownAttributes(clazz))
+			return true;
+		for (ClassMember field : clazz.getFields())
+			if (hasUnknownAttributes(field))
+				return true;
+		for (ClassMember method : clazz.getMethods())
+			if (hasUnknownAttributes(method))
+				return true;
+		return false;
+	}
+
+	private static boolean hasUnknownAttributes(@Nonnull AttributeHolder holder) {
+		for (Attribute attribute : holder.getAttributes()) {
+			if (attribute instanceof DefaultAttribute)
+				return true;
+			if (attribute instanceof CodeAttribute code && hasUnknownAttributes(code))
+				return true;
+			if (attribute instanceof RecordAttribute record)
+				for (RecordAttribute.RecordComponent component : record.getComponents())
+					if (hasUnknownAttributes(component))
+						return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param cp
+	 * 		Pool entry.
+	 *
+	 * @return Number of entries in the longest chain of references from the entry.
+	 * Entries only ever reference entries with a lower depth.
+	 */
+	private static int getReferenceDepth(@Nonnull CpEntry cp) {
+		if (cp instanceof CpMethodHandle)
+			return MAX_REFERENCE_DEPTH;
+		if (cp instanceof ConstRef || cp instanceof ConstDynamic)
+			return 2;
+		if (cp instanceof CrossCpReferencing)
+			return 1;
+		return 0;
+	}
+
+	/**
+	 * @param cp
+	 * 		Pool entry to update the references of.
+	 */
+	private void remapEntry(@Nonnull CpEntry cp) {
+		if (cp instanceof ConstDynamic dynamic) {
+			remap(dynamic.getNameType(), dynamic::setNameType);
+		} else if (cp instanceof ConstRef ref) {
+			remap(ref.getClassRef(), ref::setClassRef);
+			remap(ref.getNameType(), ref::setNameType);
+		} else if (cp instanceof CpClass cpClass) {
+			remap(cpClass.getName(), cpClass::setName);
+		} else if (cp instanceof CpMethodHandle handle) {
+			remap(handle.getReference(), handle::setReference);
+		} else if (cp instanceof CpMethodType methodType) {
+			remap(methodType.getDescriptor(), methodType::setDescriptor);
+		} else if (cp instanceof CpModule module) {
+			remap(module.getName(), module::setName);
+		} else if (cp instanceof CpNameType nameType) {
+			remap(nameType.getName(), nameType::setName);
+			remap(nameType.getType(), nameType::setType);
+		} else if (cp instanceof CpPackage cpPackage) {
+			remap(cpPackage.getPackageName(), cpPackage::setPackageName);
+		} else if (cp instanceof CpString string) {
+			remap(string.getString(), string::setString);
+		}
+	}
+
+	private void remapMember(@Nonnull ClassMember member) {
+		remap(member.getName(), member::setName);
+		remap(member.getType(), member::setType);
+		remapAttributes(member);
+	}
+
+	private void remapAttributes(@Nonnull AttributeHolder holder) {
+		for (Attribute attribute : holder.getAttributes())
+			remapAttribute(attribute);
+	}
+
+	private void remapAttribute(@Nonnull Attribute attribute) {
+		remap(attribute.getName(), attribute::setName);
+		if (attribute instanceof AnnotationDefaultAttribute annotationDefault) {
+			remapElementValue(annotationDefault.getElementValue());
+		} else if (attribute instanceof AnnotationsAttribute annotations) {
+			remapAnnotations(annotations.getAnnotations());
+		} else if (attribute instanceof BootstrapMethodsAttribute bootstrapMethods) {
+			for (BootstrapMethod bsm : bootstrapMethods.getBootstrapMethods()) {
+				remap(bsm.getBsmMethodRef(), bsm::setBsmMethodRef);
+				remapList(bsm.getArgs());
+			}
+		} else if (attribute instanceof CodeAttribute code) {
+			for (ExceptionTableEntry entry : code.getExceptionTable())
+				remap(entry.getCatchType(), entry::setCatchType);
+			for (Instruction instruction : code.getInstructions()) {
+				if (instruction instanceof CpRefInstruction cpRef)
+					remap(cpRef.getEntry(), cpRef::setEntry);
+				else if (instruction instanceof MultiANewArrayInstruction multiANewArray)
+					remap(multiANewArray.getDescriptor(), multiANewArray::setDescriptor);
+			}
+			remapAttributes(code);
+		} else if (attribute instanceof CompilationIdAttribute compilationId) {
+			remap(compilationId.getCompilationId(), compilationId::setCompilationId);
+		} else if (attribute instanceof ConstantValueAttribute constantValue) {
+			remap(constantValue.getConstantValue(), constantValue::setConstantValueIndex);
+		} else if (attribute instanceof EnclosingMethodAttribute enclosingMethod) {
+			remap(enclosingMethod.getClassEntry(), enclosingMethod::setClassEntry);
+			remap(enclosingMethod.getMethodEntry(), enclosingMethod::setMethodEntry);
+		} else if (attribute instanceof ExceptionsAttribute exceptions) {
+			remapList(exceptions.getExceptionTable());
+		} else if (attribute instanceof InnerClassesAttribute innerClasses) {
+			for (InnerClass innerClass : innerClasses.getInnerClasses()) {
+				remap(innerClass.getInnerClassInfo(), innerClass::setInnerClassInfo);
+				remap(innerClass.getOuterClassInfo(), innerClass::setOuterClassInfo);
+				remap(innerClass.getInnerName(), innerClass::setInnerName);
+			}
+		} else if (attribute instanceof LocalVariableTableAttribute variables) {
+			ListIterator<VarEntry> it = variables.getEntries().listIterator();
+			while (it.hasNext()) {
+				VarEntry entry = it.next();
+				CpUtf8 name = map(entry.getName());
+				CpUtf8 desc = map(entry.getDesc());
+				if (name != entry.getName() || desc != entry.getDesc())
+					it.set(new VarEntry(entry.getStartPc(), entry.getLength(), name, desc, entry.getIndex()));
+			}
+		} else if (attribute instanceof LocalVariableTypeTableAttribute variableTypes) {
+			ListIterator<VarTypeEntry> it = variableTypes.getEntries().listIterator();
+			while (it.hasNext()) {
+				VarTypeEntry entry = it.next();
+				CpUtf8 name = map(entry.getName());
+				CpUtf8 signature = map(entry.getSignature());
+				if (name != entry.getName() || signature != entry.getSignature())
+					it.set(new VarTypeEntry(entry.getStartPc(), entry.getLength(), name, signature, entry.getIndex()));
+			}
+		} else if (attribute instanceof MethodParametersAttribute methodParameters) {
+			for (MethodParametersAttribute.Parameter parameter : methodParameters.getParameters())
+				remap(parameter.getName(), parameter::setName);
+		} else if (attribute instanceof ModuleAttribute module) {
+			remap(module.getModule(), module::setModule);
+			remap(module.getVersion(), module::setVersion);
+			for (ModuleAttribute.Requires requires : module.getRequires()) {
+				remap(requires.getModule(), requires::setModule);
+				remap(requires.getVersion(), requires::setVersion);
+			}
+			for (ModuleAttribute.Exports exports : module.getExports()) {
+				remap(exports.getPackageEntry(), exports::setPackageEntry);
+				remapList(exports.getTo());
+			}
+			for (ModuleAttribute.Opens opens : module.getOpens()) {
+				remap(opens.getPackageEntry(), opens::setPackageEntry);
+				remapList(opens.getTo());
+			}
+			remapList(module.getUses());
+			for (ModuleAttribute.Provides provides : module.getProvides()) {
+				remap(provides.getModule(), provides::setModule);
+				remapList(provides.getWith());
+			}
+		} else if (attribute instanceof ModuleHashesAttribute moduleHashes) {
+			remap(moduleHashes.getAlgorithmName(), moduleHashes::setAlgorithmName);
+			Map<CpUtf8, byte[]> hashes = moduleHashes.getModuleHashes();
+			if (hashes.keySet().stream().anyMatch(key -> map(key) != key)) {
+				Map<CpUtf8, byte[]> remapped = new LinkedHashMap<>();
+				hashes.forEach((key, value) -> remapped.put(map(key), value));
+				moduleHashes.setModuleHashes(remapped);
+			}
+		} else if (attribute instanceof ModuleMainClassAttribute mainClass) {
+			remap(mainClass.getMainClass(), mainClass::setMainClass);
+		} else if (attribute instanceof ModulePackagesAttribute packages) {
+			remapList(packages.getPackages());
+		} else if (attribute instanceof ModuleTargetAttribute target) {
+			remap(target.getPlatformName(), target::setPlatformName);
+		} else if (attribute instanceof NestHostAttribute nestHost) {
+			remap(nestHost.getHostClass(), nestHost::setHostClass);
+		} else if (attribute instanceof NestMembersAttribute nestMembers) {
+			remapList(nestMembers.getMemberClasses());
+		} else if (attribute instanceof ParameterAnnotationsAttribute parameterAnnotations) {
+			for (List<Annotation> annotations : parameterAnnotations.getParameterAnnotations().values())
+				remapAnnotations(annotations);
+		} else if (attribute instanceof PermittedClassesAttribute permittedClasses) {
+			remapList(permittedClasses.getClasses());
+		} else if (attribute instanceof RecordAttribute record) {
+			for (RecordAttribute.RecordComponent component : record.getComponents()) {
+				remap(component.getName(), component::setName);
+				remap(component.getDesc(), component::setDesc);
+				remapAttributes(component);
+			}
+		} else if (attribute instanceof SignatureAttribute signature) {
+			remap(signature.getSignature(), signature::setSignature);
+		} else if (attribute instanceof SourceFileAttribute sourceFile) {
+			remap(sourceFile.getSourceFilename(), sourceFile::setSourceFilename);
+		} else if (attribute instanceof SourceIdAttribute sourceId) {
+			remap(sourceId.getSourceId(), sourceId::setSourceId);
+		} else if (attribute instanceof StackMapTableAttribute stackMapTable) {
+			for (StackMapFrame frame : stackMapTable.getFrames()) {
+				if (frame instanceof SameLocalsOneStackItem sameLocals) {
+					remapTypeInfo(sameLocals.getStack());
+				} else if (frame instanceof SameLocalsOneStackItemExtended sameLocals) {
+					remapTypeInfo(sameLocals.getStack());
+				} else if (frame instanceof AppendFrame append) {
+					append.getAdditionalLocals().forEach(this::remapTypeInfo);
+				} else if (frame instanceof FullFrame full) {
+					full.getLocals().forEach(this::remapTypeInfo);
+					full.getStack().forEach(this::remapTypeInfo);
+				}
+			}
+		}
+	}
+
+	private void remapTypeInfo(@Nonnull TypeInfo info) {
+		if (info instanceof ObjectVariableInfo object)
+			remap(object.getClassEntry(), object::setClassEntry);
+	}
+
+	private void remapAnnotations(@Nonnull List<Annotation> annotations) {
+		ListIterator<Annotation> it = annotations.listIterator();
+		while (it.hasNext()) {
+			Annotation annotation = it.next();
+			Annotation remapped = remapAnnotation(annotation);
+			if (remapped != annotation)
+				it.set(remapped);
+		}
+	}
+
+	/**
+	 * @param annotation
+	 * 		Annotation to update the references of.
+	 *
+	 * @return Same annotation when only its values needed updating,
+	 * otherwise a copy referencing the remaining entries.
+	 */
+	@Nonnull
+	private Annotation remapAnnotation(@Nonnull Annotation annotation) {
+		Map<CpUtf8, ElementValue> values = annotation.getValues();
+		values.values().forEach(this::remapElementValue);
+
+		CpUtf8 type = map(annotation.getType());
+		if (type == annotation.getType() && values.keySet().stream().allMatch(key -> map(key) == key))
+			return annotation;
+		Map<CpUtf8, ElementValue> remappedValues = new LinkedHashMap<>();
+		values.forEach((key, value) -> remappedValues.put(map(key), value));
+		if (annotation instanceof TypeAnnotation typeAnnotation)
+			return new TypeAnnotation(type, remappedValues, typeAnnotation.getTargetInfo(), typeAnnotation.getTypePath());
+		return new Annotation(type, remappedValues);
+	}
+
+	private void remapElementValue(@Nonnull ElementValue value) {
+		if (value instanceof AnnotationElementValue annotationValue) {
+			Annotation annotation = annotationValue.getAnnotation();
+			Annotation remapped = remapAnnotation(annotation);
+			if (remapped != annotation)
+				annotationValue.setAnnotation(remapped);
+		} else if (value instanceof ArrayElementValue arrayValue) {
+			arrayValue.getArray().forEach(this::remapElementValue);
+		} else if (value instanceof ClassElementValue classValue) {
+			remap(classValue.getClassEntry(), classValue::setClassEntry);
+		} else if (value instanceof EnumElementValue enumValue) {
+			remap(enumValue.getType(), enumValue::setType);
+			remap(enumValue.getName(), enumValue::setName);
+		} else if (value instanceof PrimitiveElementValue primitiveValue) {
+			remap(primitiveValue.getValue(), primitiveValue::setValue);
+		} else if (value instanceof Utf8ElementValue utf8Value) {
+			remap(utf8Value.getValue(), utf8Value::setValue);
+		}
+	}
+
+	private <T extends CpEntry> void remapList(@Nonnull List<T> entries) {
+		ListIterator<T> it = entries.listIterator();
+		while (it.hasNext()) {
+			T entry = it.next();
+			T mapped = map(entry);
+			if (mapped != entry)
+				it.set(mapped);
+		}
+	}
+
+	private <T extends CpEntry> void remap(@Nullable T entry, @Nonnull Consumer<T> setter) {
+		T mapped = map(entry);
+		if (mapped != entry)
+			setter.accept(mapped);
+	}
+
+	/**
+	 * @param entry
+	 * 		Some entry.
+	 * @param <T>
+	 * 		Entry type.
+	 *
+	 * @return The pool entry the given entry was merged into, or the entry itself.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends CpEntry> T map(@Nullable T entry) {
+		if (entry == null)
+			return null;
+		// Merged entries are always of the same type, as equality checks the entry type.
+		CpEntry mapped = canonical.get(entry);
+		return mapped == null ? entry : (T) mapped;
+	}
+}
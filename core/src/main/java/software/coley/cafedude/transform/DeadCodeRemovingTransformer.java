@@ -0,0 +1,463 @@
+package software.coley.cafedude.transform;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.Method;
+import software.coley.cafedude.classfile.attribute.Attribute;
+import software.coley.cafedude.classfile.attribute.CodeAttribute;
+import software.coley.cafedude.classfile.attribute.CodeAttribute.ExceptionTableEntry;
+import software.coley.cafedude.classfile.attribute.ControlFlowGraph;
+import software.coley.cafedude.classfile.attribute.ControlFlowGraph.BasicBlock;
+import software.coley.cafedude.classfile.attribute.LineNumberTableAttribute;
+import software.coley.cafedude.classfile.attribute.LineNumberTableAttribute.LineEntry;
+import software.coley.cafedude.classfile.attribute.LocalVariableTableAttribute;
+import software.coley.cafedude.classfile.attribute.LocalVariableTableAttribute.VarEntry;
+import software.coley.cafedude.classfile.attribute.LocalVariableTypeTableAttribute;
+import software.coley.cafedude.classfile.attribute.LocalVariableTypeTableAttribute.VarTypeEntry;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.AppendFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.ChopFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.FullFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.ObjectVariableInfo;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameFrameExtended;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameLocalsOneStackItem;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.SameLocalsOneStackItemExtended;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.StackMapFrame;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.TypeInfo;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute.UninitializedVariableInfo;
+import software.coley.cafedude.classfile.instruction.Instruction;
+import software.coley.cafedude.classfile.instruction.IntOperandInstruction;
+import software.coley.cafedude.classfile.instruction.LookupSwitchInstruction;
+import software.coley.cafedude.classfile.instruction.TableSwitchInstruction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+
+import static software.coley.cafedude.classfile.attribute.CodeUtilities.isBranch;
+import static software.coley.cafedude.classfile.instruction.Opcodes.*;
+
+/**
+ * A transformer to remove code that cannot be reached from the start of a method.
+ * <br>
+ * Reachability is taken from the {@link CodeAttribute#getControlFlowGraph() control flow graph}, following both
+ * normal flow and exception handler edges. Unreachable instructions are removed, rather than padded with
+ * {@code nop}, and the following are relocated to match:
+ * <ul>
+ *     <li>Branch and switch offsets</li>
+ *     <li>Exception table ranges and handlers</li>
+ *     <li>Line number and local variable tables</li>
+ *     <li>Stack map frames, and the offsets of uninitialized types within them</li>
+ * </ul>
+ * Methods are left as-is when they cannot be safely relocated. This includes code with other attributes
+ * holding offsets, branches into the middle of instructions, and frames which cannot be re-encoded once
+ * frames in removed code are dropped.
+ *
+ * @author Matt Coley
+ */
+public class DeadCodeRemovingTransformer extends Transformer {
+	private static final Logger logger = LoggerFactory.getLogger(DeadCodeRemovingTransformer.class);
+	private int removedCount;
+
+	/**
+	 * @param clazz
+	 * 		Class to remove dead code from.
+	 */
+	public DeadCodeRemovingTransformer(@Nonnull ClassFile clazz) {
+		super(clazz);
+	}
+
+	/**
+	 * @return Number of instructions removed by the last {@link #transform()}.
+	 */
+	public int getRemovedCount() {
+		return removedCount;
+	}
+
+	@Override
+	public void transform() {
+		logger.debug("Removing dead code from '{}'", clazz.getName());
+		removedCount = 0;
+		for (Method method : clazz.getMethods()) {
+			CodeAttribute code = method.getAttribute(CodeAttribute.class);
+			if (code != null)
+				removedCount += removeDeadCode(code);
+		}
+	}
+
+	/**
+	 * @param code
+	 * 		Code to remove unreachable instructions from.
+	 *
+	 * @return Number of instructions removed.
+	 */
+	public int removeDeadCode(@Nonnull CodeAttribute code) {
+		List<Instruction> instructions = code.getInstructions();
+		if (instructions.isEmpty())
+			return 0;
+		ControlFlowGraph graph = code.getControlFlowGraph();
+		if (graph.hasUnresolvedTargets())
+			return skip("branches into the middle of instructions");
+		for (Attribute attribute : code.getAttributes())
+			if (!(attribute instanceof LineNumberTableAttribute || attribute instanceof LocalVariableTableAttribute
+					|| attribute instanceof LocalVariableTypeTableAttribute || attribute instanceof StackMapTableAttribute))
+				return skip("attribute '" + attribute.getName().getText() + "' cannot be relocated");
+
+		// Mark reachable blocks, following both normal and exception edges.
+		List<BasicBlock> blocks = graph.getBlocks();
+		BitSet reachable = new BitSet(blocks.size());
+		Queue<BasicBlock> blocksToVisit = new ArrayDeque<>();
+		reachable.set(0);
+		blocksToVisit.add(blocks.get(0));
+		while (!blocksToVisit.isEmpty()) {
+			BasicBlock block = blocksToVisit.remove();
+			for (BasicBlock successor : block.getSuccessors())
+				if (!reachable.get(successor.getIndex())) {
+					reachable.set(successor.getIndex());
+					blocksToVisit.add(successor);
+				}
+			for (BasicBlock handler : block.getExceptionSuccessors())
+				if (!reachable.get(handler.getIndex())) {
+					reachable.set(handler.getIndex());
+					blocksToVisit.add(handler);
+				}
+		}
+		if (reachable.cardinality() == blocks.size())
+			return 0;
+
+		// Map each old offset to its new offset. Offsets in removed code map to the next kept instruction.
+		// Switch padding depends on the new position, so kept switches may change in size.
+		int codeSize = code.computeSize();
+		BitSet liveOffsets = new BitSet(codeSize);
+		int[] relocated = new int[codeSize + 1];
+		List<Instruction> kept = new ArrayList<>(instructions.size());
+		int[] keptOffsets = new int[instructions.size()];
+		int newOffset = 0;
+		for (BasicBlock block : blocks) {
+			boolean live = reachable.get(block.getIndex());
+			int offset = block.getStartOffset();
+			for (int i = block.getStartIndex(); i < block.getEndIndex(); i++) {
+				Instruction instruction = instructions.get(i);
+				if (instruction.getOpcode() == JSR_W)
+					return skip("jsr_w is not modeled in the control flow graph");
+				int size = instruction.computeSize();
+				Arrays.fill(relocated, offset, offset + size, newOffset);
+				if (live) {
+					liveOffsets.set(offset);
+					keptOffsets[kept.size()] = offset;
+					kept.add(instruction);
+					int newSize = size;
+					if (instruction instanceof TableSwitchInstruction table)
+						newSize += computePadding(newOffset) - table.getPadding();
+					else if (instruction instanceof LookupSwitchInstruction lookup)
+						newSize += computePadding(newOffset) - lookup.getPadding();
+					newOffset += newSize;
+				}
+				offset += size;
+			}
+		}
+		relocated[codeSize] = newOffset;
+
+		// Validate that all branches can still be encoded at their new positions.
+		for (int i = 0; i < kept.size(); i++) {
+			Instruction instruction = kept.get(i);
+			if (isBranch(instruction) && instruction instanceof IntOperandInstruction jump && instruction.getOpcode() != GOTO_W) {
+				int operand = relocate(relocated, keptOffsets[i], jump.getOperand());
+				if (operand < Short.MIN_VALUE || operand > Short.MAX_VALUE)
+					return skip("relocated branch no longer fits in a short offset");
+			}
+		}
+
+		// Build the relocated tables before changing anything, in case any cannot be relocated.
+		List<ExceptionTableEntry> exceptionTable = new ArrayList<>();
+		for (ExceptionTableEntry entry : code.getExceptionTable()) {
+			if (!inBounds(codeSize, entry.getStartPc(), entry.getEndPc(), entry.getHandlerPc()))
+				return skip("exception range out of bounds");
+			int start = relocated[entry.getStartPc()];
+			int end = relocated[entry.getEndPc()];
+			if (start < end && liveOffsets.get(entry.getHandlerPc()))
+				exceptionTable.add(new ExceptionTableEntry(start, end, relocated[entry.getHandlerPc()], entry.getCatchType()));
+		}
+		List<Runnable> attributeUpdates = new ArrayList<>();
+		for (Attribute attribute : code.getAttributes()) {
+			if (attribute instanceof LineNumberTableAttribute lineNumbers) {
+				List<LineEntry> entries = new ArrayList<>();
+				for (LineEntry entry : lineNumbers.getEntries())
+					if (entry.getStartPc() < codeSize && liveOffsets.get(entry.getStartPc()))
+						entries.add(new LineEntry(relocated[entry.getStartPc()], entry.getLine()));
+				attributeUpdates.add(() -> lineNumbers.setEntries(entries));
+			} else if (attribute instanceof LocalVariableTableAttribute variables) {
+				List<VarEntry> entries = new ArrayList<>();
+				for (VarEntry entry : variables.getEntries()) {
+					int start = entry.getStartPc();
+					int end = start + entry.getLength();
+					if (!inBounds(codeSize, start, end))
+						return skip("variable range out of bounds");
+					if (relocated[start] < relocated[end])
+						entries.add(new VarEntry(relocated[start], relocated[end] - relocated[start],
+								entry.getName(), entry.getDesc(), entry.getIndex()));
+				}
+				attributeUpdates.add(() -> variables.setEntries(entries));
+			} else if (attribute instanceof LocalVariableTypeTableAttribute variables) {
+				List<VarTypeEntry> entries = new ArrayList<>();
+				for (VarTypeEntry entry : variables.getEntries()) {
+					int start = entry.getStartPc();
+					int end = start + entry.getLength();
+					if (!inBounds(codeSize, start, end))
+						return skip("variable range out of bounds");
+					if (relocated[start] < relocated[end])
+						entries.add(new VarTypeEntry(relocated[start], relocated[end] - relocated[start],
+								entry.getName(), entry.getSignature(), entry.getIndex()));
+				}
+				attributeUpdates.add(() -> variables.setEntries(entries));
+			} else if (attribute instanceof StackMapTableAttribute stackMap) {
+				Runnable update = relocateFrames(stackMap, codeSize, liveOffsets, relocated);
+				if (update == null)
+					return skip("stack map frames cannot be re-encoded");
+				attributeUpdates.add(update);
+			}
+		}
+
+		// Apply the new offsets.
+		for (int i = 0; i < kept.size(); i++) {
+			Instruction instruction = kept.get(i);
+			int offset = keptOffsets[i];
+			if (isBranch(instruction) && instruction instanceof IntOperandInstruction jump) {
+				jump.setOperand(relocate(relocated, offset, jump.getOperand()));
+			} else if (instruction instanceof TableSwitchInstruction table) {
+				table.setDefault(relocate(relocated, offset, table.getDefault()));
+				table.setOffsets(relocate(relocated, offset, table.getOffsets()));
+				table.notifyStartPosition(relocated[offset]);
+			} else if (instruction instanceof LookupSwitchInstruction lookup) {
+				lookup.setDefault(relocate(relocated, offset, lookup.getDefault()));
+				lookup.setOffsets(relocate(relocated, offset, lookup.getOffsets()));
+				lookup.notifyStartPosition(relocated[offset]);
+			}
+		}
+		attributeUpdates.forEach(Runnable::run);
+		code.setExceptionTable(exceptionTable);
+		int removed = instructions.size() - kept.size();
+		code.setInstructions(kept);
+		return removed;
+	}
+
+	/**
+	 * @param stackMap
+	 * 		Attribute holding the original frames.
+	 * @param codeSize
+	 * 		Original size of the code.
+	 * @param liveOffsets
+	 * 		Original offsets of kept instructions.
+	 * @param relocated
+	 * 		Mapping of original offsets to new offsets.
+	 *
+	 * @return Action updating the attribute with frames at the new offsets,
+	 * or {@code null} when a frame cannot be re-encoded.
+	 */
+	@Nullable
+	private static Runnable relocateFrames(@Nonnull StackMapTableAttribute stackMap, int codeSize,
+										   @Nonnull BitSet liveOffsets, @Nonnull int[] relocated) {
+		List<StackMapFrame> frames = stackMap.getFrames();
+		List<StackMapFrame> relocatedFrames = new ArrayList<>(frames.size());
+		int[] deltas = new int[frames.size()];
+		Set<UninitializedVariableInfo> uninitialized = Collections.newSetFromMap(new IdentityHashMap<>());
+		FrameState state = new FrameState(0, Collections.emptyList(), Collections.emptyList());
+		FrameState keptState = state;
+		boolean previousKept = true;
+		int offset = -1;
+		int keptOffset = -1;
+		for (StackMapFrame frame : frames) {
+			offset += frame.getOffsetDelta() + 1;
+			state = state.next(frame);
+			if (state == null || offset >= codeSize)
+				return null;
+			if (!liveOffsets.get(offset)) {
+				previousKept = false;
+				continue;
+			}
+
+			// Frames directly following a kept frame are reused when their type can hold the new offset delta.
+			// Otherwise, they are re-encoded against the last kept frame.
+			int newDelta = relocated[offset] - keptOffset - 1;
+			boolean shortDelta = frame instanceof SameFrame || frame instanceof SameLocalsOneStackItem;
+			StackMapFrame relocatedFrame;
+			if (previousKept && (!shortDelta || newDelta <= 63)) {
+				relocatedFrame = frame;
+			} else {
+				relocatedFrame = keptState.encode(state, newDelta);
+				if (relocatedFrame == null)
+					return null;
+			}
+			for (TypeInfo type : state.locals)
+				if (type instanceof UninitializedVariableInfo info)
+					uninitialized.add(info);
+			for (TypeInfo type : state.stack)
+				if (type instanceof UninitializedVariableInfo info)
+					uninitialized.add(info);
+			deltas[relocatedFrames.size()] = newDelta;
+			relocatedFrames.add(relocatedFrame);
+			keptState = state;
+			keptOffset = relocated[offset];
+			previousKept = true;
+		}
+
+		// Uninitialized types refer to the 'new' instruction creating them, which must still exist.
+		for (UninitializedVariableInfo info : uninitialized)
+			if (info.getOffset() >= codeSize || !liveOffsets.get(info.getOffset()))
+				return null;
+
+		// Changes to existing frames and types are only made once everything else is known to be valid.
+		return () -> {
+			for (int i = 0; i < relocatedFrames.size(); i++)
+				relocatedFrames.get(i).setOffsetDelta(deltas[i]);
+			for (UninitializedVariableInfo info : uninitialized)
+				info.setOffset(relocated[info.getOffset()]);
+			stackMap.setFrames(relocatedFrames);
+		};
+	}
+
+	/**
+	 * @param reason
+	 * 		Reason for skipping a method.
+	 *
+	 * @return Zero, as no instructions are removed.
+	 */
+	private int skip(@Nonnull String reason) {
+		logger.debug("Skipping dead code removal of a method in '{}', {}", clazz.getName(), reason);
+		return 0;
+	}
+
+	private static int computePadding(int offset) {
+		return 3 - (offset & 3);
+	}
+
+	private static boolean inBounds(int codeSize, int... offsets) {
+		for (int offset : offsets)
+			if (offset < 0 || offset > codeSize)
+				return false;
+		return true;
+	}
+
+	private static int relocate(@Nonnull int[] relocated, int offset, int operand) {
+		return relocated[offset + operand] - relocated[offset];
+	}
+
+	@Nonnull
+	private static List<Integer> relocate(@Nonnull int[] relocated, int offset, @Nonnull List<Integer> operands) {
+		List<Integer> relocatedOperands = new ArrayList<>(operands.size());
+		for (int operand : operands)
+			relocatedOperands.add(relocate(relocated, offset, operand));
+		return relocatedOperands;
+	}
+
+	/**
+	 * Locals and stack at a frame. Frames before the first full frame are relative to the implicit initial frame
+	 * of the method, whose locals are not known here. Such locals are tracked as the number of initial locals
+	 * chopped off, followed by the locals appended since.
+	 *
+	 * @param chopped
+	 * 		Number of initial locals removed, or {@code -1} when all locals are known.
+	 * @param locals
+	 * 		Known locals.
+	 * @param stack
+	 * 		Stack.
+	 */
+	private record FrameState(int chopped, @Nonnull List<TypeInfo> locals, @Nonnull List<TypeInfo> stack) {
+		/**
+		 * @param frame
+		 * 		Frame following this state.
+		 *
+		 * @return State at the frame, or {@code null} when the frame chops locals which are not known.
+		 */
+		@Nullable
+		private FrameState next(@Nonnull StackMapFrame frame) {
+			if (frame instanceof SameFrame || frame instanceof SameFrameExtended)
+				return new FrameState(chopped, locals, Collections.emptyList());
+			if (frame instanceof SameLocalsOneStackItem item)
+				return new FrameState(chopped, locals, List.of(item.getStack()));
+			if (frame instanceof SameLocalsOneStackItemExtended item)
+				return new FrameState(chopped, locals, List.of(item.getStack()));
+			if (frame instanceof AppendFrame append) {
+				List<TypeInfo> appended = new ArrayList<>(locals);
+				appended.addAll(append.getAdditionalLocals());
+				return new FrameState(chopped, appended, Collections.emptyList());
+			}
+			if (frame instanceof ChopFrame chop) {
+				int absent = chop.getAbsentVariables();
+				if (absent <= locals.size())
+					return new FrameState(chopped, locals.subList(0, locals.size() - absent), Collections.emptyList());
+				if (chopped < 0)
+					return null;
+				return new FrameState(chopped + absent - locals.size(), Collections.emptyList(), Collections.emptyList());
+			}
+			FullFrame full = (FullFrame) frame;
+			return new FrameState(-1, full.getLocals(), full.getStack());
+		}
+
+		/**
+		 * @param target
+		 * 		State to encode.
+		 * @param delta
+		 * 		Offset delta of the frame.
+		 *
+		 * @return Frame leading from this state to the target state, or {@code null} when the target cannot
+		 * be expressed relative to this state.
+		 */
+		@Nullable
+		private StackMapFrame encode(@Nonnull FrameState target, int delta) {
+			int targetLocals = target.locals.size();
+			int currentLocals = locals.size();
+			if (chopped == target.chopped && sameTypes(locals, target.locals)) {
+				if (target.stack.isEmpty())
+					return delta <= 63 ? new SameFrame(delta) : new SameFrameExtended(delta);
+				if (target.stack.size() == 1)
+					return delta <= 63 ?
+							new SameLocalsOneStackItem(delta, target.stack.get(0)) :
+							new SameLocalsOneStackItemExtended(delta, target.stack.get(0));
+			} else if (target.stack.isEmpty() && chopped == target.chopped) {
+				if (targetLocals > currentLocals && targetLocals - currentLocals <= 3
+						&& sameTypes(locals, target.locals.subList(0, currentLocals)))
+					return new AppendFrame(delta, new ArrayList<>(target.locals.subList(currentLocals, targetLocals)));
+				if (targetLocals < currentLocals && currentLocals - targetLocals <= 3
+						&& sameTypes(locals.subList(0, targetLocals), target.locals))
+					return new ChopFrame(delta, currentLocals - targetLocals);
+			} else if (target.stack.isEmpty() && chopped >= 0 && target.chopped > chopped && targetLocals == 0) {
+				int absent = currentLocals + target.chopped - chopped;
+				if (absent <= 3)
+					return new ChopFrame(delta, absent);
+			}
+			if (target.chopped < 0)
+				return new FullFrame(delta, new ArrayList<>(target.locals), new ArrayList<>(target.stack));
+			return null;
+		}
+
+		private static boolean sameTypes(@Nonnull List<TypeInfo> a, @Nonnull List<TypeInfo> b) {
+			if (a.size() != b.size())
+				return false;
+			for (int i = 0; i < a.size(); i++) {
+				TypeInfo typeA = a.get(i);
+				TypeInfo typeB = b.get(i);
+				if (typeA.getTag() != typeB.getTag())
+					return false;
+				if (typeA instanceof ObjectVariableInfo objectA && typeB instanceof ObjectVariableInfo objectB
+						&& !Objects.equals(objectA.getClassEntry(), objectB.getClassEntry()))
+					return false;
+				if (typeA instanceof UninitializedVariableInfo uninitializedA && typeB instanceof UninitializedVariableInfo uninitializedB
+						&& uninitializedA.getOffset() != uninitializedB.getOffset())
+					return false;
+			}
+			return true;
+		}
+	}
+}
@@ -11,7 +11,7 @@
 import software.coley.cafedude.io.ClassBuilder;
 import software.coley.cafedude.io.ClassFileReader;
 import software.coley.cafedude.io.FallbackInstructionReader;
-import software.coley.cafedude.io.IndexableByteStream;
+import software.coley.cafedude.io.ByteCursor;
 import software.coley.cafedude.io.InstructionReader;
 
 import java.io.IOException;
@@ -37,10 +37,10 @@
  * @see ClassFileReader#getFallbackInstructionReader(ClassBuilder)
  */
 public class IllegalRewritingInstructionsReader implements FallbackInstructionReader {
-	private static final Instruction NOP_INSN = new BasicInstruction(NOP);
-	private static final Instruction ALOAD_0_INSN = new BasicInstruction(ALOAD_0);
-	private static final Instruction CALOAD = new BasicInstruction(Opcodes.CALOAD);
-	private static final Instruction RETURN_INSN = new BasicInstruction(RETURN);
+	private static final Instruction NOP_INSN = BasicInstruction.of(NOP);
+	private static final Instruction ALOAD_0_INSN = BasicInstruction.of(ALOAD_0);
+	private static final Instruction CALOAD = BasicInstruction.of(Opcodes.CALOAD);
+	private static final Instruction RETURN_INSN = BasicInstruction.of(RETURN);
 	private final int classVersion;
 	private final ConstPool cp;
 	boolean rewritten;
@@ -58,7 +58,7 @@ public IllegalRewritingInstructionsReader(@Nonnull ConstPool cp, int classVersio
 
 	@Nonnull
 	@Override
-	public List<Instruction> read(int opcode, @Nonnull IndexableByteStream is) throws IOException {
+	public List<Instruction> read(int opcode, @Nonnull ByteCursor is) throws IOException {
 		// Handle 'should-not-reach-here' which changes depending on the class version.
 		if ((classVersion <= VersionConstants.JAVA8 && opcode == shouldnotreachhere_v8)
 				|| (classVersion == VersionConstants.JAVA9 && opcode == shouldnotreachhere_v9)
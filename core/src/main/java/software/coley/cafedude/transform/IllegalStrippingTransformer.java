@@ -5,6 +5,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.ConstPoolReferences;
 import software.coley.cafedude.classfile.ConstantPoolConstants;
 import software.coley.cafedude.classfile.Descriptor;
 import software.coley.cafedude.classfile.Field;
@@ -30,8 +31,11 @@
 import software.coley.cafedude.classfile.attribute.BootstrapMethodsAttribute.BootstrapMethod;
 import software.coley.cafedude.classfile.attribute.CodeAttribute;
 import software.coley.cafedude.classfile.attribute.CodeAttribute.ExceptionTableEntry;
+import software.coley.cafedude.classfile.attribute.CodeRelocator;
 import software.coley.cafedude.classfile.attribute.CodeUtilities;
 import software.coley.cafedude.classfile.attribute.ConstantValueAttribute;
+import software.coley.cafedude.classfile.attribute.ControlFlowGraph;
+import software.coley.cafedude.classfile.attribute.ControlFlowGraph.BasicBlock;
 import software.coley.cafedude.classfile.attribute.DefaultAttribute;
 import software.coley.cafedude.classfile.attribute.EnclosingMethodAttribute;
 import software.coley.cafedude.classfile.attribute.ExceptionsAttribute;
@@ -64,11 +68,13 @@
 import software.coley.cafedude.classfile.instruction.LookupSwitchInstruction;
 import software.coley.cafedude.classfile.instruction.TableSwitchInstruction;
 import software.coley.cafedude.io.AttributeHolderType;
-import software.coley.cafedude.io.IndexableByteStream;
+import software.coley.cafedude.io.ByteCursor;
 import software.coley.cafedude.io.InstructionReader;
 import software.coley.cafedude.io.InstructionWriter;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -110,7 +116,7 @@ public void transform() {
 		logger.debug("Transforming '{}'", clazz.getName());
 
 		// Record existing CP refs.
-		Set<CpEntry> cpAccesses = clazz.cpAccesses();
+		ConstPoolReferences cpReferences = clazz.computeCpReferences();
 
 		// Remove members with illegal descriptors.
 		// If any of these exist the class isn't going to ever be loaded (without throwing a LinkageError)
@@ -140,74 +146,68 @@ public void transform() {
 
 		// Record filtered CP refs, the difference of the sets are the indices that were referenced
 		// by removed attributes/data.
-		Set<CpEntry> filteredCpAccesses = clazz.cpAccesses();
-		cpAccesses.removeAll(filteredCpAccesses);
+		BitSet orphanedIndices = cpReferences.getReferencedIndices();
+		orphanedIndices.andNot(clazz.computeCpReferences().getReferencedIndices());
+		if (!orphanedIndices.isEmpty())
+			logger.debug("Stripping '{}' left {} constant pool entries unreferenced",
+					clazz.getName(), orphanedIndices.cardinality());
 	}
 
 	/**
-	 * Replaces dead code with {@code NOP} instructions.
+	 * Replaces dead code with {@code NOP} instructions, keeping the offsets of the remaining code.
+	 * See {@link DeadCodeRemovingTransformer} to remove dead code instead.
 	 *
 	 * @param code
 	 * 		Code to visit.
 	 */
 	protected void removeDeadInstructions(@Nonnull CodeAttribute code) {
-		// Compute which instructions are visited by walking the method's control flow.
-		Set<Instruction> visited = Collections.newSetFromMap(new IdentityHashMap<>());
-
-		// Visit from the start + try-catch handler blocks
-		Queue<Integer> offsetsToVisit = new ArrayDeque<>();
-		offsetsToVisit.add(0);
-		for (ExceptionTableEntry e : code.getExceptionTable())
-			offsetsToVisit.add(e.getHandlerPc());
-
-		// Visit flow
-		List<Instruction> instructions = code.getInstructions();
-		int instructionCount = instructions.size();
-		while (!offsetsToVisit.isEmpty()) {
-			int offset = offsetsToVisit.remove();
-			Instruction instruction = code.getInstructionAtOffset(offset);
-			if (instruction == null)
-				continue;
-			int insnIndex = code.indexOf(instruction);
-			if (insnIndex < 0)
-				continue;
-			for (int i = insnIndex; i < instructionCount; i++) {
-				instruction = instructions.get(i);
-				if (!visited.add(instruction))
-					break;
-
-				// Add new offsets for control flow branches.
-				if (isBranch(instruction) && instruction instanceof IntOperandInstruction jump) {
-					int base = code.computeOffsetOf(jump);
-					offsetsToVisit.add(base + jump.getOperand());
-				} else if (instruction instanceof TableSwitchInstruction table) {
-					int base = code.computeOffsetOf(table);
-					offsetsToVisit.add(base + table.getDefault());
-					table.getOffsets().forEach(off -> offsetsToVisit.add(base + off));
-				} else if (instruction instanceof LookupSwitchInstruction lookup) {
-					int base = code.computeOffsetOf(lookup);
-					offsetsToVisit.add(base + lookup.getDefault());
-					lookup.getOffsets().forEach(off -> offsetsToVisit.add(base + off));
-				}
-
-				// Abort sequential stepping if this instruction is terminal or always-take branching.
-				if (isTerminalOrAlwaysTakeFlowControl(instruction))
-					break;
+		// Compute which blocks are visited by walking the method's control flow.
+		ControlFlowGraph graph = code.getControlFlowGraph();
+		BasicBlock entry = graph.getEntryBlock();
+		if (entry == null)
+			return;
+		List<BasicBlock> blocks = graph.getBlocks();
+		boolean[] visited = new boolean[blocks.size()];
+		Queue<BasicBlock> blocksToVisit = new ArrayDeque<>();
+		visited[entry.getIndex()] = true;
+		blocksToVisit.add(entry);
+
+		// Visit from the start + try-catch handler blocks, even if the range they cover is never reached
+		for (ExceptionTableEntry e : code.getExceptionTable()) {
+			BasicBlock handler = graph.getBlockAtOffset(e.getHandlerPc());
+			if (handler != null && handler.getStartOffset() == e.getHandlerPc() && !visited[handler.getIndex()]) {
+				visited[handler.getIndex()] = true;
+				blocksToVisit.add(handler);
 			}
 		}
+		while (!blocksToVisit.isEmpty()) {
+			BasicBlock block = blocksToVisit.remove();
+			for (BasicBlock successor : block.getSuccessors())
+				if (!visited[successor.getIndex()]) {
+					visited[successor.getIndex()] = true;
+					blocksToVisit.add(successor);
+				}
+			for (BasicBlock handler : block.getExceptionSuccessors())
+				if (!visited[handler.getIndex()]) {
+					visited[handler.getIndex()] = true;
+					blocksToVisit.add(handler);
+				}
+		}
 
-		// Replace any unvisited instructions with NOP
-		BasicInstruction nop = new BasicInstruction(NOP);
-		for (int i = instructions.size() - 1; i >= 0; i--) {
+		// Replace any unvisited instructions with NOP, building a new list rather than inserting in place
+		BasicInstruction nop = BasicInstruction.of(NOP);
+		List<Instruction> instructions = code.getInstructions();
+		List<Instruction> replaced = new ArrayList<>(instructions.size());
+		for (int i = 0; i < instructions.size(); i++) {
 			Instruction instruction = instructions.get(i);
-			if (!visited.contains(instruction)) {
-				int extraNops = instruction.computeSize() - 1;
-				instructions.set(i, nop);
-				for (int j = 0; j < extraNops; j++) {
-					instructions.add(i, nop);
-				}
+			if (visited[graph.getBlockOf(i).getIndex()]) {
+				replaced.add(instruction);
+			} else {
+				for (int j = instruction.computeSize(); j > 0; j--)
+					replaced.add(nop);
 			}
 		}
+		code.setInstructions(replaced);
 	}
 
 	/**
@@ -222,6 +222,7 @@ protected void removeDeadInstructions(@Nonnull CodeAttribute code) {
 	protected void removeInstructionReinterpretation(@Nonnull CodeAttribute code, int passCount) {
 		List<Instruction> instructions = code.getInstructions();
 		int instructionCount = instructions.size();
+		boolean rewritten = false;
 		for (int i = 0; i < instructionCount; i++) {
 			Instruction instruction = instructions.get(i);
 			if (isBranch(instruction) && instruction instanceof IntOperandInstruction jump) {
@@ -258,7 +259,7 @@ protected void removeInstructionReinterpretation(@Nonnull CodeAttribute code, in
 						int tempSequenceLength = instructionAtOffset.computeSize();
 						int tempInsnIndexToCheckForAlignment = 1;
 						while (next <= instructionCount) {
-							IndexableByteStream is = new IndexableByteStream(methodBytecode);
+							ByteCursor is = new ByteCursor(methodBytecode);
 							is.moveTo(methodBytecodeOffset);
 							reinrerpreted = new InstructionReader().read(is, pool, tempSequenceLength - offsetDifference);
 
@@ -269,11 +270,13 @@ protected void removeInstructionReinterpretation(@Nonnull CodeAttribute code, in
 							tempSequenceLength += instructions.get(next++).computeSize();
 
 							// If we observe that we hit code that aligns with the normal interpretation then this block is complete.
-							CodeAttribute tmpCode = new CodeAttribute(Placeholders.UTF8, 0, 0, reinrerpreted, Collections.emptyList(), Collections.emptyList());
+							// Offsets are summed by position, since shared instructions may appear more than once.
+							int tmpOffset = 0;
+							for (int j = 0; j < tempInsnIndexToCheckForAlignment && j < reinrerpreted.size(); j++)
+								tmpOffset += reinrerpreted.get(j).computeSize();
 							for (int j = tempInsnIndexToCheckForAlignment; j < reinrerpreted.size(); j++) {
 								// Get the offset of this reinterpreted instruction in terms of the original method bytecode
 								Instruction reinterpretedInsn = reinrerpreted.get(j);
-								int tmpOffset = tmpCode.computeOffsetOf(reinterpretedInsn);
 								int offsetInOriginalMethod = tmpOffset + offsetOfContainingInstruction + offsetDifference;
 
 								// If the offset of this instruction is a match for an offset in the original code
@@ -285,6 +288,7 @@ protected void removeInstructionReinterpretation(@Nonnull CodeAttribute code, in
 									break;
 								}
 								tempInsnIndexToCheckForAlignment = Math.max(tempInsnIndexToCheckForAlignment, j);
+								tmpOffset += reinterpretedInsn.computeSize();
 							}
 						}
 					} catch (Throwable ignored) {
@@ -309,10 +313,9 @@ protected void removeInstructionReinterpretation(@Nonnull CodeAttribute code, in
 					int newRelativeJumpOffset = reinterpretedBlockOffset - code.computeOffsetOf(jump);
 					jump.setOperand(newRelativeJumpOffset);
 
-					// TODO: Rewrite 'goto' as 'goto_w' when the distance between the original location
-					//  and the rewritten block location is too large.
-					//  - Ensure our handling of 'reinterpretedBlockOffset' allows for this
+					// The jump may now be too far for a short offset, which is handled once all passes are done.
 					instructions.addAll(reinrerpreted);
+					rewritten = true;
 
 					// Sanity check
 					if (code.getInstructionAtOffset(newRelativeJumpOffset + currentOffset) != reinrerpreted.get(0)) {
@@ -378,8 +381,27 @@ protected void removeInstructionReinterpretation(@Nonnull CodeAttribute code, in
 		}
 
 		// It is possible to stack reinterpretation, so we will allow multiple passes.
-		if (checkInvalidJumpUpTo(code, Integer.MAX_VALUE) && passCount < reinterpretationPasses)
+		boolean invalidJumps = checkInvalidJumpUpTo(code, Integer.MAX_VALUE);
+		if (invalidJumps && passCount < reinterpretationPasses)
 			removeInstructionReinterpretation(code, passCount + 1);
+		else if (!invalidJumps && (rewritten || passCount > 0))
+			widenRedirectedJumps(code);
+	}
+
+	/**
+	 * Jumps redirected to reinterpreted blocks at the end of the method may be too far for a short offset.
+	 * Once no jumps into operand bytes remain, every offset points to an instruction, so the code can be
+	 * relocated to widen them.
+	 *
+	 * @param code
+	 * 		Code to visit.
+	 */
+	private void widenRedirectedJumps(@Nonnull CodeAttribute code) {
+		try {
+			new CodeRelocator(code).relocate();
+		} catch (IllegalStateException ex) {
+			logger.warn("Could not widen jumps to reinterpreted blocks", ex);
+		}
 	}
 
 	/**
@@ -394,7 +416,7 @@ protected void removeInvalidInstructions(@Nonnull CodeAttribute code) {
 		List<Instruction> instructions = code.getInstructions();
 		if (instructions.size() <= 1)
 			return;
-		int maxPc = code.computeOffsetOf(instructions.get(instructions.size() - 1));
+		int maxPc = code.computeSize() - instructions.get(instructions.size() - 1).computeSize();
 
 		// Remove junk try-catch entries with bogus offsets
 		List<ExceptionTableEntry> exceptions = code.getExceptionTable();
@@ -421,9 +443,9 @@ protected void removeInvalidInstructions(@Nonnull CodeAttribute code) {
 				int jumpOffset = code.computeOffsetOf(jump) + jump.getOperand();
 				if (jumpOffset > maxPc || jumpOffset < 0) {
 					int size = instruction.computeSize();
-					instructions.set(i, new BasicInstruction(RETURN));
+					instructions.set(i, BasicInstruction.of(RETURN));
 					for (int j = 0; j < size - 1; j++)
-						instructions.add(i, new BasicInstruction(NOP));
+						instructions.add(i, BasicInstruction.of(NOP));
 				}
 			} else if (instruction instanceof TableSwitchInstruction tswitch) {
 				int switchOffset = code.computeOffsetOf(tswitch);
@@ -432,9 +454,9 @@ protected void removeInvalidInstructions(@Nonnull CodeAttribute code) {
 						|| tswitch.getOffsets().stream().anyMatch(o -> switchOffset + o > maxPc)
 						|| tswitch.getOffsets().stream().anyMatch(o -> switchOffset + o < 0)) {
 					int size = instruction.computeSize();
-					instructions.set(i, new BasicInstruction(RETURN));
+					instructions.set(i, BasicInstruction.of(RETURN));
 					for (int j = 0; j < size - 1; j++)
-						instructions.add(i, new BasicInstruction(NOP));
+						instructions.add(i, BasicInstruction.of(NOP));
 				}
 			} else if (instruction instanceof LookupSwitchInstruction lswitch) {
 				int switchOffset = code.computeOffsetOf(lswitch);
@@ -443,9 +465,9 @@ protected void removeInvalidInstructions(@Nonnull CodeAttribute code) {
 						|| lswitch.getOffsets().stream().anyMatch(o -> switchOffset + o > maxPc)
 						|| lswitch.getOffsets().stream().anyMatch(o -> switchOffset + o < 0)) {
 					int size = instruction.computeSize();
-					instructions.set(i, new BasicInstruction(RETURN));
+					instructions.set(i, BasicInstruction.of(RETURN));
 					for (int j = 0; j < size - 1; j++)
-						instructions.add(i, new BasicInstruction(NOP));
+						instructions.add(i, BasicInstruction.of(NOP));
 				}
 			}
 			// LDC that does not have loadable content
@@ -453,9 +475,9 @@ else if ((op == LDC || op == LDC_W || op == LDC2_W)
 					&& instruction instanceof CpRefInstruction ldc
 					&& !(ldc.getEntry() instanceof LoadableConstant)) {
 				int size = instruction.computeSize();
-				instructions.set(i, new BasicInstruction(RETURN));
+				instructions.set(i, BasicInstruction.of(RETURN));
 				for (int j = 0; j < size - 1; j++)
-					instructions.add(i, new BasicInstruction(NOP));
+					instructions.add(i, BasicInstruction.of(NOP));
 			}
 		}
 	}
@@ -1064,8 +1086,10 @@ protected static void shiftJumps(@Nonnull List<Instruction> instructions,
 	protected static String disassemble(@Nonnull CodeAttribute code) {
 		String dis;
 		StringBuilder sb = new StringBuilder();
+		int offset = 0;
 		for (Instruction instruction : code.getInstructions()) {
-			sb.append(code.computeOffsetOf(instruction)).append(": ").append(instruction).append('\n');
+			sb.append(offset).append(": ").append(instruction).append('\n');
+			offset += instruction.computeSize();
 		}
 		dis = sb.toString();
 		return dis;
@@ -2,19 +2,56 @@
 
 import jakarta.annotation.Nonnull;
 
+import java.io.DataOutput;
+import java.io.UTFDataFormatException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 /**
  * Byte buffer that can extend its capacity.
+ * <br>
+ * Also usable as a {@link DataOutput}, in which case none of the write operations throw besides
+ * {@link #writeUTF(String)} when given text that is too long to encode.
  *
  * @author xDark
  */
-public class GrowingByteBuffer {
-	private ByteBuffer buffer = ByteBuffer.allocate(1024);
+public class GrowingByteBuffer implements DataOutput {
+	private static final int DEFAULT_CAPACITY = 1024;
+	private ByteBuffer buffer;
+
+	/**
+	 * New buffer with a default initial capacity.
+	 */
+	public GrowingByteBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param initialCapacity
+	 * 		Initial capacity of the buffer. When the final size of the content is known up front,
+	 * 		passing it here ensures the buffer is allocated only once.
+	 */
+	public GrowingByteBuffer(int initialCapacity) {
+		buffer = ByteBuffer.allocate(Math.max(initialCapacity, 16));
+	}
+
+	/**
+	 * New buffer that writes into a caller supplied buffer, such as one that is pooled and reused.
+	 * Content is written from the start of the given buffer. If it runs out of space, the content is moved
+	 * to a new, larger buffer, in which case {@link #unwrap()} no longer returns the given buffer.
+	 *
+	 * @param buffer
+	 * 		Buffer to write into. Its position is reset to zero, and its byte order set to big-endian.
+	 */
+	public GrowingByteBuffer(@Nonnull ByteBuffer buffer) {
+		this.buffer = buffer.clear().order(ByteOrder.BIG_ENDIAN);
+	}
 
 	/**
 	 * Ensures that {@code size} of bytes can be
-	 * written.
+	 * written. When the buffer is expanded, its capacity is at least doubled so that writing
+	 * content of unknown length does not repeatedly copy it.
 	 *
 	 * @param size
 	 * 		Size to check.
@@ -27,7 +64,7 @@ public GrowingByteBuffer ensureWriteable(int size) {
 		int capacity = buffer.capacity();
 		int newLength = buffer.position() + size;
 		if (capacity < newLength) {
-			ByteBuffer copy = ByteBuffer.allocate((newLength + 16) >> 1 << 1);
+			ByteBuffer copy = ByteBuffer.allocate(Math.max(newLength, capacity << 1));
 			buffer.flip();
 			copy.put(buffer);
 			this.buffer = copy;
@@ -147,6 +184,150 @@ public GrowingByteBuffer putDouble(double value) {
 		return this;
 	}
 
+	/**
+	 * Writes bytes to a buffer.
+	 *
+	 * @param array
+	 * 		Array to copy bytes from.
+	 * @param offset
+	 * 		Offset into the array to start copying from.
+	 * @param length
+	 * 		Number of bytes to copy.
+	 *
+	 * @return This buffer.
+	 */
+	@Nonnull
+	public GrowingByteBuffer put(@Nonnull byte[] array, int offset, int length) {
+		ensureWriteable(length).buffer.put(array, offset, length);
+		return this;
+	}
+
+	/**
+	 * Writes bytes to a buffer.
+	 *
+	 * @param array
+	 * 		Array to copy bytes from.
+	 *
+	 * @return This buffer.
+	 */
+	@Nonnull
+	public GrowingByteBuffer put(@Nonnull byte[] array) {
+		return put(array, 0, array.length);
+	}
+
+	/**
+	 * Writes the remaining content of another buffer to this buffer.
+	 * The position of the given buffer is advanced to its limit.
+	 *
+	 * @param src
+	 * 		Buffer to copy bytes from.
+	 *
+	 * @return This buffer.
+	 */
+	@Nonnull
+	public GrowingByteBuffer put(@Nonnull ByteBuffer src) {
+		ensureWriteable(src.remaining()).buffer.put(src);
+		return this;
+	}
+
+	/**
+	 * Overwrites an int at a position that has already been written or skipped over.
+	 * Used to back-patch length values once the content they describe has been written.
+	 *
+	 * @param index
+	 * 		Position to write at.
+	 * @param value
+	 * 		Int to write.
+	 *
+	 * @return This buffer.
+	 */
+	@Nonnull
+	public GrowingByteBuffer putInt(int index, int value) {
+		buffer.putInt(index, value);
+		return this;
+	}
+
+	@Override
+	public void write(int b) {
+		put(b);
+	}
+
+	@Override
+	public void write(@Nonnull byte[] b) {
+		put(b);
+	}
+
+	@Override
+	public void write(@Nonnull byte[] b, int off, int len) {
+		put(b, off, len);
+	}
+
+	@Override
+	public void writeBoolean(boolean v) {
+		putBoolean(v);
+	}
+
+	@Override
+	public void writeByte(int v) {
+		put(v);
+	}
+
+	@Override
+	public void writeShort(int v) {
+		putShort(v);
+	}
+
+	@Override
+	public void writeChar(int v) {
+		putChar((char) v);
+	}
+
+	@Override
+	public void writeInt(int v) {
+		putInt(v);
+	}
+
+	@Override
+	public void writeLong(long v) {
+		putLong(v);
+	}
+
+	@Override
+	public void writeFloat(float v) {
+		putFloat(v);
+	}
+
+	@Override
+	public void writeDouble(double v) {
+		putDouble(v);
+	}
+
+	@Override
+	public void writeBytes(@Nonnull String s) {
+		int length = s.length();
+		ByteBuffer buffer = ensureWriteable(length).buffer;
+		for (int i = 0; i < length; i++)
+			buffer.put((byte) s.charAt(i));
+	}
+
+	@Override
+	public void writeChars(@Nonnull String s) {
+		int length = s.length();
+		ByteBuffer buffer = ensureWriteable(length * 2).buffer;
+		for (int i = 0; i < length; i++)
+			buffer.putChar(s.charAt(i));
+	}
+
+	@Override
+	public void writeUTF(@Nonnull String s) throws UTFDataFormatException {
+		int encodedLength = ModifiedUtf8.encodedLength(s);
+		if (encodedLength > ModifiedUtf8.MAX_LENGTH)
+			throw new UTFDataFormatException("Encoded string too long: " + encodedLength + " bytes");
+		ByteBuffer buffer = ensureWriteable(encodedLength + 2).buffer;
+		buffer.putShort((short) encodedLength);
+		ModifiedUtf8.encode(s, encodedLength, buffer);
+	}
+
 	/**
 	 * @return Current position.
 	 */
@@ -169,6 +350,19 @@ public GrowingByteBuffer skip(int bytes) {
 		return this;
 	}
 
+	/**
+	 * @return Copy of the content written so far.
+	 */
+	@Nonnull
+	public byte[] toByteArray() {
+		ByteBuffer buffer = this.buffer;
+		if (buffer.hasArray())
+			return Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.arrayOffset() + buffer.position());
+		byte[] copy = new byte[buffer.position()];
+		buffer.get(0, copy);
+		return copy;
+	}
+
 	/**
 	 * @return Underlying buffer.
 	 */
@@ -0,0 +1,164 @@
+package software.coley.cafedude.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codec for the modified UTF-8 format used by class files, and by {@link java.io.DataOutput#writeUTF(String)}.
+ * <br>
+ * Text made up of only ASCII characters, which is the case for most identifiers, is encoded and decoded
+ * one byte to one character without any intermediate arrays.
+ *
+ * @author Matt Coley
+ */
+public final class ModifiedUtf8 {
+	/**
+	 * Maximum encoded length that can be represented by a {@code u2} length prefix.
+	 */
+	public static final int MAX_LENGTH = 0xFFFF;
+
+	private ModifiedUtf8() {
+	}
+
+	/**
+	 * @param text
+	 * 		Text to measure.
+	 *
+	 * @return Number of bytes the text encodes to, not including a length prefix.
+	 */
+	public static int encodedLength(@Nonnull String text) {
+		int length = text.length();
+		int encodedLength = length;
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c >= 0x80 || c == 0)
+				encodedLength += (c >= 0x800) ? 2 : 1;
+		}
+		return encodedLength;
+	}
+
+	/**
+	 * Writes the encoded text at the current position of the buffer, not including a length prefix.
+	 *
+	 * @param text
+	 * 		Text to encode.
+	 * @param encodedLength
+	 * 		Number of bytes the text encodes to, as given by {@link #encodedLength(String)}.
+	 * @param buffer
+	 * 		Buffer to write to. Must have at least {@code encodedLength} bytes remaining.
+	 */
+	public static void encode(@Nonnull String text, int encodedLength, @Nonnull ByteBuffer buffer) {
+		int length = text.length();
+		if (encodedLength == length && buffer.hasArray()) {
+			// All ASCII, so each character is written directly to the backing array as a single byte.
+			byte[] array = buffer.array();
+			int pos = buffer.arrayOffset() + buffer.position();
+			for (int i = 0; i < length; i++)
+				array[pos + i] = (byte) text.charAt(i);
+			buffer.position(buffer.position() + length);
+			return;
+		}
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80 && c != 0) {
+				buffer.put((byte) c);
+			} else if (c >= 0x800) {
+				buffer.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else {
+				buffer.put((byte) (0xC0 | ((c >> 6) & 0x1F)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	/**
+	 * @param data
+	 * 		Array holding the encoded text.
+	 * @param offset
+	 * 		Offset of the encoded text in the array.
+	 * @param length
+	 * 		Length of the encoded text.
+	 *
+	 * @return {@code true} when the content is plain ASCII, which decodes one byte to one character.
+	 *
+	 * @throws UTFDataFormatException
+	 * 		When the content is not valid modified UTF-8.
+	 */
+	public static boolean validate(@Nonnull byte[] data, int offset, int length) throws UTFDataFormatException {
+		int end = offset + length;
+		if (offset < 0 || length < 0 || end > data.length)
+			throw new UTFDataFormatException("UTF8 content out of bounds");
+		boolean ascii = true;
+		int i = offset;
+		while (i < end) {
+			int c = data[i] & 0xFF;
+			if (c > 0 && c < 0x80) {
+				i++;
+				continue;
+			}
+			ascii = false;
+			switch (c >> 4) {
+				case 0, 1, 2, 3, 4, 5, 6, 7 -> i++;
+				case 12, 13 -> {
+					if (i + 2 > end || (data[i + 1] & 0xC0) != 0x80)
+						throw new UTFDataFormatException("Malformed input around byte " + (i - offset));
+					i += 2;
+				}
+				case 14 -> {
+					if (i + 3 > end || (data[i + 1] & 0xC0) != 0x80 || (data[i + 2] & 0xC0) != 0x80)
+						throw new UTFDataFormatException("Malformed input around byte " + (i - offset));
+					i += 3;
+				}
+				default -> throw new UTFDataFormatException("Malformed input around byte " + (i - offset));
+			}
+		}
+		return ascii;
+	}
+
+	/**
+	 * @param data
+	 * 		Array holding the encoded text, previously checked by {@link #validate(byte[], int, int)}.
+	 * @param offset
+	 * 		Offset of the encoded text in the array.
+	 * @param length
+	 * 		Length of the encoded text.
+	 * @param ascii
+	 * 		Result of {@link #validate(byte[], int, int)} for the encoded text.
+	 *
+	 * @return Decoded text.
+	 */
+	@Nonnull
+	public static String decode(@Nonnull byte[] data, int offset, int length, boolean ascii) {
+		// ASCII is decoded straight into a compact Latin-1 string.
+		if (ascii)
+			return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+
+		char[] chars = new char[length];
+		int count = 0;
+		int i = offset;
+		int end = offset + length;
+		while (i < end) {
+			int c = data[i] & 0xFF;
+			switch (c >> 4) {
+				case 0, 1, 2, 3, 4, 5, 6, 7 -> {
+					chars[count++] = (char) c;
+					i++;
+				}
+				case 12, 13 -> {
+					chars[count++] = (char) (((c & 0x1F) << 6) | (data[i + 1] & 0x3F));
+					i += 2;
+				}
+				default -> {
+					chars[count++] = (char) (((c & 0x0F) << 12) | ((data[i + 1] & 0x3F) << 6) | (data[i + 2] & 0x3F));
+					i += 3;
+				}
+			}
+		}
+		return new String(chars, 0, count);
+	}
+}
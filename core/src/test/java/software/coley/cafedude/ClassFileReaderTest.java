@@ -0,0 +1,231 @@
+package software.coley.cafedude;
+
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ByteVector;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.ConstPool;
+import software.coley.cafedude.classfile.attribute.AnnotationDefaultAttribute;
+import software.coley.cafedude.classfile.attribute.AnnotationsAttribute;
+import software.coley.cafedude.classfile.attribute.Attribute;
+import software.coley.cafedude.classfile.attribute.CodeAttribute;
+import software.coley.cafedude.classfile.attribute.DefaultAttribute;
+import software.coley.cafedude.classfile.attribute.ParameterAnnotationsAttribute;
+import software.coley.cafedude.classfile.attribute.SourceDebugExtensionAttribute;
+import software.coley.cafedude.classfile.constant.CpUtf8;
+import software.coley.cafedude.classfile.instruction.Instruction;
+import software.coley.cafedude.classfile.instruction.IntOperandInstruction;
+import software.coley.cafedude.io.ByteCursor;
+import software.coley.cafedude.io.ClassFileReader;
+import software.coley.cafedude.io.ClassFileWriter;
+import software.coley.cafedude.io.FallbackInstructionReader;
+import software.coley.cafedude.io.IndexableByteStream;
+import software.coley.cafedude.io.InstructionReader;
+import software.coley.cafedude.transform.IllegalStrippingTransformer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
+import static software.coley.cafedude.classfile.attribute.AttributeConstants.*;
+
+/**
+ * Tests for {@link ClassFileReader} options.
+ */
+public class ClassFileReaderTest {
+	@Test
+	public void testUnknownAttributeContent() throws Exception {
+		byte[] content = {1, 2, 3, 4, 5};
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(V1_8, ACC_PUBLIC, "Custom", null, "java/lang/Object", null);
+		cw.visitAttribute(new org.objectweb.asm.Attribute("Custom") {
+			@Override
+			protected ByteVector write(ClassWriter classWriter, byte[] code, int codeLength, int maxStack, int maxLocals) {
+				return new ByteVector().putByteArray(content, 0, content.length);
+			}
+		});
+		cw.visitEnd();
+		byte[] code = cw.toByteArray();
+
+		// Unknown attributes hold the same content whether they are copied or refer to the input.
+		for (boolean lazy : new boolean[]{false, true}) {
+			ClassFileReader reader = new ClassFileReader();
+			reader.setLazyParsing(lazy);
+			ClassFile cf = reader.read(code);
+			DefaultAttribute attribute = (DefaultAttribute) cf.getAttributes().get(0);
+			assertEquals(content.length, attribute.computeInternalLength());
+			assertEquals(ByteBuffer.wrap(content), attribute.getDataBuffer());
+			assertArrayEquals(code, new ClassFileWriter().write(cf));
+			assertArrayEquals(content, attribute.getData());
+
+			// Replaced content is written out in place of the original
+			attribute.setData(new byte[]{9, 8});
+			ClassFile written = new ClassFileReader().read(new ClassFileWriter().write(cf));
+			assertArrayEquals(new byte[]{9, 8}, ((DefaultAttribute) written.getAttributes().get(0)).getData());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("removal")
+	public void testLegacyFallbackInstructionReader() throws Exception {
+		// Readers only implementing the stream based signature are bridged from the cursor
+		FallbackInstructionReader legacy = new FallbackInstructionReader() {
+			@Nonnull
+			@Override
+			public List<Instruction> read(int opcode, @Nonnull IndexableByteStream is) throws IOException {
+				assertEquals(3, is.getIndex());
+				return List.of(new IntOperandInstruction(BIPUSH, is.readUnsignedByte()));
+			}
+		};
+		byte[] content = {0, 0, (byte) 0xCB, 7, (byte) RETURN};
+		ByteBuffer direct = ByteBuffer.allocateDirect(content.length).put(content).flip();
+		for (ByteCursor cursor : new ByteCursor[]{new ByteCursor(content), new ByteCursor(direct)}) {
+			cursor.moveTo(2);
+			List<Instruction> instructions = new InstructionReader(legacy).read(cursor, new ConstPool(), 3);
+			assertEquals(2, instructions.size());
+			assertEquals(7, ((IntOperandInstruction) instructions.get(0)).getOperand());
+			assertEquals(RETURN, instructions.get(1).getOpcode());
+			assertEquals(content.length, cursor.getIndex());
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testSkipAttributes(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFileReader reader = new ClassFileReader();
+		reader.setSkipDebug(true);
+		reader.setSkipCode(true);
+		reader.setSkipAnnotations(true);
+		ClassFile cf = reader.read(code);
+		List<Attribute> attributes = new ArrayList<>(cf.getAttributes());
+		cf.getFields().forEach(f -> attributes.addAll(f.getAttributes()));
+		cf.getMethods().forEach(m -> attributes.addAll(m.getAttributes()));
+		for (Attribute attribute : attributes)
+			assertFalse(attribute instanceof CodeAttribute || attribute instanceof AnnotationsAttribute ||
+					attribute instanceof ParameterAnnotationsAttribute || attribute instanceof AnnotationDefaultAttribute ||
+					attribute instanceof SourceDebugExtensionAttribute, "Attribute was not skipped: " + attribute);
+
+		// Remaining content must still be readable after being written
+		new ClassFileReader().read(new ClassFileWriter().write(cf));
+	}
+
+	@Test
+	public void testSkipAttributesPerFlag() throws Exception {
+		byte[] code = createSkippableClass();
+		for (boolean lazy : new boolean[]{false, true}) {
+			// Nothing is skipped by default
+			ClassFileReader reader = new ClassFileReader();
+			reader.setLazyParsing(lazy);
+			assertSkipped(reader.read(code), Set.of());
+
+			// Debug attributes are dropped from within code, while the code itself is kept
+			reader = new ClassFileReader();
+			reader.setLazyParsing(lazy);
+			reader.setSkipDebug(true);
+			ClassFile cf = reader.read(code);
+			assertSkipped(cf, Set.of(LINE_NUMBER_TABLE, LOCAL_VARIABLE_TABLE, LOCAL_VARIABLE_TYPE_TABLE, SOURCE_DEBUG_EXTENSION));
+			CodeAttribute codeAttribute = cf.getMethods().get(0).getAttribute(CodeAttribute.class);
+			assertNotNull(codeAttribute);
+			assertEquals(1, codeAttribute.getInstructions().size());
+			assertTrue(codeAttribute.getAttributes().isEmpty());
+
+			// Debug attributes within code go along with it
+			reader = new ClassFileReader();
+			reader.setLazyParsing(lazy);
+			reader.setSkipCode(true);
+			assertSkipped(reader.read(code), Set.of(CODE, LINE_NUMBER_TABLE, LOCAL_VARIABLE_TABLE, LOCAL_VARIABLE_TYPE_TABLE));
+
+			reader = new ClassFileReader();
+			reader.setLazyParsing(lazy);
+			reader.setSkipAnnotations(true);
+			assertSkipped(reader.read(code), Set.of(RUNTIME_VISIBLE_ANNOTATIONS, RUNTIME_INVISIBLE_ANNOTATIONS,
+					RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS, ANNOTATION_DEFAULT));
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testInputNotRetained(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		byte[] input = code.clone();
+		ClassFile cf = new ClassFileReader().read(input);
+
+		// Outside of lazy parsing the class must not depend on the input, so clearing it changes nothing
+		Arrays.fill(input, (byte) 0);
+		ConstPool expected = new ClassFileReader().read(code).getPool();
+		ConstPool pool = cf.getPool();
+		for (int i = 1; i < pool.size(); i++)
+			if (pool.get(i) instanceof CpUtf8 utf8)
+				assertEquals(((CpUtf8) expected.get(i)).getText(), utf8.getText(), "Decoded from cleared input: " + cf.getName());
+		new IllegalStrippingTransformer(cf).transform();
+		assertArrayEquals(code, new ClassFileWriter().write(cf), "Class difference for: " + cf.getName());
+	}
+
+	/**
+	 * @param cf
+	 * 		Class to check.
+	 * @param skipped
+	 * 		Names of attributes that should be missing, of those in {@link #createSkippableClass()}.
+	 */
+	private static void assertSkipped(ClassFile cf, Set<String> skipped) {
+		Set<String> present = new HashSet<>();
+		List<Attribute> attributes = new ArrayList<>(cf.getAttributes());
+		cf.getMethods().forEach(m -> attributes.addAll(m.getAttributes()));
+		for (Attribute attribute : attributes) {
+			present.add(attribute.getName().getText());
+			if (attribute instanceof CodeAttribute code)
+				code.getAttributes().forEach(a -> present.add(a.getName().getText()));
+		}
+		for (String name : List.of(CODE, LINE_NUMBER_TABLE, LOCAL_VARIABLE_TABLE, LOCAL_VARIABLE_TYPE_TABLE,
+				SOURCE_FILE, SOURCE_DEBUG_EXTENSION, RUNTIME_VISIBLE_ANNOTATIONS, RUNTIME_INVISIBLE_ANNOTATIONS,
+				RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS, ANNOTATION_DEFAULT))
+			assertEquals(!skipped.contains(name), present.contains(name), "Unexpected presence of: " + name);
+	}
+
+	/**
+	 * @return Class with one of each attribute covered by the skip options, along with a {@code SourceFile}
+	 * which none of them cover.
+	 */
+	private static byte[] createSkippableClass() {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_ABSTRACT, "Example", null, "java/lang/Object", null);
+		cw.visitSource("Example.java", "SMAP");
+		cw.visitAnnotation("LVisible;", true).visitEnd();
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "example", "(Ljava/util/List;)V",
+				"(Ljava/util/List<Ljava/lang/String;>;)V", null);
+		mv.visitAnnotation("LInvisible;", false).visitEnd();
+		mv.visitParameterAnnotation(0, "LVisible;", true).visitEnd();
+		mv.visitCode();
+		Label start = new Label();
+		Label end = new Label();
+		mv.visitLabel(start);
+		mv.visitLineNumber(1, start);
+		mv.visitInsn(RETURN);
+		mv.visitLabel(end);
+		mv.visitLocalVariable("list", "Ljava/util/List;", "Ljava/util/List<Ljava/lang/String;>;", start, end, 0);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		mv = cw.visitMethod(ACC_PUBLIC | ACC_ABSTRACT, "value", "()I", null, null);
+		AnnotationVisitor av = mv.visitAnnotationDefault();
+		av.visit(null, 1);
+		av.visitEnd();
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+}
@@ -0,0 +1,144 @@
+package software.coley.cafedude;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.objectweb.asm.ClassWriter;
+import org.junit.jupiter.params.provider.MethodSource;
+import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.attribute.CodeAttribute;
+import software.coley.cafedude.classfile.attribute.SourceFileAttribute;
+import software.coley.cafedude.io.ClassFileReader;
+import software.coley.cafedude.io.ClassFileWriter;
+import software.coley.cafedude.transform.IllegalStrippingTransformer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Tests for the outputs and modes of {@link ClassFileWriter}.
+ */
+public class ClassFileWriterTest {
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testWriteTargets(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFile cf = new ClassFileReader().read(code);
+		new IllegalStrippingTransformer(cf).transform();
+		ClassFileWriter writer = new ClassFileWriter();
+
+		// Output stream
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		writer.write(cf, baos);
+		assertArrayEquals(code, baos.toByteArray(), "Stream difference for: " + cf.getName());
+
+		// Channel
+		baos.reset();
+		writer.write(cf, Channels.newChannel(baos));
+		assertArrayEquals(code, baos.toByteArray(), "Channel difference for: " + cf.getName());
+
+		// Direct buffer, written after some existing content
+		ByteBuffer buffer = ByteBuffer.allocateDirect(code.length + 4);
+		buffer.putInt(0xCAFED00D);
+		writer.write(cf, buffer);
+		assertEquals(buffer.capacity(), buffer.position());
+		byte[] written = new byte[code.length];
+		buffer.get(4, written);
+		assertArrayEquals(code, written, "Buffer difference for: " + cf.getName());
+
+		// Reused buffer holding old content, which must not show through gaps such as switch padding
+		buffer = ByteBuffer.allocate(code.length);
+		Arrays.fill(buffer.array(), (byte) 0x7F);
+		writer.write(cf, buffer);
+		assertEquals(buffer.capacity(), buffer.position());
+		assertArrayEquals(code, buffer.array(), "Dirty buffer difference for: " + cf.getName());
+
+		// Buffer that is too small
+		ByteBuffer small = ByteBuffer.allocate(code.length - 1);
+		assertThrows(BufferOverflowException.class, () -> writer.write(cf, small));
+		assertEquals(0, small.position());
+	}
+
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testLazyPassThrough(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFileReader lazyReader = new ClassFileReader();
+		lazyReader.setLazyParsing(true);
+		lazyReader.setPassThroughUntouched(true);
+
+		// Only the class attributes and the first method's attributes are touched,
+		// the remaining tables should be copied as-is and match the output of a fully decoded class.
+		ClassFile lazy = lazyReader.read(code);
+		ClassFile eager = new ClassFileReader().read(code);
+		for (ClassFile cf : List.of(lazy, eager)) {
+			cf.getAttributes().removeIf(attribute -> attribute instanceof SourceFileAttribute);
+			if (!cf.getMethods().isEmpty())
+				cf.getMethods().get(0).getAttributes().removeIf(attribute -> attribute instanceof CodeAttribute);
+		}
+		ClassFileWriter writer = new ClassFileWriter();
+		assertArrayEquals(writer.write(eager), writer.write(lazy), "Class difference for: " + sub);
+	}
+
+	@Test
+	public void testPassThroughDropsByHeader() throws Exception {
+		// A nest host in a Java 8 class, and a constant value on a non-static field, are dropped by name and location
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(V1_8, ACC_PUBLIC, "Inner", null, "java/lang/Object", null);
+		cw.visitNestHost("Outer");
+		cw.visitField(ACC_PRIVATE, "value", "I", null, 1).visitEnd();
+		cw.visitEnd();
+		byte[] code = cw.toByteArray();
+
+		// Tables holding attributes that would be dropped are not copied as-is
+		ClassFileReader lazyReader = new ClassFileReader();
+		lazyReader.setLazyParsing(true);
+		lazyReader.setPassThroughUntouched(true);
+		byte[] lazy = new ClassFileWriter().write(lazyReader.read(code));
+		ClassFile eager = new ClassFileReader().read(code);
+		assertTrue(eager.getAttributes().isEmpty());
+		assertTrue(eager.getFields().get(0).getAttributes().isEmpty());
+		assertArrayEquals(new ClassFileWriter().write(eager), lazy);
+	}
+
+	@ParameterizedTest
+	@MethodSource("supplyAllClasses")
+	public void testLazyMatchesEager(File sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub.toPath());
+		byte[] eager;
+		try {
+			eager = new ClassFileWriter().write(new ClassFileReader().read(code));
+		} catch (InvalidClassException ex) {
+			// Only classes that can be handled eagerly are expected to be handled lazily.
+			return;
+		}
+
+		// Untouched tables are still decoded by default, so anything the eager reader drops or rewrites is handled the same.
+		ClassFileReader lazyReader = new ClassFileReader();
+		lazyReader.setLazyParsing(true);
+		byte[] lazy = new ClassFileWriter().write(lazyReader.read(code));
+		assertArrayEquals(eager, lazy, "Class difference for: " + sub);
+	}
+
+	/**
+	 * @return Normal and obfuscated test files to check.
+	 */
+	public static List<File> supplyAllClasses() {
+		List<File> files = new ArrayList<>();
+		for (Path path : EqualityIOTest.supplyResourceClasses())
+			files.add(path.toFile());
+		files.addAll(CrasherPatchingTest.supply());
+		files.addAll(RegressionTests.supply());
+		return files;
+	}
+}
@@ -0,0 +1,49 @@
+package software.coley.cafedude;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.io.ClassFileReader;
+import software.coley.cafedude.io.ClassHeader;
+import software.coley.cafedude.io.ClassHeaderReader;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that asserts class headers match the details of fully read classes.
+ */
+public class ClassHeaderReaderTest {
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testHeaderEquality(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFile cf = new ClassFileReader().read(code);
+		ClassHeader header = new ClassHeaderReader().read(code);
+		assertEquals(cf.getVersionMinor(), header.versionMinor());
+		assertEquals(cf.getVersionMajor(), header.versionMajor());
+		assertEquals(cf.getAccess(), header.access());
+		assertEquals(cf.getName(), header.name());
+		assertEquals(cf.getSuperName(), header.superName());
+		assertEquals(cf.getInterfaceClasses().stream().map(c -> c.getName().getText()).collect(Collectors.toList()),
+				header.interfaces());
+	}
+
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testHeaderFromDirectBuffer(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassHeader expected = new ClassHeaderReader().read(code);
+
+		// Names are decoded straight from the buffer, which has no backing array
+		ByteBuffer buffer = ByteBuffer.allocateDirect(code.length + 3);
+		buffer.put(new byte[3]).put(code).position(3);
+		ClassHeader header = new ClassHeaderReader().read(buffer);
+		assertEquals(expected, header);
+		assertEquals(3, buffer.position());
+	}
+}
@@ -0,0 +1,544 @@
+package software.coley.cafedude;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.util.TraceClassVisitor;
+import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.Method;
+import software.coley.cafedude.classfile.attribute.Attribute;
+import software.coley.cafedude.classfile.attribute.CodeAttribute;
+import software.coley.cafedude.classfile.attribute.CodeAttribute.ExceptionTableEntry;
+import software.coley.cafedude.classfile.attribute.CodeRelocator;
+import software.coley.cafedude.classfile.attribute.CodeUtilities;
+import software.coley.cafedude.classfile.attribute.ControlFlowGraph;
+import software.coley.cafedude.classfile.attribute.ControlFlowGraph.BasicBlock;
+import software.coley.cafedude.classfile.attribute.StackMapTableAttribute;
+import software.coley.cafedude.classfile.constant.CpUtf8;
+import software.coley.cafedude.classfile.instruction.BasicInstruction;
+import software.coley.cafedude.classfile.instruction.Instruction;
+import software.coley.cafedude.classfile.instruction.IntOperandInstruction;
+import software.coley.cafedude.classfile.instruction.LookupSwitchInstruction;
+import software.coley.cafedude.classfile.instruction.Opcodes;
+import software.coley.cafedude.classfile.instruction.TableSwitchInstruction;
+import software.coley.cafedude.io.ClassFileReader;
+import software.coley.cafedude.io.ClassFileWriter;
+import software.coley.cafedude.transform.DeadCodeRemovingTransformer;
+import software.coley.cafedude.transform.IllegalStrippingTransformer;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Tests for instruction offsets, control flow and relocation of {@link CodeAttribute}.
+ */
+public class CodeAttributeTest {
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testInstructionOffsetIndex(Path sub) throws Exception {
+		ClassFile classFile = new ClassFileReader().read(Files.readAllBytes(sub));
+		for (Method method : classFile.getMethods()) {
+			CodeAttribute code = method.getAttribute(CodeAttribute.class);
+			if (code == null)
+				continue;
+
+			// Indexed lookups should match linear scans, including after changes to the instruction list
+			assertOffsetsMatch(code);
+			List<Instruction> instructions = code.getInstructions();
+			instructions.add(0, new BasicInstruction(Opcodes.NOP));
+			assertOffsetsMatch(code);
+			instructions.remove(instructions.size() / 2);
+			assertOffsetsMatch(code);
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testControlFlowGraph(Path sub) throws Exception {
+		ClassFile classFile = new ClassFileReader().read(Files.readAllBytes(sub));
+		for (Method method : classFile.getMethods()) {
+			CodeAttribute code = method.getAttribute(CodeAttribute.class);
+			if (code == null)
+				continue;
+
+			// Blocks should cover the code in order, with edges mirrored on both ends
+			ControlFlowGraph graph = code.getControlFlowGraph();
+			List<Instruction> instructions = code.getInstructions();
+			int nextIndex = 0;
+			int nextOffset = 0;
+			for (BasicBlock block : graph.getBlocks()) {
+				assertEquals(nextIndex, block.getStartIndex());
+				assertEquals(nextOffset, block.getStartOffset());
+				for (Instruction instruction : block.getInstructions())
+					nextOffset += instruction.computeSize();
+				assertEquals(nextOffset, block.getEndOffset());
+				for (int i = block.getStartIndex(); i < block.getEndIndex(); i++)
+					assertSame(block, graph.getBlockOf(i));
+				for (BasicBlock successor : block.getSuccessors())
+					assertTrue(successor.getPredecessors().contains(block));
+				for (BasicBlock handler : block.getExceptionSuccessors())
+					assertTrue(handler.getExceptionPredecessors().contains(block));
+				nextIndex = block.getEndIndex();
+			}
+			assertEquals(instructions.size(), nextIndex);
+			for (CodeAttribute.ExceptionTableEntry entry : code.getExceptionTable()) {
+				BasicBlock handler = graph.getBlockAtOffset(entry.getHandlerPc());
+				assertEquals(entry.getHandlerPc(), handler.getStartOffset());
+				BasicBlock covered = graph.getBlockAtOffset(entry.getStartPc());
+				assertTrue(covered.getExceptionSuccessors().contains(handler));
+			}
+
+			// The graph is cached until the code changes
+			assertSame(graph, code.getControlFlowGraph());
+			instructions.add(new BasicInstruction(Opcodes.NOP));
+			assertNotSame(graph, code.getControlFlowGraph());
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testDeadCodeRemovedFromSamples(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFile classFile = new ClassFileReader().read(code);
+		DeadCodeRemovingTransformer transformer = new DeadCodeRemovingTransformer(classFile);
+		transformer.transform();
+		byte[] modified = new ClassFileWriter().write(classFile);
+
+		// Classes without dead code are untouched, and a second pass finds nothing left to remove
+		if (transformer.getRemovedCount() == 0)
+			assertArrayEquals(code, modified);
+		DeadCodeRemovingTransformer second = new DeadCodeRemovingTransformer(new ClassFileReader().read(modified));
+		second.transform();
+		assertEquals(0, second.getRemovedCount());
+		assertDoesNotThrow(() -> disassemble(modified));
+	}
+
+	@Test
+	public void testDeadCodeRemoved() throws Exception {
+		// Dead code between a goto and its target, with its own frames and exception range, followed by a switch
+		// whose padding changes once the dead code is gone.
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC, "DeadCode", null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "test", "(I)I", null, null);
+		Label deadStart = new Label();
+		Label deadEnd = new Label();
+		Label deadHandler = new Label();
+		Label live = new Label();
+		Label one = new Label();
+		Label two = new Label();
+		Label other = new Label();
+		mv.visitCode();
+		mv.visitTryCatchBlock(deadStart, deadEnd, deadHandler, "java/lang/RuntimeException");
+		mv.visitJumpInsn(GOTO, live);
+		mv.visitLabel(deadStart);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(ICONST_5);
+		mv.visitInsn(IRETURN);
+		mv.visitLabel(deadEnd);
+		mv.visitLabel(deadHandler);
+		mv.visitFrame(F_SAME1, 0, null, 1, new Object[]{"java/lang/RuntimeException"});
+		mv.visitInsn(ATHROW);
+		mv.visitLabel(live);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitVarInsn(ILOAD, 0);
+		mv.visitTableSwitchInsn(1, 2, other, one, two);
+		mv.visitLabel(one);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(ICONST_1);
+		mv.visitInsn(IRETURN);
+		mv.visitLabel(two);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(ICONST_2);
+		mv.visitInsn(IRETURN);
+		mv.visitLabel(other);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+
+		ClassFile classFile = new ClassFileReader().read(cw.toByteArray());
+		DeadCodeRemovingTransformer transformer = new DeadCodeRemovingTransformer(classFile);
+		transformer.transform();
+		assertEquals(3, transformer.getRemovedCount());
+		CodeAttribute code = classFile.getMethods().get(0).getAttribute(CodeAttribute.class);
+		assertTrue(code.getExceptionTable().isEmpty());
+		byte[] modified = new ClassFileWriter().write(classFile);
+
+		// The class must still pass verification and behave the same
+		Class<?> cls = new ClassLoader(null) {
+			Class<?> define() {
+				return defineClass("DeadCode", modified, 0, modified.length);
+			}
+		}.define();
+		java.lang.reflect.Method test = cls.getMethod("test", int.class);
+		assertEquals(1, test.invoke(null, 1));
+		assertEquals(2, test.invoke(null, 2));
+		assertEquals(0, test.invoke(null, 3));
+	}
+
+	@Test
+	public void testDeadCodeStrippedKeepsHandlers() throws Exception {
+		// Dead code covered by an exception range, whose handler is only reachable through that range
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC, "DeadCode", null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "test", "()I", null, null);
+		Label deadStart = new Label();
+		Label deadEnd = new Label();
+		Label deadHandler = new Label();
+		Label live = new Label();
+		mv.visitCode();
+		mv.visitTryCatchBlock(deadStart, deadEnd, deadHandler, null);
+		mv.visitJumpInsn(GOTO, live);
+		mv.visitLabel(deadStart);
+		mv.visitInsn(ICONST_5);
+		mv.visitInsn(IRETURN);
+		mv.visitLabel(deadEnd);
+		mv.visitLabel(deadHandler);
+		mv.visitInsn(ATHROW);
+		mv.visitLabel(live);
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+
+		ClassFile classFile = new ClassFileReader().read(cw.toByteArray());
+		CodeAttribute code = classFile.getMethods().get(0).getAttribute(CodeAttribute.class);
+		new IllegalStrippingTransformer(classFile) {
+			{
+				removeDeadInstructions(code);
+			}
+		};
+
+		// Handlers are kept as roots of the flow, so only the covered range becomes 'nop'
+		List<Integer> opcodes = code.getInstructions().stream().map(Instruction::getOpcode).toList();
+		assertEquals(List.of(GOTO, NOP, NOP, ATHROW, ICONST_0, IRETURN), opcodes);
+		assertEquals(1, code.getExceptionTable().size());
+	}
+
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testCodeRelocated(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFile classFile = new ClassFileReader().read(code);
+
+		// Pad every instruction with a 'nop' in front of it, then take them out again.
+		// Everything should end up back where it started.
+		List<Instruction> added = new ArrayList<>();
+		List<CodeRelocator> relocators = new ArrayList<>();
+		for (Method method : classFile.getMethods()) {
+			CodeAttribute attribute = method.getAttribute(CodeAttribute.class);
+			if (attribute == null)
+				continue;
+			CodeRelocator relocator = new CodeRelocator(attribute);
+			List<Instruction> instructions = attribute.getInstructions();
+			List<Instruction> padded = new ArrayList<>();
+			for (Instruction instruction : instructions) {
+				Instruction nop = new BasicInstruction(NOP);
+				padded.add(nop);
+				padded.add(instruction);
+				added.add(nop);
+			}
+			instructions.clear();
+			instructions.addAll(padded);
+			relocator.relocate();
+			relocators.add(relocator);
+		}
+		byte[] padded = new ClassFileWriter().write(classFile);
+		assertDoesNotThrow(() -> disassemble(padded));
+
+		Set<Instruction> nops = Collections.newSetFromMap(new IdentityHashMap<>());
+		nops.addAll(added);
+		int i = 0;
+		for (Method method : classFile.getMethods()) {
+			CodeAttribute attribute = method.getAttribute(CodeAttribute.class);
+			if (attribute == null)
+				continue;
+			attribute.getInstructions().removeIf(nops::contains);
+			relocators.get(i++).relocate();
+		}
+		assertEquals(disassemble(code), disassemble(new ClassFileWriter().write(classFile)));
+	}
+
+	@Test
+	public void testBranchesWidened() throws Exception {
+		// Returns 0 when given 0, otherwise 1
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_6, ACC_PUBLIC, "Widened", null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "test", "(I)I", null, null);
+		Label zero = new Label();
+		Label end = new Label();
+		mv.visitCode();
+		mv.visitVarInsn(ILOAD, 0);
+		mv.visitJumpInsn(IFEQ, zero);
+		mv.visitInsn(ICONST_1);
+		mv.visitJumpInsn(GOTO, end);
+		mv.visitLabel(zero);
+		mv.visitInsn(ICONST_0);
+		mv.visitLabel(end);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+
+		// Push the branch targets out of range of a short offset
+		ClassFile classFile = new ClassFileReader().read(cw.toByteArray());
+		CodeAttribute code = classFile.getMethods().get(0).getAttribute(CodeAttribute.class);
+		CodeRelocator relocator = new CodeRelocator(code);
+		List<Instruction> instructions = code.getInstructions();
+		instructions.addAll(4, Collections.nCopies(Short.MAX_VALUE, new BasicInstruction(NOP)));
+		relocator.relocate();
+		assertEquals(Opcodes.GOTO_W, instructions.get(4).getOpcode());
+		assertEquals(Opcodes.IFNE, instructions.get(1).getOpcode());
+		assertEquals(Opcodes.GOTO_W, instructions.get(2).getOpcode());
+		byte[] modified = new ClassFileWriter().write(classFile);
+
+		Class<?> cls = new ClassLoader(null) {
+			Class<?> define() {
+				return defineClass("Widened", modified, 0, modified.length);
+			}
+		}.define();
+		java.lang.reflect.Method test = cls.getMethod("test", int.class);
+		assertEquals(0, test.invoke(null, 0));
+		assertEquals(1, test.invoke(null, 5));
+	}
+
+	@Test
+	public void testBranchWideningRejected() {
+		// 0: iload_0, 1: ifeq 7, 4: goto 7, 7: return
+		IntOperandInstruction ifeq = new IntOperandInstruction(Opcodes.IFEQ, 6);
+		IntOperandInstruction jump = new IntOperandInstruction(Opcodes.GOTO, 3);
+		List<Instruction> instructions = new ArrayList<>(List.of(new BasicInstruction(Opcodes.ILOAD_0), ifeq, jump,
+				new BasicInstruction(Opcodes.RETURN)));
+		List<Attribute> attributes = new ArrayList<>();
+		attributes.add(new StackMapTableAttribute(new CpUtf8("StackMapTable"), new ArrayList<>()));
+		CodeAttribute code = new CodeAttribute(new CpUtf8("Code"), 1, 1, instructions, new ArrayList<>(), attributes);
+		CodeRelocator relocator = new CodeRelocator(code);
+		code.getInstructions().addAll(3, Collections.nCopies(Short.MAX_VALUE, new BasicInstruction(NOP)));
+
+		// Conditional branches cannot be widened in code with a stack map table, and nothing is changed beforehand
+		assertThrows(IllegalStateException.class, relocator::relocate);
+		assertEquals(Opcodes.IFEQ, ifeq.getOpcode());
+		assertEquals(Opcodes.GOTO, jump.getOpcode());
+		assertEquals(Short.MAX_VALUE + 4, code.getInstructions().size());
+
+		// 0: iload_0, 1: goto 4, 4: ifeq 0
+		ifeq = new IntOperandInstruction(Opcodes.IFEQ, -4);
+		jump = new IntOperandInstruction(Opcodes.GOTO, 3);
+		instructions = new ArrayList<>(List.of(new BasicInstruction(Opcodes.ILOAD_0), jump, ifeq));
+		code = new CodeAttribute(new CpUtf8("Code"), 1, 1, instructions, new ArrayList<>(), new ArrayList<>());
+		relocator = new CodeRelocator(code);
+		code.getInstructions().addAll(2, Collections.nCopies(Short.MAX_VALUE, new BasicInstruction(NOP)));
+
+		// Conditional branches at the end of the code have nothing to fall through to when inverted
+		assertThrows(IllegalStateException.class, relocator::relocate);
+		assertEquals(Opcodes.IFEQ, ifeq.getOpcode());
+		assertEquals(Opcodes.GOTO, jump.getOpcode());
+		assertEquals(Short.MAX_VALUE + 3, code.getInstructions().size());
+	}
+
+	@Test
+	public void testReinterpretedJumpsWidened() throws Exception {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_6, ACC_PUBLIC, "Reinterpreted", null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "test", "()V", null, null);
+		mv.visitCode();
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+
+		// 0: goto 4, into the operand of 3: sipush 0xB1, which reads as 'nop, return'.
+		// The reinterpreted block is copied past the end of the code, too far away for a 'goto'.
+		ClassFile classFile = new ClassFileReader().read(cw.toByteArray());
+		CodeAttribute code = classFile.getMethods().get(0).getAttribute(CodeAttribute.class);
+		IntOperandInstruction jump = new IntOperandInstruction(Opcodes.GOTO, 4);
+		List<Instruction> instructions = new ArrayList<>();
+		instructions.add(jump);
+		instructions.add(new IntOperandInstruction(Opcodes.SIPUSH, 0xB1));
+		instructions.add(new BasicInstruction(Opcodes.POP));
+		instructions.addAll(Collections.nCopies(Short.MAX_VALUE, new BasicInstruction(NOP)));
+		instructions.add(new BasicInstruction(Opcodes.RETURN));
+		code.setInstructions(instructions);
+		new IllegalStrippingTransformer(classFile) {
+			{
+				removeInstructionReinterpretation(code, 0);
+			}
+		};
+
+		// The jump is widened to reach the copied block
+		assertEquals(Opcodes.GOTO_W, jump.getOpcode());
+		Instruction target = code.getInstructionAtOffset(code.computeOffsetOf(jump) + jump.getOperand());
+		assertEquals(Opcodes.NOP, target.getOpcode());
+		assertEquals(code.getInstructions().size() - 2, code.indexOf(target));
+		assertEquals(Opcodes.RETURN, code.getInstructions().get(code.getInstructions().size() - 1).getOpcode());
+	}
+
+	@Test
+	public void testInPlaceChanges() {
+		// 0: iconst_0, 1: lookupswitch, 12: goto, 15: return
+		LookupSwitchInstruction lookup = new LookupSwitchInstruction(14, new ArrayList<>(), new ArrayList<>());
+		lookup.notifyStartPosition(1);
+		IntOperandInstruction jump = new IntOperandInstruction(Opcodes.GOTO, 3);
+		Instruction ret = new BasicInstruction(Opcodes.RETURN);
+		List<Instruction> instructions = new ArrayList<>(List.of(new BasicInstruction(Opcodes.ICONST_0), lookup, jump, ret));
+		CodeAttribute code = new CodeAttribute(new CpUtf8("Code"), 1, 1, instructions, new ArrayList<>(), new ArrayList<>());
+		assertOffsetsMatch(code);
+		assertEquals(15, code.computeOffsetOf(ret));
+
+		// Branch targets changed in place are seen by the control flow graph
+		ControlFlowGraph graph = code.getControlFlowGraph();
+		assertSame(graph.getBlockOf(3), graph.getBlockOf(2).getSuccessors().get(0));
+		jump.setOperand(-12);
+		graph = code.getControlFlowGraph();
+		assertSame(graph.getEntryBlock(), graph.getBlockOf(2).getSuccessors().get(0));
+
+		// Switch cases and opcodes changing the size of instructions in place are seen by offset lookups
+		lookup.setKeys(new ArrayList<>(List.of(1)));
+		lookup.setOffsets(new ArrayList<>(List.of(22)));
+		assertOffsetsMatch(code);
+		assertEquals(23, code.computeOffsetOf(ret));
+		jump.setOpcode(Opcodes.GOTO_W);
+		assertOffsetsMatch(code);
+		assertEquals(25, code.computeOffsetOf(ret));
+		assertSame(ret, code.getInstructionAtOffset(25));
+		assertEquals(26, code.computeSize());
+	}
+
+	@Test
+	public void testLookupsReuseCache() {
+		// Counts how often the size of the switch is computed, which each rebuild of the offsets does
+		int[] sizeChecks = new int[1];
+		List<Integer> targets = new ArrayList<>(List.of(24, 27)) {
+			@Override
+			public int size() {
+				sizeChecks[0]++;
+				return super.size();
+			}
+		};
+		TableSwitchInstruction table = new TableSwitchInstruction(27, 0, 1, targets);
+		table.notifyStartPosition(0);
+		IntOperandInstruction jump = new IntOperandInstruction(Opcodes.GOTO, -24);
+		Instruction ret = new BasicInstruction(Opcodes.RETURN);
+		List<Instruction> instructions = new ArrayList<>(List.of(table, jump, ret));
+		List<ExceptionTableEntry> exceptionTable = new ArrayList<>(List.of(new ExceptionTableEntry(0, 24, 27, null)));
+		CodeAttribute code = new CodeAttribute(new CpUtf8("Code"), 1, 1, instructions, exceptionTable, new ArrayList<>());
+		ControlFlowGraph graph = code.getControlFlowGraph();
+		int checks = sizeChecks[0];
+
+		// Unchanged code is not measured again by any lookup
+		for (int i = 0; i < 10; i++) {
+			assertEquals(28, code.computeSize());
+			assertEquals(27, code.computeOffsetOf(ret));
+			assertSame(jump, code.getInstructionAtOffset(24));
+			assertSame(table, code.getContainingInstructionAtOffset(5));
+			assertSame(graph, code.getControlFlowGraph());
+		}
+		assertEquals(checks, sizeChecks[0]);
+
+		// Changes to instructions and exception ranges in place are picked up
+		jump.setOperand(3);
+		assertNotSame(graph, graph = code.getControlFlowGraph());
+		assertSame(graph, code.getControlFlowGraph());
+		code.getExceptionTable().get(0).setHandlerPc(24);
+		assertNotSame(graph, graph = code.getControlFlowGraph());
+		assertSame(graph, code.getControlFlowGraph());
+		table.setOffsets(new ArrayList<>(List.of(28, 28, 31)));
+		assertEquals(31, code.computeOffsetOf(ret));
+		assertNotSame(graph, code.getControlFlowGraph());
+	}
+
+	@Test
+	public void testSharedBasicInstructions() throws Exception {
+		BasicInstruction nop = BasicInstruction.of(Opcodes.NOP);
+		assertSame(nop, BasicInstruction.of(Opcodes.NOP));
+		assertTrue(nop.isShared());
+		assertFalse(new BasicInstruction(Opcodes.NOP).isShared());
+		assertThrows(UnsupportedOperationException.class, () -> nop.setOpcode(Opcodes.ICONST_0));
+
+		// Only instructions without operands have shared instances
+		assertSame(BasicInstruction.of(Opcodes.MONITOREXIT), BasicInstruction.of(Opcodes.MONITOREXIT));
+		for (int opcode : new int[]{-1, Opcodes.BIPUSH, Opcodes.ILOAD, Opcodes.IINC, Opcodes.GOTO, Opcodes.NEW, 256})
+			assertThrows(IllegalArgumentException.class, () -> BasicInstruction.of(opcode));
+
+		// Shared instances resolve to their first occurrence, offsets are still computed by position
+		List<Instruction> instructions = new ArrayList<>(List.of(nop, nop, BasicInstruction.of(Opcodes.RETURN)));
+		CodeAttribute code = new CodeAttribute(new CpUtf8("Code"), 0, 1, instructions, new ArrayList<>(), new ArrayList<>());
+		assertEquals(0, code.indexOf(nop));
+		assertEquals(3, code.computeSize());
+		assertSame(instructions.get(2), code.getInstructionAtOffset(2));
+		assertSame(code.getControlFlowGraph().getEntryBlock(), code.getControlFlowGraph().getBlockAtOffset(1));
+		assertNull(code.getControlFlowGraph().getBlockAtOffset(3));
+	}
+
+	@Test
+	public void testReaderSharesBasicInstructions() throws Exception {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC, "Example", null, "java/lang/Object", null);
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "example", "()V", null, null);
+		mv.visitCode();
+		mv.visitInsn(Opcodes.NOP);
+		mv.visitInsn(Opcodes.NOP);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		byte[] bytes = cw.toByteArray();
+
+		// By default occurrences of the same opcode share one immutable instance
+		CodeAttribute code = new ClassFileReader().read(bytes).getMethods().get(0).getAttribute(CodeAttribute.class);
+		assertNotNull(code);
+		List<Instruction> instructions = code.getInstructions();
+		assertSame(BasicInstruction.of(Opcodes.NOP), instructions.get(0));
+		assertSame(instructions.get(0), instructions.get(1));
+		assertEquals(0, code.indexOf(instructions.get(1)));
+
+		// When disabled, each occurrence is its own instance, and can be modified in place
+		ClassFileReader reader = new ClassFileReader();
+		reader.setShareBasicInstructions(false);
+		code = reader.read(bytes).getMethods().get(0).getAttribute(CodeAttribute.class);
+		assertNotNull(code);
+		instructions = code.getInstructions();
+		assertNotSame(instructions.get(0), instructions.get(1));
+		assertFalse(((BasicInstruction) instructions.get(0)).isShared());
+		assertEquals(1, code.indexOf(instructions.get(1)));
+		instructions.get(1).setOpcode(Opcodes.ICONST_0);
+		assertEquals(Opcodes.NOP, instructions.get(0).getOpcode());
+	}
+
+	private static void assertOffsetsMatch(CodeAttribute code) {
+		CodeUtilities linear = CodeUtilities.wrap(new ArrayList<>(code.getInstructions()));
+		int size = linear.computeSize();
+		assertEquals(size, code.computeSize());
+		for (Instruction instruction : code.getInstructions()) {
+			assertEquals(linear.indexOf(instruction), code.indexOf(instruction));
+			assertEquals(linear.computeOffsetOf(instruction), code.computeOffsetOf(instruction));
+		}
+		for (int offset = -1; offset <= size; offset++) {
+			assertSame(linear.getInstructionAtOffset(offset), code.getInstructionAtOffset(offset));
+			assertSame(linear.getContainingInstructionAtOffset(offset), code.getContainingInstructionAtOffset(offset));
+		}
+	}
+
+	private static String disassemble(byte[] code) {
+		StringWriter out = new StringWriter();
+		new ClassReader(code).accept(new TraceClassVisitor(new PrintWriter(out)), 0);
+		return out.toString();
+	}
+}
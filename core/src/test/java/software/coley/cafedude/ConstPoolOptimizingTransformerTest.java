@@ -0,0 +1,67 @@
+package software.coley.cafedude;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.util.TraceClassVisitor;
+import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.ConstPool;
+import software.coley.cafedude.classfile.ConstPoolReferences;
+import software.coley.cafedude.classfile.constant.CpEntry;
+import software.coley.cafedude.classfile.constant.CpUtf8;
+import software.coley.cafedude.io.ClassFileReader;
+import software.coley.cafedude.io.ClassFileWriter;
+import software.coley.cafedude.transform.ConstPoolOptimizingTransformer;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ConstPoolOptimizingTransformer}.
+ */
+public class ConstPoolOptimizingTransformerTest {
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testPoolOptimized(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFile cf = new ClassFileReader().read(code);
+		new ConstPoolOptimizingTransformer(cf).transform();
+		byte[] optimized = new ClassFileWriter().write(cf);
+		assertTrue(optimized.length <= code.length, "Optimized class grew: " + cf.getName());
+
+		// Only pool indices may change, so the disassembly should be the same
+		assertEquals(disassemble(code), disassemble(optimized), "Class difference for: " + cf.getName());
+
+		// Every remaining entry should be referenced
+		ConstPool pool = cf.getPool();
+		ConstPoolReferences references = cf.computeCpReferences();
+		for (CpEntry cp : pool)
+			assertTrue(references.isReferenced(cp), "Unreferenced entry left in: " + cf.getName());
+
+		// Duplicate and unused entries should be removed
+		CpUtf8 name = cf.getThisClass().getName();
+		CpUtf8 duplicate = new CpUtf8(name.getText());
+		CpUtf8 unused = new CpUtf8("unused");
+		pool.add(duplicate);
+		pool.add(unused);
+		cf.getThisClass().setName(duplicate);
+		references = cf.computeCpReferences();
+		assertTrue(references.isReferenced(duplicate));
+		assertFalse(references.isReferenced(unused));
+		ConstPoolOptimizingTransformer transformer = new ConstPoolOptimizingTransformer(cf);
+		transformer.transform();
+		assertEquals(2, transformer.getRemovedCount());
+		assertSame(name, cf.getThisClass().getName());
+		assertArrayEquals(optimized, new ClassFileWriter().write(cf));
+	}
+
+	private static String disassemble(byte[] code) {
+		StringWriter out = new StringWriter();
+		new ClassReader(code).accept(new TraceClassVisitor(new PrintWriter(out)), 0);
+		return out.toString();
+	}
+}
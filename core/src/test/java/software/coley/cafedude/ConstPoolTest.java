@@ -0,0 +1,186 @@
+package software.coley.cafedude;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.ConstPool;
+import software.coley.cafedude.classfile.constant.CpDouble;
+import software.coley.cafedude.classfile.constant.CpEntry;
+import software.coley.cafedude.classfile.constant.CpLong;
+import software.coley.cafedude.classfile.constant.CpUtf8;
+import software.coley.cafedude.io.ClassFileReader;
+import software.coley.cafedude.io.ClassFileWriter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ConstPool} lookups, modification and encoding.
+ */
+public class ConstPoolTest {
+	@Test
+	public void testLookupIndexed() {
+		ConstPool pool = new ConstPool();
+		CpUtf8 first = new CpUtf8("first");
+		CpLong wide = new CpLong(1L);
+		CpUtf8 last = new CpUtf8("last");
+		pool.add(first);
+		pool.add(wide);
+		pool.add(last);
+		pool.add(new CpUtf8("first"));
+
+		// Lookups find the first equal entry, the same as linear scans
+		pool.setLookupIndexed(true);
+		assertTrue(pool.isLookupIndexed());
+		assertEquals(1, pool.indexOf(new CpUtf8("first")));
+		assertEquals(2, pool.indexOf(new CpLong(1L)));
+		assertEquals(4, pool.indexOf(new CpUtf8("last")));
+		assertEquals(-1, pool.indexOf(new CpUtf8("missing")));
+		assertEquals(-1, pool.indexOf("first"));
+		assertTrue(pool.contains(new CpUtf8("last")));
+
+		// Appended entries are indexed as they are added
+		pool.add(new CpUtf8("appended"));
+		assertEquals(6, pool.indexOf(new CpUtf8("appended")));
+
+		// Removals shift the indices of later entries
+		pool.remove(1);
+		assertEquals(3, pool.indexOf(new CpUtf8("last")));
+		assertEquals(4, pool.indexOf(new CpUtf8("first")));
+
+		// Entries changed in place are no longer found by their old content
+		last.setText("changed");
+		assertEquals(-1, pool.indexOf(new CpUtf8("last")));
+		pool.setLookupIndexed(false);
+		assertFalse(pool.isLookupIndexed());
+		assertEquals(-1, pool.indexOf(new CpUtf8("last")));
+		assertEquals(3, pool.indexOf(new CpUtf8("changed")));
+	}
+
+	@Test
+	public void testRemoveIfFirstMiddleLast() {
+		CpUtf8 a = new CpUtf8("a");
+		CpUtf8 b = new CpUtf8("b");
+		CpUtf8 c = new CpUtf8("c");
+		CpUtf8 d = new CpUtf8("d");
+		CpUtf8 e = new CpUtf8("e");
+		ConstPool pool = poolOf(a, b, c, d, e);
+		int revision = pool.getRevision();
+
+		// Remaining entries are packed down and renumbered
+		assertTrue(pool.removeIf(cp -> cp == a || cp == c || cp == e));
+		assertNotEquals(revision, pool.getRevision());
+		assertEquals(3, pool.size());
+		assertSame(b, pool.get(1));
+		assertSame(d, pool.get(2));
+		assertNull(pool.get(3));
+		assertEquals(1, b.getIndex());
+		assertEquals(2, d.getIndex());
+		assertEquals(1, pool.indexOf(b));
+		assertEquals(2, pool.indexOf(d));
+
+		// Nothing matching leaves the pool as-is
+		revision = pool.getRevision();
+		assertFalse(pool.removeIf(cp -> cp == a));
+		assertEquals(revision, pool.getRevision());
+		assertEquals(3, pool.size());
+	}
+
+	@Test
+	public void testRemoveIfWide() {
+		CpUtf8 a = new CpUtf8("a");
+		CpLong wideLong = new CpLong(1L);
+		CpUtf8 b = new CpUtf8("b");
+		CpDouble wideDouble = new CpDouble(2.0);
+		CpUtf8 c = new CpUtf8("c");
+		ConstPool pool = poolOf(a, wideLong, b, wideDouble, c);
+		assertEquals(8, pool.size());
+
+		// Removing a wide entry also removes its reserved slot
+		assertTrue(pool.removeIf(cp -> cp == wideLong));
+		assertEquals(6, pool.size());
+		assertEquals(1, a.getIndex());
+		assertEquals(2, b.getIndex());
+		assertEquals(3, wideDouble.getIndex());
+		assertEquals(5, c.getIndex());
+		assertNull(pool.get(4), "Reserved slot should follow its wide entry");
+		assertSame(c, pool.get(5));
+
+		// Kept wide entries move along with their reserved slot
+		assertTrue(pool.removeIf(cp -> cp == a));
+		assertEquals(5, pool.size());
+		assertEquals(2, wideDouble.getIndex());
+		assertNull(pool.get(3));
+		assertSame(c, pool.get(4));
+		assertEquals(4, c.getIndex());
+	}
+
+	@Test
+	public void testRemoveAllMatchesIndividualRemoval() {
+		List<CpEntry> removed = List.of(new CpUtf8("a"), new CpLong(3L), new CpUtf8("e"));
+		ConstPool bulk = poolOf(new CpUtf8("a"), new CpUtf8("b"), new CpLong(3L), new CpUtf8("d"), new CpUtf8("e"));
+		ConstPool single = poolOf(new CpUtf8("a"), new CpUtf8("b"), new CpLong(3L), new CpUtf8("d"), new CpUtf8("e"));
+
+		// Removal by equality gives the same pool as removing each entry individually
+		assertTrue(bulk.removeAll(removed));
+		for (CpEntry cp : removed)
+			assertTrue(single.remove(cp));
+		assertEquals(single.size(), bulk.size());
+		for (int i = 1; i < bulk.size(); i++) {
+			assertEquals(single.get(i), bulk.get(i));
+			assertEquals(i, bulk.get(i).getIndex());
+		}
+		assertEquals(3, bulk.size());
+		assertEquals(new CpUtf8("b"), bulk.get(1));
+		assertEquals(new CpUtf8("d"), bulk.get(2));
+	}
+
+	@Test
+	public void testRetainAll() {
+		CpUtf8 a = new CpUtf8("a");
+		CpLong wide = new CpLong(1L);
+		CpUtf8 b = new CpUtf8("b");
+		ConstPool pool = poolOf(a, wide, b);
+
+		// Retained entries are renumbered
+		assertTrue(pool.retainAll(List.of(b, wide)));
+		assertEquals(4, pool.size());
+		assertEquals(1, wide.getIndex());
+		assertEquals(3, b.getIndex());
+		assertFalse(pool.retainAll(List.of(b, wide)));
+
+		// Retaining nothing empties the pool
+		assertTrue(pool.retainAll(Collections.emptyList()));
+		assertTrue(pool.isEmpty());
+		assertEquals(1, pool.size());
+		assertNull(pool.get(1));
+		assertFalse(pool.retainAll(Collections.emptyList()));
+	}
+
+	@ParameterizedTest
+	@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+	public void testPoolModificationWritten(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFile cf = new ClassFileReader().read(code);
+		assertNotNull(cf.getPool().getEncoded(), "Pool of unmodified class should be copied as-is");
+
+		// Changing an entry in place must discard the original pool content
+		String renamed = cf.getName() + "Renamed";
+		cf.getThisClass().getName().setText(renamed);
+		assertNull(cf.getPool().getEncoded());
+		ClassFile written = new ClassFileReader().read(new ClassFileWriter().write(cf));
+		assertEquals(renamed, written.getName());
+	}
+
+	private static ConstPool poolOf(CpEntry... entries) {
+		ConstPool pool = new ConstPool();
+		for (CpEntry entry : entries)
+			pool.add(entry);
+		return pool;
+	}
+}
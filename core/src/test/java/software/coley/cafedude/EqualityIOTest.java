@@ -1,9 +1,12 @@
 package software.coley.cafedude;
 
 import software.coley.cafedude.classfile.ClassFile;
+import software.coley.cafedude.classfile.Method;
+import software.coley.cafedude.classfile.attribute.CodeAttribute;
 import software.coley.cafedude.io.ClassFileReader;
 import software.coley.cafedude.io.ClassFileWriter;
 import software.coley.cafedude.transform.IllegalStrippingTransformer;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -34,6 +37,51 @@ public void testEqualitySelf(Path sub) {
 		test(sub);
 	}
 
+	@ParameterizedTest
+	@MethodSource("supplyResourceClasses")
+	public void testEqualityLazy(Path sub) throws Exception {
+		ClassFileReader reader = new ClassFileReader();
+		reader.setLazyParsing(true);
+		test(sub, reader, false);
+	}
+
+	@ParameterizedTest
+	@MethodSource("supplyResourceClasses")
+	public void testEqualityLazyUntouched(Path sub) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFileReader reader = new ClassFileReader();
+		reader.setLazyParsing(true);
+		reader.setPassThroughUntouched(true);
+		ClassFile cf = reader.read(code);
+
+		// Writing without inspecting any code should copy the original code as-is
+		byte[] out = new ClassFileWriter().write(cf);
+		assertArrayEquals(code, out);
+		for (Method method : cf.getMethods()) {
+			CodeAttribute attribute = method.getAttribute(CodeAttribute.class);
+			if (attribute != null)
+				assertNotNull(attribute.getDeferredInstructions(), "Code was decoded: " + method.getName().getText());
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("supplyResourceClasses")
+	public void testEqualityMapped(Path sub) throws Exception {
+		// Reads from a memory-mapped direct buffer rather than a heap array
+		test(sub, new ClassFileReader(), true);
+	}
+
+	@Test
+	public void testEqualityConcurrent() {
+		// A single reader and writer shared across threads
+		ClassFileReader reader = new ClassFileReader();
+		ClassFileWriter writer = new ClassFileWriter();
+		supplyResourceClasses().parallelStream().forEach(sub -> assertDoesNotThrow(() -> {
+			byte[] code = Files.readAllBytes(sub);
+			assertArrayEquals(code, writer.write(reader.read(code)), "Class difference for: " + sub);
+		}));
+	}
+
 	private void test(Path sub) {
 		try {
 			byte[] code = Files.readAllBytes(sub);
@@ -49,6 +97,15 @@ private void test(Path sub) {
 		}
 	}
 
+	private void test(Path sub, ClassFileReader reader, boolean mapped) throws Exception {
+		byte[] code = Files.readAllBytes(sub);
+		ClassFile cf = mapped ? reader.read(sub) : reader.read(code);
+		new IllegalStrippingTransformer(cf).transform();
+		byte[] out = new ClassFileWriter().write(cf);
+		assertEquals(code.length, out.length, "Class difference for: " + cf.getName());
+		assertArrayEquals(code, out);
+	}
+
 	/**
 	 * @return Test files to check.
 	 */
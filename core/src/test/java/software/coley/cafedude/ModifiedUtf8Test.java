@@ -0,0 +1,84 @@
+package software.coley.cafedude;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.coley.cafedude.util.ModifiedUtf8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ModifiedUtf8}, checked against {@link DataOutputStream#writeUTF(String)}.
+ */
+public class ModifiedUtf8Test {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			"ascii",
+			"java/lang/Object",
+			"nul \u0000 in the middle",
+			"two byte \u00e9 \u07ff",
+			"three byte \u0800 \u4e2d \uffff",
+			"surrogate pair \ud83d\ude00"
+	})
+	public void testRoundTrip(String text) throws IOException {
+		byte[] expected = writeUtf(text);
+		int length = ModifiedUtf8.encodedLength(text);
+		assertEquals(expected.length, length);
+
+		// Heap buffers take the ASCII fast path, direct buffers do not
+		for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(length), ByteBuffer.allocateDirect(length)}) {
+			ModifiedUtf8.encode(text, length, buffer);
+			assertEquals(length, buffer.position());
+			byte[] encoded = new byte[length];
+			buffer.get(0, encoded);
+			assertArrayEquals(expected, encoded);
+		}
+
+		// Decoding from the middle of a larger array
+		byte[] data = new byte[length + 4];
+		System.arraycopy(expected, 0, data, 2, length);
+		boolean ascii = ModifiedUtf8.validate(data, 2, length);
+		assertEquals(text.chars().allMatch(c -> c > 0 && c < 0x80), ascii);
+		assertEquals(text, ModifiedUtf8.decode(data, 2, length, ascii));
+	}
+
+	@Test
+	public void testValidateRejectsMalformed() {
+		// Lone continuation byte
+		assertMalformed(0x80);
+		// Two and three byte sequences cut short
+		assertMalformed(0xC3);
+		assertMalformed(0xE4, 0xB8);
+		// Sequences where a continuation byte is expected but not given
+		assertMalformed(0xC3, 0x41);
+		assertMalformed(0xE4, 0xB8, 0x41);
+		// Four byte sequences are not part of the modified format
+		assertMalformed(0xF0, 0x9F, 0x98, 0x80);
+		// Bounds outside the array
+		assertThrows(UTFDataFormatException.class, () -> ModifiedUtf8.validate(new byte[2], 1, 2));
+		assertThrows(UTFDataFormatException.class, () -> ModifiedUtf8.validate(new byte[2], -1, 1));
+	}
+
+	private static void assertMalformed(int... values) {
+		byte[] data = new byte[values.length];
+		for (int i = 0; i < values.length; i++)
+			data[i] = (byte) values[i];
+		assertThrows(UTFDataFormatException.class, () -> ModifiedUtf8.validate(data, 0, data.length),
+				"Accepted malformed input: " + Arrays.toString(data));
+	}
+
+	private static byte[] writeUtf(String text) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		new DataOutputStream(baos).writeUTF(text);
+		byte[] data = baos.toByteArray();
+		return Arrays.copyOfRange(data, 2, data.length);
+	}
+}
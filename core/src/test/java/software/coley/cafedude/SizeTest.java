@@ -1,10 +1,19 @@
 package software.coley.cafedude;
 
+import software.coley.cafedude.classfile.ClassFile;
 import software.coley.cafedude.classfile.constant.Placeholders;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import software.coley.cafedude.classfile.instruction.*;
+import software.coley.cafedude.io.ClassFileReader;
+import software.coley.cafedude.io.ClassFileWriter;
+import software.coley.cafedude.transform.IllegalStrippingTransformer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -182,6 +191,22 @@ void testTableSwitchInstruction() {
 		}
 	}
 
+	@Nested
+	class ClassFileSize {
+		@ParameterizedTest
+		@MethodSource("software.coley.cafedude.EqualityIOTest#supplyResourceClasses")
+		void testClassSize(Path sub) throws IOException, InvalidClassException {
+			byte[] code = Files.readAllBytes(sub);
+			ClassFile cf = new ClassFileReader().read(code);
+			new IllegalStrippingTransformer(cf).transform();
+			assertEquals(code.length, cf.computeSize());
+
+			// Size of a pool that must be re-encoded, rather than copied as-is, is computed per entry
+			cf.getThisClass().getName().setText(cf.getName() + "\u00e9\u4e2d");
+			assertEquals(new ClassFileWriter().write(cf).length, cf.computeSize());
+		}
+	}
+
 	// TODO: Size tests for comparing against instruction write-back using InstructionWriter
 
 	// TODO: Size tests for other size-bound elements
@@ -172,7 +172,7 @@ Instruction convertToInstruction(Insn insn, State state) throws InvalidCodeExcep
 			case NOP:
 			case MONITOR:
 			case THROW:
-				return new BasicInstruction(opcode);
+				return BasicInstruction.of(opcode);
 			case FIELD: {
 				FieldInsn fieldInsn = (FieldInsn) insn;
 				CpFieldRef fieldRef = symbols.newField(fieldInsn.getOwner(), fieldInsn.getName(),
@@ -259,7 +259,7 @@ Instruction convertToInstruction(Insn insn, State state) throws InvalidCodeExcep
 						opcode = ISTORE_0 + ((opcode - ISTORE) * 4) + var;
 					}
 					state.offset--; // compensate for the index
-					return new BasicInstruction(opcode);
+					return BasicInstruction.of(opcode);
 				} else {
 					return new IntOperandInstruction(opcode, var);
 				}
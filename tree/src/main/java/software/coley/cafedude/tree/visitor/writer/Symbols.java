@@ -22,10 +22,11 @@ public class Symbols {
 
 	/**
 	 * @param pool
-	 * 		Pool to resource from.
+	 * 		Pool to resource from. Lookups of existing entries are {@link ConstPool#setLookupIndexed(boolean) indexed}.
 	 */
 	public Symbols(@Nonnull ConstPool pool) {
 		this.pool = pool;
+		pool.setLookupIndexed(true);
 	}
 
 	CpUtf8 newUtf8(@Nonnull String value) {